@@ -13,6 +13,7 @@ public interface AddressMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
+    @Mapping(target = "geohash", ignore = true)
     Address toEntity(AddressDTO.Request request);
 
     AddressDTO.Response toDto(Address address);
@@ -1,6 +1,7 @@
 package dev.account.user;
 
 import dev.core.common.AbstractAuditingEntity;
+import dev.core.common.Geohash;
 import dev.services.restaurant.Restaurant;
 import jakarta.persistence.*;
 import lombok.*;
@@ -24,7 +25,7 @@ public class Address extends AbstractAuditingEntity<Long> implements Serializabl
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_sequence")
-    @SequenceGenerator(name = "address_sequence", sequenceName = "address_sequence", allocationSize = 1)
+    @SequenceGenerator(name = "address_sequence", sequenceName = "address_sequence", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -45,15 +46,35 @@ public class Address extends AbstractAuditingEntity<Long> implements Serializabl
 
     private Double longitude;
 
+    /**
+     * Full-precision geohash of the coordinates, kept in step with them so nearby searches can prefix-match cells
+     */
+    @Column(length = Geohash.MAX_PRECISION)
+    private String geohash;
+
+    @PrePersist
+    @PreUpdate
+    protected void updateGeohash() {
+        this.geohash = latitude != null && longitude != null
+                ? Geohash.encode(latitude, longitude, Geohash.MAX_PRECISION) : null;
+    }
+
     // Calculate distance between two locations using Haversine formula
     public double distanceTo(Address other) {
+        return distanceBetween(this.latitude, this.longitude, other.latitude, other.longitude);
+    }
+
+    /**
+     * Haversine distance in km between two coordinates, for callers that only hold raw points.
+     */
+    public static double distanceBetween(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
         final int R = 6371; // Radius of the earth in km
 
-        double latDistance = Math.toRadians(other.latitude - this.latitude);
-        double lonDistance = Math.toRadians(other.longitude - this.longitude);
+        double latDistance = Math.toRadians(toLatitude - fromLatitude);
+        double lonDistance = Math.toRadians(toLongitude - fromLongitude);
 
         double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(this.latitude)) * Math.cos(Math.toRadians(other.latitude))
+                + Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude))
                 * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
 
         double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
@@ -35,7 +35,7 @@ public class User extends AbstractAuditingEntity<Long> implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_sequence")
-    @SequenceGenerator(name = "user_sequence", sequenceName = "user_sequence", allocationSize = 1, initialValue = 50)
+    @SequenceGenerator(name = "user_sequence", sequenceName = "user_sequence", allocationSize = 50, initialValue = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
@@ -27,6 +27,10 @@ public interface UserAccountRepository extends JpaRepository<User, Long> {
 
     Page<User> findAllByIdNotNullAndActivatedIsTrue(Pageable pageable);
 
+    List<User> findAllByOrderByIdAsc(Pageable window);
+
+    List<User> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable window);
+
     @EntityGraph(attributePaths = "authorities")
     @Cacheable(cacheNames = USERS_BY_EMAIL_CACHE, unless = "#result == null")
     Optional<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
@@ -7,6 +7,8 @@ import dev.account.mapper.UserMapper;
 import dev.account.web.errors.AccountResourceException;
 import dev.account.web.errors.EmailAlreadyUsedException;
 import dev.account.web.errors.InvalidPasswordException;
+import dev.core.utils.Cursor;
+import dev.core.utils.CursorPage;
 import dev.core.utils.RandomUtils;
 import dev.security.AuthoritiesConstants;
 import dev.security.SecurityUtils;
@@ -200,6 +202,18 @@ public class UserAccountService {
         return userAccountRepository.findAll(pageable).map(AdminUserDTO::new);
     }
 
+    /**
+     * All users in id order, a page at a time from the cursor of the previous page; the primary key serves the seek
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AdminUserDTO> scrollManagedUsers(String cursor, int size) {
+        Cursor after = Cursor.decode(cursor);
+        List<User> users = after == null
+                ? userAccountRepository.findAllByOrderByIdAsc(CursorPage.window(size))
+                : userAccountRepository.findAllByIdGreaterThanOrderByIdAsc(after.id(), CursorPage.window(size));
+        return CursorPage.of(users, size, user -> Cursor.of(user.getId()), AdminUserDTO::new);
+    }
+
     @Transactional(readOnly = true)
     public Optional<User> getUserWithAuthoritiesByEmail(String email) {
         return userAccountRepository.findOneWithAuthoritiesByEmailIgnoreCase(email);
@@ -8,6 +8,7 @@ import dev.account.user.UserAccountService;
 import dev.account.web.errors.EmailAlreadyUsedException;
 import dev.core.config.Constants;
 import dev.core.exception.BadRequestAlertException;
+import dev.core.utils.CursorPage;
 import dev.core.utils.HeaderUtils;
 import dev.core.utils.PaginationUtils;
 import dev.core.utils.ResponseUtils;
@@ -162,6 +163,25 @@ public class UserResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * {@code GET /admin/users/scroll} : get all users in id order with keyset pagination - calling this are only
+     * allowed for the administrators.
+     *
+     * @param cursor the cursor from the previous page's {@code Link} header, absent for the first page.
+     * @param size   the number of users per page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the page of users.
+     */
+    @GetMapping("/users/scroll")
+    public ResponseEntity<List<AdminUserDTO>> scrollAllUsers(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "20") int size) {
+        LOG.debug("REST request to scroll all User for an admin");
+        final CursorPage<AdminUserDTO> page = userAccountService.scrollManagedUsers(cursor, size);
+        HttpHeaders headers = PaginationUtils.generateCursorHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(), page);
+
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
     private boolean onlyContainsAllowedProperties(Pageable pageable) {
         return pageable.getSort().stream().map(Sort.Order::getProperty)
                 .allMatch(ALLOWED_ORDERED_PROPERTIES::contains);
@@ -0,0 +1,149 @@
+package dev.core.common;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Base-32 geohash encoding of coordinates, matching the {@code geohash} column on {@code addresses}.
+ * <p>
+ * A hash names a lat/lon cell; every extra character narrows it to one of 32 sub-cells, so points sharing a prefix
+ * lie in the same cell and a prefix match is an index range scan.
+ *
+ * @author Nelson Tanko
+ */
+public final class Geohash {
+
+    public static final int MAX_PRECISION = 12;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean lonBit = true;
+        int bits = 0, value = 0;
+        while (hash.length() < precision) {
+            if (lonBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLon = mid;
+                } else {
+                    value <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value <<= 1;
+                    maxLat = mid;
+                }
+            }
+            lonBit = !lonBit;
+            if (++bits == 5) {
+                hash.append(BASE32.charAt(value));
+                bits = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    public static Bounds decode(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean lonBit = true;
+        for (char c : hash.toCharArray()) {
+            int value = BASE32.indexOf(c);
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int bit = 4; bit >= 0; bit--) {
+                boolean set = ((value >> bit) & 1) == 1;
+                if (lonBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) minLon = mid; else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) minLat = mid; else maxLat = mid;
+                }
+                lonBit = !lonBit;
+            }
+        }
+        return new Bounds(minLat, maxLat, minLon, maxLon);
+    }
+
+    /**
+     * The cell holding the point and its eight neighbours, which together cover every point closer to it than
+     * one cell side
+     */
+    public static Set<String> neighbourhood(double latitude, double longitude, int precision) {
+        Bounds cell = decode(encode(latitude, longitude, precision));
+        double height = cell.maxLatitude() - cell.minLatitude();
+        double width = cell.maxLongitude() - cell.minLongitude();
+        Set<String> cells = new LinkedHashSet<>();
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                double lat = Math.max(-90, Math.min(90, cell.centerLatitude() + dLat * height));
+                double lon = wrapLongitude(cell.centerLongitude() + dLon * width);
+                cells.add(encode(lat, lon, precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * The longest precision whose cells are at least {@code radiusKm} on each side at the given latitude, so a
+     * search circle never reaches past the neighbourhood of its center cell
+     */
+    public static int precisionFor(double radiusKm, double latitude) {
+        double kmPerLonDegree = KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        for (int precision = MAX_PRECISION; precision > 1; precision--) {
+            Bounds cell = decode(encode(0, 0, precision));
+            double heightKm = (cell.maxLatitude() - cell.minLatitude()) * KM_PER_DEGREE;
+            double widthKm = (cell.maxLongitude() - cell.minLongitude()) * kmPerLonDegree;
+            if (heightKm >= radiusKm && widthKm >= radiusKm) {
+                return precision;
+            }
+        }
+        return 1;
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude >= 180) return longitude - 360;
+        if (longitude < -180) return longitude + 360;
+        return longitude;
+    }
+
+    public record Bounds(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude) {
+
+        public double centerLatitude() {
+            return (minLatitude + maxLatitude) / 2;
+        }
+
+        public double centerLongitude() {
+            return (minLongitude + maxLongitude) / 2;
+        }
+
+        /**
+         * The box reaching {@code radiusKm} from the point in every direction. Longitude degrees shrink towards the
+         * poles, so the box is sized at its poleward edge to keep the whole circle inside.
+         */
+        public static Bounds around(double latitude, double longitude, double radiusKm) {
+            double latDelta = radiusKm / KM_PER_DEGREE;
+            double poleward = Math.min(Math.abs(latitude) + latDelta, 89.9);
+            double lonDelta = radiusKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(poleward)));
+            return new Bounds(Math.max(-90, latitude - latDelta), Math.min(90, latitude + latDelta),
+                    Math.max(-180, longitude - lonDelta), Math.min(180, longitude + lonDelta));
+        }
+    }
+}
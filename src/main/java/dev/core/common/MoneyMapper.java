@@ -0,0 +1,22 @@
+package dev.core.common;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Lets MapStruct mappers move between {@link Money} on entities and the plain decimals exposed by DTOs
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class MoneyMapper {
+
+    public BigDecimal toBigDecimal(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    public Money toMoney(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+}
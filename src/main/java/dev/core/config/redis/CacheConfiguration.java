@@ -4,11 +4,13 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
 import dev.core.config.FoodyProperties;
 import dev.core.config.PrefixedKeyGenerator;
+import dev.services.common.CacheTagger;
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisURI;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
@@ -34,8 +36,11 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 import javax.cache.Caching;
 import javax.cache.spi.CachingProvider;
 import java.time.Duration;
+import java.util.Map;
 import java.util.OptionalLong;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Configuration
 @EnableCaching
@@ -85,11 +90,12 @@ public class CacheConfiguration {
     }
 
     /**
-     * This can use either caffeine or redis as cache depending on the prefix
+     * This can use either caffeine or redis as cache depending on the prefix. Redis caches with a {@link CacheTagger}
+     * index their entries by entity so writes can evict them selectively.
      *
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, ObjectProvider<CacheTagger<?>> cacheTaggers) {
         CaffeineCacheManager caffeineCacheManager = new CaffeineCacheManager();
         caffeineCacheManager.setCaffeine(Caffeine.newBuilder()
                 .maximumSize(2)
@@ -110,7 +116,10 @@ public class CacheConfiguration {
                 .cacheDefaults(redisCacheConfiguration)
                 .build();
 
-        return new PrefixRoutingCacheManager(caffeineCacheManager, redisCacheManager);
+        Map<String, CacheTagger<?>> taggers = cacheTaggers.orderedStream()
+                .collect(Collectors.toMap(CacheTagger::cacheName, Function.identity()));
+        return new TaggingCacheManager(new PrefixRoutingCacheManager(caffeineCacheManager, redisCacheManager),
+                taggers, redisTemplate(), Duration.ofHours(timeToLive));
     }
 
     @Bean
@@ -126,7 +135,7 @@ public class CacheConfiguration {
     }
 
     /**
-     * Redis message listener container for key expiration events
+     * Redis message listener container for pub/sub subscriptions
      */
     @Bean
     public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
@@ -0,0 +1,277 @@
+package dev.core.config.redis;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Makes mutating API calls safe to retry. The first response to a request carrying an {@code Idempotency-Key} header
+ * is stored in Redis, with its headers, and replayed for every later request with the same key, user, method and path,
+ * so a retried order costs one Redis read instead of a second pass through the order pipeline.
+ * <p>
+ * The key is bound to a fingerprint of the request body: reusing it for a different payload is rejected with 422
+ * rather than answered with the response to another request. While the first request is still running, a duplicate
+ * is answered with 409 and a {@code Retry-After} hint, and its retry gets the stored response. Server errors are not
+ * stored, so a request that failed on our side can be retried for real.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String LOCK_SUFFIX = ":lock";
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH");
+    /**
+     * Headers that describe the transfer rather than the outcome, or are written again on replay
+     */
+    private static final Set<String> UNSTORED_HEADERS = Set.of(HttpHeaders.CONTENT_TYPE.toLowerCase(),
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(), HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+            HttpHeaders.CONNECTION.toLowerCase(), HttpHeaders.DATE.toLowerCase(), HttpHeaders.SET_COOKIE.toLowerCase(),
+            REPLAYED_HEADER.toLowerCase());
+
+    /**
+     * Stores the response fields and sets the TTL in one call. KEYS: response.
+     * ARGV: ttl in millis, status, content type, body, headers, request fingerprint.
+     */
+    private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HSET', KEYS[1], 'status', ARGV[2], 'contentType', ARGV[3], 'body', ARGV[4],
+                'headers', ARGV[5], 'fingerprint', ARGV[6])
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /**
+     * Deletes the lock only if it is still held by the caller. KEYS: lock. ARGV: owner token.
+     */
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${foody.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${foody.idempotency.ttl:PT24H}")
+    private Duration responseTtl;
+
+    @Value("${foody.idempotency.lock-timeout:PT30S}")
+    private Duration lockTimeout;
+
+    @Value("${foody.idempotency.retry-after:PT1S}")
+    private Duration retryAfter;
+
+    public IdempotencyFilter(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !MUTATING_METHODS.contains(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/")
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER).isBlank();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(cachedRequest.body);
+        String responseKey = resolveKey(request);
+        String lockKey = responseKey + LOCK_SUFFIX;
+        // The lock carries the fingerprint too, so a different payload is told apart while the first one still runs
+        String owner = UUID.randomUUID() + ":" + fingerprint;
+
+        if (replayStoredResponse(responseKey, fingerprint, response)) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, owner, lockTimeout))) {
+            String holder = redisTemplate.opsForValue().get(lockKey);
+            if (holder != null && !holder.endsWith(":" + fingerprint)) {
+                rejectDifferentPayload(responseKey, response);
+                return;
+            }
+            LOG.debug("Request with idempotency key {} is still in flight", responseKey);
+            response.setStatus(HttpStatus.CONFLICT.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+            response.getWriter().write("A request with the same Idempotency-Key is still being processed.");
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            // The first request may have stored its response and let go of the lock since the lookup above
+            if (replayStoredResponse(responseKey, fingerprint, responseWrapper)) {
+                return;
+            }
+            filterChain.doFilter(cachedRequest, responseWrapper);
+            storeResponse(responseKey, fingerprint, responseWrapper);
+        } finally {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), owner);
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private boolean replayStoredResponse(String responseKey, String fingerprint, HttpServletResponse response) throws IOException {
+        Map<Object, Object> stored = redisTemplate.opsForHash().entries(responseKey);
+        if (stored.isEmpty()) {
+            return false;
+        }
+        if (!fingerprint.equals(stored.get("fingerprint"))) {
+            rejectDifferentPayload(responseKey, response);
+            return true;
+        }
+        LOG.debug("Replaying stored response for idempotency key {}", responseKey);
+        response.setStatus(Integer.parseInt((String) stored.get("status")));
+        String contentType = (String) stored.get("contentType");
+        if (!contentType.isEmpty()) {
+            response.setContentType(contentType);
+        }
+        ((String) stored.get("headers")).lines().forEach(line -> {
+            int separator = line.indexOf(':');
+            response.addHeader(line.substring(0, separator), line.substring(separator + 1));
+        });
+        response.setHeader(REPLAYED_HEADER, "true");
+        byte[] body = Base64.getDecoder().decode((String) stored.get("body"));
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        return true;
+    }
+
+    private void rejectDifferentPayload(String responseKey, HttpServletResponse response) throws IOException {
+        LOG.warn("Idempotency key {} was reused with a different request body", responseKey);
+        response.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+        response.getWriter().write("The Idempotency-Key was already used with a different request body.");
+    }
+
+    private void storeResponse(String responseKey, String fingerprint, ContentCachingResponseWrapper response) {
+        int status = response.getStatus();
+        // Server errors and throttling are transient, so those retries must run again
+        if (status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return;
+        }
+        String contentType = response.getContentType() != null ? response.getContentType() : "";
+        String body = Base64.getEncoder().encodeToString(response.getContentAsByteArray());
+        StringBuilder headers = new StringBuilder();
+        for (String name : new LinkedHashSet<>(response.getHeaderNames())) {
+            if (!UNSTORED_HEADERS.contains(name.toLowerCase())) {
+                response.getHeaders(name).forEach(value -> headers.append(name).append(':').append(value).append('\n'));
+            }
+        }
+        redisTemplate.execute(STORE_SCRIPT, List.of(responseKey),
+                String.valueOf(responseTtl.toMillis()), String.valueOf(status), contentType, body, headers.toString(),
+                fingerprint);
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String resolveKey(HttpServletRequest request) {
+        return KEY_PREFIX + getUser() + ":" + request.getMethod() + ":" + request.getRequestURI()
+                + ":" + request.getHeader(IDEMPOTENCY_KEY_HEADER);
+    }
+
+    private String getUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() &&
+                !"anonymousUser".equals(authentication.getPrincipal())) {
+            return authentication.getName();
+        }
+        return "anonymous";
+    }
+
+    /**
+     * Reads the body up front so it can be fingerprinted and still be read by the handler
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException("Non-blocking reads are not supported");
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+}
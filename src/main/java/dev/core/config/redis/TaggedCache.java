@@ -0,0 +1,153 @@
+package dev.core.config.redis;
+
+import dev.services.common.CacheTagger;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Redis cache that records which entries each entity tag appears in, so {@link #evictByTag} can drop exactly those.
+ * <p>
+ * The index lives next to the entries as one Redis set per tag, {@code cache:tags:{cache}:{tag}}, holding the keys of
+ * the entries carrying it. Members are the key's string form, which is how {@link RedisCache} names any key that has
+ * no dedicated converter. Tag sets expire with the entries so the index does not outlive what it points to.
+ *
+ * @author Nelson Tanko
+ */
+public class TaggedCache implements Cache {
+
+    private static final String TAG_KEY_PREFIX = "cache:tags:";
+
+    /**
+     * Adds the entry key to every tag set and refreshes their expiry. KEYS: tag sets. ARGV: ttl in millis, entry key.
+     */
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>("""
+            for _, tag in ipairs(KEYS) do
+                redis.call('SADD', tag, ARGV[2])
+                redis.call('PEXPIRE', tag, ARGV[1])
+            end
+            return #KEYS
+            """, Long.class);
+
+    /**
+     * Deletes every entry listed in the tag sets, then the sets themselves. KEYS: tag sets. ARGV: entry key prefix.
+     */
+    private static final RedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>("""
+            local entries = redis.call('SUNION', unpack(KEYS))
+            for _, entry in ipairs(entries) do
+                redis.call('DEL', ARGV[1] .. entry)
+            end
+            redis.call('DEL', unpack(KEYS))
+            return #entries
+            """, Long.class);
+
+    private final RedisCache delegate;
+    private final CacheTagger<?> tagger;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration timeToLive;
+
+    public TaggedCache(RedisCache delegate, CacheTagger<?> tagger, RedisTemplate<String, String> redisTemplate, Duration timeToLive) {
+        this.delegate = delegate;
+        this.tagger = tagger;
+        this.redisTemplate = redisTemplate;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Evicts every entry carrying any of the given tags and returns how many there were
+     */
+    public long evictByTag(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return 0;
+        }
+        List<String> tagKeys = tags.stream().map(this::tagKey).toList();
+        Long evicted = redisTemplate.execute(EVICT_SCRIPT, tagKeys, delegate.getCacheConfiguration().getKeyPrefixFor(getName()));
+        return evicted != null ? evicted : 0;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        record(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            record(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    private void record(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        Set<String> tags = tagger.tagsOf(value);
+        if (tags.isEmpty()) {
+            return;
+        }
+        List<String> tagKeys = new ArrayList<>(tags.size());
+        tags.forEach(tag -> tagKeys.add(tagKey(tag)));
+        redisTemplate.execute(RECORD_SCRIPT, tagKeys, String.valueOf(timeToLive.toMillis()), key.toString());
+    }
+
+    private String tagKey(String tag) {
+        return TAG_KEY_PREFIX + getName() + ":" + tag;
+    }
+}
@@ -0,0 +1,49 @@
+package dev.core.config.redis;
+
+import dev.services.common.CacheTagger;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out a {@link TaggedCache} for every Redis cache that has a {@link CacheTagger}, and the plain cache otherwise
+ *
+ * @author Nelson Tanko
+ */
+public class TaggingCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final Map<String, CacheTagger<?>> taggers;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration timeToLive;
+    private final Map<String, TaggedCache> taggedCaches = new ConcurrentHashMap<>();
+
+    public TaggingCacheManager(CacheManager delegate, Map<String, CacheTagger<?>> taggers,
+                               RedisTemplate<String, String> redisTemplate, Duration timeToLive) {
+        this.delegate = delegate;
+        this.taggers = taggers;
+        this.redisTemplate = redisTemplate;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = delegate.getCache(name);
+        CacheTagger<?> tagger = taggers.get(name);
+        if (tagger == null || !(cache instanceof RedisCache redisCache)) {
+            return cache;
+        }
+        return taggedCaches.computeIfAbsent(name, key -> new TaggedCache(redisCache, tagger, redisTemplate, timeToLive));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+}
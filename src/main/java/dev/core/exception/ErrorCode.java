@@ -15,6 +15,7 @@ public enum ErrorCode {
     GENERAL_ACCESS_DENIED("api.general.accessDenied", HttpStatus.FORBIDDEN),
     GENERAL_UPLOAD_FILE_EMPTY("api.general.fileEmpty", HttpStatus.BAD_REQUEST),
     GENERAL_UPLOAD_FILE_IS_NOT_PHOTO("api.general.fileNotAPhoto", HttpStatus.BAD_REQUEST),
+    GENERAL_INVALID_CURSOR("api.general.invalidCursor", HttpStatus.BAD_REQUEST),
     // User
     USER_NOT_FOUND("api.user.notFound", HttpStatus.NOT_FOUND),
     USER_NOT_LOGGED_IN("api.user.notLoggedIn", HttpStatus.BAD_REQUEST),
@@ -23,13 +24,16 @@ public enum ErrorCode {
     // Oder
     ORDER_NOT_FOUND("api.order.notFound", HttpStatus.NOT_FOUND),
     ORDER_CANNOT_BE_CANCELED("api.order.cannotBeCanceled", HttpStatus.CONFLICT),
-    ORDER_ALREADY_DELIVERED( "api.order.alreadyDelivered", HttpStatus.BAD_REQUEST),
+    ORDER_ALREADY_DELIVERED( "api.order.alreadyDelivered", HttpStatus.CONFLICT),
+    ORDER_INVALID_STATUS_TRANSITION("api.order.invalidStatusTransition", HttpStatus.CONFLICT),
+    ORDER_CONCURRENTLY_MODIFIED("api.order.concurrentlyModified", HttpStatus.CONFLICT),
 
     // Restaurant
     RESTAURANT_NOT_FOUND("api.restaurant.notFound", HttpStatus.NOT_FOUND),
     RESTAURANT_ALREADY_EXISTS("api.restaurant.AlreadyExists", HttpStatus.BAD_REQUEST),
     RESTAURANT_UNAVAILABLE_FOR_DELIVERY("api.restaurant.noRestaurantAvailableForDelivery", HttpStatus.CONFLICT),
     RESTAURANT_ADDRESS_ALREADY_EXISTS("api.restaurant.addressAlreadyExists", HttpStatus.BAD_REQUEST),
+    RESTAURANT_INVALID_SEARCH_AREA("api.restaurant.invalidSearchArea", HttpStatus.BAD_REQUEST),
 
     // Food
     FOOD_ALREADY_EXISTS("api.food.AlreadyExists", HttpStatus.BAD_REQUEST),
@@ -0,0 +1,60 @@
+package dev.core.utils;
+
+import dev.core.exception.ErrorCode;
+import dev.core.exception.GenericApiException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list sorted by a timestamp and then by id, handed to clients as an opaque token so the next page can
+ * be read with a seek predicate instead of an offset. Lists sorted by id alone leave the sort key empty.
+ *
+ * @author Nelson Tanko
+ */
+public record Cursor(LocalDateTime sortKey, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static Cursor of(Long id) {
+        return new Cursor(null, id);
+    }
+
+    public String encode() {
+        String raw = (sortKey != null ? sortKey.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a token produced by {@link #encode()}, or returns {@code null} for a missing token, i.e. the first page
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new GenericApiException(ErrorCode.GENERAL_INVALID_CURSOR);
+            }
+            String sortKey = raw.substring(0, separator);
+            return new Cursor(sortKey.isEmpty() ? null : LocalDateTime.parse(sortKey),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new GenericApiException(ErrorCode.GENERAL_INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * The sort key of a cursor into a timestamp-sorted list, rejecting tokens taken from a list sorted by id alone
+     */
+    public LocalDateTime requireSortKey() {
+        if (sortKey == null) {
+            throw new GenericApiException(ErrorCode.GENERAL_INVALID_CURSOR);
+        }
+        return sortKey;
+    }
+}
@@ -0,0 +1,56 @@
+package dev.core.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list and the cursor of the page after it, if any. Nothing is counted, so reading
+ * a page costs the same however deep into the list it is.
+ *
+ * @author Nelson Tanko
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int MAX_SIZE = 100;
+
+    private List<T> content;
+    private String nextCursor;
+    private int size;
+
+    /**
+     * The rows to read for a page: one more than it shows, so the extra row tells whether a next page exists
+     */
+    public static Pageable window(int size) {
+        return PageRequest.ofSize(clamp(size) + 1);
+    }
+
+    /**
+     * Builds the page from rows read with {@link #window(int)}, pointing the next cursor at the last row shown
+     */
+    public static <R, T> CursorPage<T> of(List<R> rows, int size, Function<R, Cursor> cursorOf, Function<R, T> mapper) {
+        int pageSize = clamp(size);
+        List<R> shown = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        List<T> content = new ArrayList<>(shown.size());
+        shown.forEach(row -> content.add(mapper.apply(row)));
+        String nextCursor = rows.size() > pageSize ? cursorOf.apply(shown.get(pageSize - 1)).encode() : null;
+        return new CursorPage<>(content, nextCursor, pageSize);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    private static int clamp(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+}
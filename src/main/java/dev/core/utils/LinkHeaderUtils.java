@@ -29,6 +29,23 @@ public class LinkHeaderUtils {
         return link.toString();
     }
 
+    /**
+     * The {@code next} link of a keyset-paginated list, or {@code null} on its last page
+     */
+    public String prepareCursorLinkHeader(UriComponentsBuilder uriBuilder, CursorPage<?> page) {
+        if (!page.hasNext()) {
+            return null;
+        }
+        String uri = uriBuilder
+                .replaceQueryParam("page")
+                .replaceQueryParam("cursor", page.getNextCursor())
+                .replaceQueryParam("size", Integer.toString(page.getSize()))
+                .toUriString()
+                .replace(",", "%2C")
+                .replace(";", "%3B");
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri, "next");
+    }
+
     private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
         return MessageFormat.format(HEADER_LINK_FORMAT, preparePageUri(uriBuilder, pageNumber, pageSize), relType);
     }
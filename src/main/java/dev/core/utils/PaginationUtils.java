@@ -31,4 +31,22 @@ public final class PaginationUtils {
         headers.add(HttpHeaders.LINK, linkHeaderUtil.prepareLinkHeaders(uriBuilder, page));
         return headers;
     }
+
+    /**
+     * Generate pagination headers for a {@link CursorPage}: a {@code next} link carrying its cursor, and no total
+     * count, as keyset pages are never counted.
+     *
+     * @param uriBuilder The URI builder.
+     * @param page       The page.
+     * @param <T>        The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateCursorHttpHeaders(UriComponentsBuilder uriBuilder, CursorPage<T> page) {
+        HttpHeaders headers = new HttpHeaders();
+        String link = linkHeaderUtil.prepareCursorLinkHeader(uriBuilder, page);
+        if (link != null) {
+            headers.add(HttpHeaders.LINK, link);
+        }
+        return headers;
+    }
 }
@@ -0,0 +1,80 @@
+package dev.security;
+
+import dev.services.order.OrderTopics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates STOMP sessions with the same JWT used by the REST API and guards subscriptions.
+ * <p>
+ * The token is read from the {@code Authorization} header of the CONNECT frame, since browsers cannot set headers on
+ * the WebSocket handshake. Every SUBSCRIBE is then checked against {@link OrderTopics}.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StompAuthenticationInterceptor.class);
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtDecoder jwtDecoder;
+    private final OrderTopics orderTopics;
+    private final JwtAuthenticationConverter authenticationConverter;
+
+    public StompAuthenticationInterceptor(JwtDecoder jwtDecoder, OrderTopics orderTopics) {
+        this.jwtDecoder = jwtDecoder;
+        this.orderTopics = orderTopics;
+
+        JwtGrantedAuthoritiesConverter authoritiesConverter = new JwtGrantedAuthoritiesConverter();
+        authoritiesConverter.setAuthoritiesClaimName(SecurityUtils.AUTHORITIES_KEY);
+        authoritiesConverter.setAuthorityPrefix("");
+        this.authenticationConverter = new JwtAuthenticationConverter();
+        this.authenticationConverter.setJwtGrantedAuthoritiesConverter(authoritiesConverter);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            accessor.setUser(authenticate(accessor.getFirstNativeHeader(AUTHORIZATION_HEADER)));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            Authentication user = (Authentication) accessor.getUser();
+            if (!orderTopics.canSubscribe(user, accessor.getDestination())) {
+                LOG.debug("Refused subscription to {} for {}", accessor.getDestination(), user != null ? user.getName() : null);
+                throw new AccessDeniedException("Not allowed to subscribe to " + accessor.getDestination());
+            }
+        }
+        return message;
+    }
+
+    private Authentication authenticate(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            throw new BadCredentialsException("Missing bearer token on STOMP CONNECT");
+        }
+        try {
+            return authenticationConverter.convert(jwtDecoder.decode(authorization.substring(BEARER_PREFIX.length())));
+        } catch (JwtException e) {
+            throw new BadCredentialsException("Invalid bearer token on STOMP CONNECT", e);
+        }
+    }
+}
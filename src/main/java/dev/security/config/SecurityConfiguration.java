@@ -60,6 +60,7 @@ public class SecurityConfiguration {
                         .requestMatchers(mvc.pattern("/*.ico"), mvc.pattern("/*.png"), mvc.pattern("/*.svg"), mvc.pattern("/*.webapp")).permitAll()
                         .requestMatchers(mvc.pattern("/app/**")).permitAll()
                         .requestMatchers(mvc.pattern("/swagger-ui/**")).permitAll()
+                        .requestMatchers(mvc.pattern("/ws/**")).permitAll() // STOMP CONNECT carries the JWT
                         .requestMatchers(mvc.pattern(HttpMethod.POST, "/api/account/authenticate")).permitAll()
                         .requestMatchers(mvc.pattern(HttpMethod.GET, "/api/account/authenticate")).permitAll()
                         .requestMatchers(mvc.pattern("/api/account/register")).permitAll()
@@ -21,6 +21,7 @@ public class SpaWebFilter extends OncePerRequestFilter {
         if (
             !path.startsWith("/api") &&
             !path.startsWith("/management") &&
+            !path.startsWith("/ws") &&
             !path.startsWith("/v3/api-docs") &&
             !path.contains(".") &&
             path.matches("/(.*)")
@@ -19,7 +19,7 @@ public class Comment extends AbstractAuditingEntity<Long> {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_sequence")
-    @SequenceGenerator(name = "comment_sequence", sequenceName = "comment_sequence", allocationSize = 1, initialValue = 50)
+    @SequenceGenerator(name = "comment_sequence", sequenceName = "comment_sequence", allocationSize = 50, initialValue = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
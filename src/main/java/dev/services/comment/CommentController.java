@@ -1,12 +1,18 @@
 package dev.services.comment;
 
+import dev.core.utils.CursorPage;
+import dev.core.utils.PaginationUtils;
 import dev.services.comment.CommentDTO.Request;
 import dev.services.comment.CommentDTO.Response;
 import dev.services.common.RateLimit;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
 
 /**
  * @author Nelson Tanko
@@ -34,4 +40,16 @@ public class CommentController {
         CommentPageDTO commentPage = commentService.getCommentsByFoodId(foodId, page, size);
         return ResponseEntity.ok(commentPage);
     }
+
+    /**
+     * Keyset-paginated comments of a food, newest first; the {@code Link} header carries the next page's cursor
+     */
+    @GetMapping("/food/{foodId}/scroll")
+    @RateLimit(strategy = "ip")
+    public ResponseEntity<List<Response>> scrollCommentsByFoodId(@PathVariable Long foodId,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        CursorPage<Response> page = commentService.scrollCommentsByFoodId(foodId, cursor, size);
+        HttpHeaders headers = PaginationUtils.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
 }
@@ -3,6 +3,12 @@ package dev.services.comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author Nelson Tanko
@@ -10,4 +16,53 @@ import org.springframework.data.jpa.repository.JpaRepository;
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     Page<Comment> findByFoodId(Long foodId, Pageable pageable);
 
+    /**
+     * Ids of the latest {@code limit} comments of each food, ranked per food in one pass over the food and creation
+     * date index, so the rows read scale with the comments shown rather than with each food's full history
+     */
+    @Query(value = """
+            SELECT ranked.id FROM (
+                SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.food_id ORDER BY c.created_date DESC, c.id DESC) AS position
+                FROM comments c
+                WHERE c.food_id IN (:foodIds)
+            ) ranked
+            WHERE ranked.position <= :limit
+            """, nativeQuery = true)
+    List<Long> findLatestIdsByFoodIds(@Param("foodIds") Collection<Long> foodIds, @Param("limit") int limit);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.id IN :ids ORDER BY c.createdDate DESC, c.id DESC")
+    List<Comment> findWithUserByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The food's newest comments, the first page of {@link #findByFoodIdBefore}
+     */
+    @Query("""
+            SELECT c FROM Comment c JOIN FETCH c.user
+            WHERE c.food.id = :foodId
+            ORDER BY c.createdDate DESC, c.id DESC
+            """)
+    List<Comment> findLatestByFoodId(@Param("foodId") Long foodId, Pageable window);
+
+    /**
+     * The food's comments older than the given one, newest first. The bound on the creation date alone lets the
+     * scan start at the cursor on the food and creation date index; the id breaks ties between equal dates.
+     */
+    @Query("""
+            SELECT c FROM Comment c JOIN FETCH c.user
+            WHERE c.food.id = :foodId
+              AND c.createdDate <= :createdDate
+              AND (c.createdDate < :createdDate OR c.id < :id)
+            ORDER BY c.createdDate DESC, c.id DESC
+            """)
+    List<Comment> findByFoodIdBefore(@Param("foodId") Long foodId, @Param("createdDate") LocalDateTime createdDate,
+                                     @Param("id") Long id, Pageable window);
+
+    @Query("SELECT new dev.services.comment.CommentText(c.id, c.food.id, c.content) FROM Comment c")
+    List<CommentText> findAllTexts();
+
+    @Query("SELECT new dev.services.comment.CommentText(c.id, c.food.id, c.content) FROM Comment c WHERE c.createdDate >= :since")
+    List<CommentText> findTextsCreatedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT new dev.services.comment.CommentText(c.id, c.food.id, c.content) FROM Comment c WHERE c.food.id IN :foodIds")
+    List<CommentText> findTextsByFoodIdIn(@Param("foodIds") Collection<Long> foodIds);
 }
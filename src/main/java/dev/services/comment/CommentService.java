@@ -3,8 +3,13 @@ package dev.services.comment;
 import dev.account.user.User;
 import dev.core.exception.ErrorCode;
 import dev.core.exception.GenericApiException;
+import dev.core.utils.Cursor;
+import dev.core.utils.CursorPage;
+import dev.services.common.CacheService;
+import dev.services.common.CacheTagger;
 import dev.services.food.Food;
 import dev.services.food.FoodRepository;
+import dev.services.food.FoodSearchIndex;
 import dev.services.util.AuthenticatedUser;
 import org.springframework.data.domain.*;
 import org.springframework.stereotype.Service;
@@ -22,13 +27,18 @@ public class CommentService {
     private final FoodRepository foodRepository;
     private final CommentMapper commentMapper;
     private final AuthenticatedUser auth;
+    private final CacheService cacheService;
+    private final FoodSearchIndex foodSearchIndex;
 
 
-    public CommentService(CommentRepository commentRepository, FoodRepository foodRepository, CommentMapper commentMapper, AuthenticatedUser auth) {
+    public CommentService(CommentRepository commentRepository, FoodRepository foodRepository, CommentMapper commentMapper, AuthenticatedUser auth,
+                          CacheService cacheService, FoodSearchIndex foodSearchIndex) {
         this.commentRepository = commentRepository;
         this.foodRepository = foodRepository;
         this.commentMapper = commentMapper;
         this.auth = auth;
+        this.cacheService = cacheService;
+        this.foodSearchIndex = foodSearchIndex;
     }
 
     @Transactional
@@ -43,6 +53,9 @@ public class CommentService {
         comment.setUser(user);
 
         comment = commentRepository.save(comment);
+        // Cached food entries embed their latest comments
+        cacheService.evictByTag("food", CacheTagger.idTag(food.getId()));
+        foodSearchIndex.refresh(comment);
         return commentMapper.toDto(comment);
     }
 
@@ -61,4 +74,21 @@ public class CommentService {
                 commentsPage.getTotalElements(), commentsPage.getSize()
         );
     }
+
+    /**
+     * The food's comments newest first, a page at a time from the cursor of the previous page
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommentDTO.Response> scrollCommentsByFoodId(Long foodId, String cursor, int size) {
+        if (!foodRepository.existsById(foodId)) {
+            throw new GenericApiException(ErrorCode.FOOD_NOT_FOUND);
+        }
+
+        Cursor after = Cursor.decode(cursor);
+        List<Comment> comments = after == null
+                ? commentRepository.findLatestByFoodId(foodId, CursorPage.window(size))
+                : commentRepository.findByFoodIdBefore(foodId, after.requireSortKey(), after.id(), CursorPage.window(size));
+        return CursorPage.of(comments, size, comment -> new Cursor(comment.getCreatedDate(), comment.getId()),
+                commentMapper::toDto);
+    }
 }
@@ -0,0 +1,9 @@
+package dev.services.comment;
+
+/**
+ * The text of a comment and the food it belongs to, for indexing without loading the comment's user
+ *
+ * @author Nelson Tanko
+ */
+public record CommentText(Long commentId, Long foodId, String content) {
+}
@@ -1,9 +1,12 @@
 package dev.services.common;
 
+import dev.core.config.redis.TaggedCache;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * @author Nelson Tanko
  */
@@ -30,6 +33,19 @@ public class CacheService {
         }
     }
 
+    /**
+     * Evicts only the entries tagged with any of the given tags, see {@link CacheTagger}. Caches that are not tagged
+     * are cleared entirely.
+     */
+    public void evictByTag(String cacheName, String... tags) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof TaggedCache taggedCache) {
+            taggedCache.evictByTag(List.of(tags));
+        } else if (cache != null) {
+            cache.clear();
+        }
+    }
+
     public <T> void putInCache(String cacheName, Object key, T value) {
         Cache cache = cacheManager.getCache(cacheName);
         if (cache != null) {
@@ -0,0 +1,45 @@
+package dev.services.common;
+
+import dev.core.utils.CursorPage;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Names the entities a cached value was built from, so a write can evict only the entries that contain the entity
+ * it changed instead of clearing the whole cache. Every entry is tagged with {@code id:{id}} for each entity it holds,
+ * and list pages, cursor pages and other collections are additionally tagged with {@link #LIST_TAG}.
+ *
+ * @author Nelson Tanko
+ */
+public interface CacheTagger<T> {
+
+    String LIST_TAG = "list";
+
+    static String idTag(Object id) {
+        return "id:" + id;
+    }
+
+    String cacheName();
+
+    Class<T> type();
+
+    Object idOf(T value);
+
+    default Set<String> tagsOf(Object value) {
+        Set<String> tags = new HashSet<>();
+        if (type().isInstance(value)) {
+            tags.add(idTag(idOf(type().cast(value))));
+        } else if (value instanceof CursorPage<?> page) {
+            return tagsOf(page.getContent());
+        } else if (value instanceof Iterable<?> items) {
+            tags.add(LIST_TAG);
+            items.forEach(item -> {
+                if (type().isInstance(item)) {
+                    tags.add(idTag(idOf(type().cast(item))));
+                }
+            });
+        }
+        return tags;
+    }
+}
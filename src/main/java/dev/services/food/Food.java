@@ -1,12 +1,13 @@
 package dev.services.food;
 
 import dev.core.common.AbstractAuditingEntity;
+import dev.core.common.Money;
+import dev.core.common.MoneyConverter;
 import dev.services.comment.Comment;
 import dev.services.rating.Rating;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,7 +24,7 @@ public class Food extends AbstractAuditingEntity<Long> {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "food_sequence")
-    @SequenceGenerator(name = "food_sequence", sequenceName = "food_sequence", allocationSize = 1, initialValue = 50)
+    @SequenceGenerator(name = "food_sequence", sequenceName = "food_sequence", allocationSize = 50, initialValue = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
@@ -33,8 +34,9 @@ public class Food extends AbstractAuditingEntity<Long> {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false)
-    private BigDecimal price;
+    private Money price;
 
     private String imageUrl;
 
@@ -42,6 +44,23 @@ public class Food extends AbstractAuditingEntity<Long> {
 
     private Integer totalRatings = 0;
 
+    /**
+     * Running sum and count of the food's ratings, moved by {@link FoodRepository#applyRatingDeltas} as votes are
+     * folded in, so the average never has to be recomputed from the ratings themselves
+     */
+    @Column(nullable = false)
+    private long ratingSum;
+
+    @Column(nullable = false)
+    private int ratingCount;
+
+    /**
+     * Token of the last batch of buffered votes folded into the sum and count, so {@link FoodRatingCounters} can
+     * retry a batch without knowing whether it was committed
+     */
+    @Column(length = 64)
+    private String ratingFoldToken;
+
     @OneToMany(mappedBy = "food", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Rating> ratings = new ArrayList<>();
 
@@ -59,15 +78,4 @@ public class Food extends AbstractAuditingEntity<Long> {
         this.active = true;
         this.available = true;
     }
-
-    public void calculateAverageRating() {
-        if (ratings.isEmpty()) {
-            this.averageRating = 0.0;
-            this.totalRatings = 0;
-        } else {
-            double sum = ratings.stream().mapToInt(Rating::getRating).sum();
-            this.averageRating = sum / ratings.size();
-            this.totalRatings = ratings.size();
-        }
-    }
 }
@@ -0,0 +1,41 @@
+package dev.services.food;
+
+import dev.services.common.CacheTagger;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Tags cached food details and food list pages with the ids of the foods they show
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class FoodCacheTagger implements CacheTagger<FoodDTO.Response> {
+
+    @Override
+    public String cacheName() {
+        return FoodService.CACHE_NAME;
+    }
+
+    @Override
+    public Class<FoodDTO.Response> type() {
+        return FoodDTO.Response.class;
+    }
+
+    @Override
+    public Object idOf(FoodDTO.Response food) {
+        return food.getId();
+    }
+
+    /**
+     * Rating histograms are cached next to the foods and tagged with their food's id, so they are evicted with it
+     */
+    @Override
+    public Set<String> tagsOf(Object value) {
+        if (value instanceof FoodDTO.RatingHistogram histogram) {
+            return Set.of(CacheTagger.idTag(histogram.getFoodId()));
+        }
+        return CacheTagger.super.tagsOf(value);
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * @author Nelson Tanko
@@ -21,9 +22,11 @@ import java.math.BigDecimal;
 public class FoodController {
 
     private final FoodService foodService;
+    private final FoodRatingCounters foodRatingCounters;
 
-    public FoodController(FoodService foodService) {
+    public FoodController(FoodService foodService, FoodRatingCounters foodRatingCounters) {
         this.foodService = foodService;
+        this.foodRatingCounters = foodRatingCounters;
     }
 
     @PostMapping
@@ -47,11 +50,27 @@ public class FoodController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Full-text search over food names, descriptions and comments, best match first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<SearchResult>> searchFood(@RequestParam(name = "q") String query,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(foodService.searchFood(query, limit));
+    }
+
     @GetMapping("/{foodId}")
     public ResponseEntity<Response> getFoodById(@PathVariable Long foodId,
                                                 @RequestParam(defaultValue = "1", name = "comment_count")
                                                 int commentCount) {
-        return ResponseEntity.ok(foodService.getFoodById(foodId, commentCount));
+        Response response = foodService.getFoodById(foodId, commentCount);
+        foodRatingCounters.applyPending(List.of(response));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{foodId}/ratings/histogram")
+    public ResponseEntity<RatingHistogram> getRatingHistogram(@PathVariable Long foodId) {
+        return ResponseEntity.ok(foodService.getRatingHistogram(foodId));
     }
 
     @GetMapping
@@ -65,6 +84,8 @@ public class FoodController {
     ) {
         FilterRequest request = FilterRequest.builder().available(available).minPrice(minPrice)
                 .maxPrice(maxPrice).minRating(minRating).build();
-        return ResponseEntity.ok(foodService.getAllFood(pageable, request, commentCount));
+        Page<Response> foods = foodService.getAllFood(pageable, request, commentCount);
+        foodRatingCounters.applyPending(foods.getContent());
+        return ResponseEntity.ok(foods);
     }
 }
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Positive;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -48,9 +49,56 @@ public class FoodDTO {
         private boolean available;
         private Double averageRating;
         private Integer totalRatings;
+        private RatingHistogram ratingHistogram;
         private List<CommentDTO.Response> comments;
     }
 
+    /**
+     * How many votes a food has received with each number of stars
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RatingHistogram {
+        private Long foodId;
+        private long oneStar;
+        private long twoStars;
+        private long threeStars;
+        private long fourStars;
+        private long fiveStars;
+
+        public static RatingHistogram of(Long foodId, Collection<RatingBucket> buckets) {
+            RatingHistogram histogram = RatingHistogram.builder().foodId(foodId).build();
+            buckets.forEach(bucket -> histogram.add(bucket.getStars(), bucket.getVotes()));
+            return histogram;
+        }
+
+        private void add(int stars, long votes) {
+            switch (stars) {
+                case 1 -> oneStar += votes;
+                case 2 -> twoStars += votes;
+                case 3 -> threeStars += votes;
+                case 4 -> fourStars += votes;
+                case 5 -> fiveStars += votes;
+                default -> throw new IllegalArgumentException("Rating out of range: " + stars);
+            }
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SearchResult {
+        private Long id;
+        private String name;
+        private String description;
+        private BigDecimal price;
+        private String imageUrl;
+        private double score;
+    }
+
     @Data
     @Builder
     public static class FilterRequest{
@@ -1,5 +1,6 @@
 package dev.services.food;
 
+import dev.core.common.MoneyMapper;
 import dev.services.comment.CommentMapper;
 import org.mapstruct.*;
 
@@ -9,13 +10,25 @@ import java.util.List;
  * @author Nelson Tanko
  */
 
-@Mapper(componentModel = "spring", uses = { CommentMapper.class })
+@Mapper(componentModel = "spring", uses = { CommentMapper.class, MoneyMapper.class })
 public interface FoodMapper {
 
+    @Mapping(target = "ratingSum", ignore = true)
+    @Mapping(target = "ratingCount", ignore = true)
+    @Mapping(target = "ratingFoldToken", ignore = true)
     Food toEntity(FoodDTO.Request foodDto);
 
+    @Mapping(target = "ratingHistogram", ignore = true)
     FoodDTO.Response toDto(Food food);
 
+    /**
+     * Maps the food without touching its comments collection, for callers that load the comments they show separately
+     */
+    @Named("withoutComments")
+    @Mapping(target = "comments", ignore = true)
+    @Mapping(target = "ratingHistogram", ignore = true)
+    FoodDTO.Response toDtoWithoutComments(Food food);
+
     List<FoodDTO.Response> toDtoList(List<Food> foods);
 
     @Mapping(target = "id", ignore = true)
@@ -23,6 +36,9 @@ public interface FoodMapper {
     @Mapping(target = "ratings", ignore = true)
     @Mapping(target = "comments", ignore = true)
     @Mapping(target = "averageRating", ignore = true)
+    @Mapping(target = "ratingSum", ignore = true)
+    @Mapping(target = "ratingCount", ignore = true)
+    @Mapping(target = "ratingFoldToken", ignore = true)
     @Mapping(target = "available", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateFoodFromDto(FoodDTO.UpdateRequest foodDto, @MappingTarget Food food);
@@ -0,0 +1,465 @@
+package dev.services.food;
+
+import dev.services.common.CacheService;
+import dev.services.common.CacheTagger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Write-behind rating counters, so votes on a trending dish do not queue up on the lock of its {@code food} row.
+ * <p>
+ * A vote adds its delta to one of a few Redis hashes per food picked at random, and marks the food dirty. Every few
+ * seconds {@link #fold()} moves the pending deltas of the dirty foods into a folding hash, applies them to
+ * {@code food} in one set-based update and evicts the affected cache entries. A failed update leaves the deltas in the
+ * folding hash for the next run. The folding hash carries a lease, so a food is folded by one node at a time, and a
+ * token that the update stores on the food row. If a node dies between committing and clearing the hash, the batch
+ * is retried once the lease runs out and skipped by the update, as the row already carries its token. A batch is
+ * always retried on its own; votes that arrived since wait in the shards for the next one.
+ * <p>
+ * A vote that cannot be buffered because Redis fails is kept in {@link RatingBacklog} instead, and folded from there
+ * at the end of each run.
+ * <p>
+ * Shard and folding keys belong to a generation. A vote reads the generation after it has locked its rating row, and
+ * is buffered under it once it commits. A rebuild of the aggregates holds off votes, moves to a new generation and
+ * reads the ratings table, so every vote is either in what the rebuild reads or buffered under the new generation.
+ * Once the rebuild commits the older generations are discarded: buffers and backlog entries written for them later
+ * are dropped, and a batch drained from them before is skipped by the update, as the food's token is newer.
+ * Generation 0 keeps the key names used before generations existed.
+ * <p>
+ * Readers add what is still pending to the folded aggregate with {@link #applyPending}.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class FoodRatingCounters {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FoodRatingCounters.class);
+
+    static final String SHARD_KEY = "rating:pending:";
+    static final String FOLDING_KEY = "rating:folding:";
+    static final String DIRTY_KEY = "rating:dirty";
+    static final String GENERATION_KEY = "rating:generation";
+
+    /**
+     * Adds a vote's delta to a shard and marks the food dirty, unless the vote's generation has been discarded since,
+     * in which case the rebuild that discarded it has counted the vote. KEYS: shard, dirty set, generation.
+     * ARGV: food id, rating delta, vote count delta, the vote's generation.
+     */
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>("""
+            if tonumber(redis.call('GET', KEYS[3]) or '0') ~= tonumber(ARGV[4]) then
+                return 0
+            end
+            redis.call('HINCRBY', KEYS[1], 'sum', ARGV[2])
+            redis.call('HINCRBY', KEYS[1], 'count', ARGV[3])
+            redis.call('SADD', KEYS[2], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /**
+     * Leases the folding hash and returns its sum, count and token, or an empty list when another node holds the
+     * lease, in which case the food is marked dirty again. An empty folding hash takes every shard and the given
+     * token. One left by an earlier run keeps its batch and token, as that batch may already be committed, and the
+     * food is marked dirty again for the shards. A food whose generation moved on is also marked dirty again, to be
+     * drained under the new one. KEYS: folding hash, dirty set, generation, then the shards. ARGV: food id, current
+     * time and lease deadline in epoch milliseconds, token for a new batch, generation of the keys.
+     */
+    private static final String DRAIN_SCRIPT = """
+            if tonumber(redis.call('GET', KEYS[3]) or '0') ~= tonumber(ARGV[5]) then
+                redis.call('SADD', KEYS[2], ARGV[1])
+                return {}
+            end
+            local deadline = redis.call('HGET', KEYS[1], 'deadline')
+            if deadline and tonumber(deadline) > tonumber(ARGV[2]) then
+                redis.call('SADD', KEYS[2], ARGV[1])
+                return {}
+            end
+            local token = redis.call('HGET', KEYS[1], 'token')
+            if token then
+                redis.call('SADD', KEYS[2], ARGV[1])
+            else
+                token = ARGV[4]
+                for i = 4, #KEYS do
+                    local pending = redis.call('HMGET', KEYS[i], 'sum', 'count')
+                    if pending[1] then
+                        redis.call('HINCRBY', KEYS[1], 'sum', pending[1])
+                        redis.call('HINCRBY', KEYS[1], 'count', pending[2] or 0)
+                        redis.call('DEL', KEYS[i])
+                    end
+                end
+                redis.call('HSET', KEYS[1], 'token', token)
+            end
+            redis.call('HSET', KEYS[1], 'deadline', ARGV[3])
+            local folded = redis.call('HMGET', KEYS[1], 'sum', 'count')
+            return {folded[1] or '0', folded[2] or '0', token}
+            """;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final FoodRepository foodRepository;
+    private final RatingBacklogRepository ratingBacklogRepository;
+    private final CacheService cacheService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate backlogTransaction;
+    private final int shards;
+    private final int batchSize;
+    private final Duration lease;
+
+    // Last generation read from Redis, used by readers so they do not pay for another round trip
+    private volatile long generation = -1;
+
+    public FoodRatingCounters(RedisTemplate<String, String> redisTemplate, FoodRepository foodRepository,
+                              RatingBacklogRepository ratingBacklogRepository, CacheService cacheService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${foody.food.rating.shards:8}") int shards,
+                              @Value("${foody.food.rating.fold-batch-size:500}") int batchSize,
+                              @Value("${foody.food.rating.fold-lease:PT1M}") Duration lease) {
+        this.redisTemplate = redisTemplate;
+        this.foodRepository = foodRepository;
+        this.ratingBacklogRepository = ratingBacklogRepository;
+        this.cacheService = cacheService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Backlog entries are written after the vote's transaction has committed, so they need one of their own
+        this.backlogTransaction = new TransactionTemplate(transactionManager);
+        this.backlogTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shards = shards;
+        this.batchSize = batchSize;
+        this.lease = lease;
+    }
+
+    /**
+     * Records a vote: a new one moves the sum by its value and the count by one, a changed one moves the sum by the
+     * difference. Written once the surrounding transaction commits, so a rolled back vote is never counted. When the
+     * generation cannot be read, the change is written to the backlog together with the vote instead.
+     */
+    public void record(Long foodId, long delta, int votes) {
+        long voteGeneration;
+        try {
+            voteGeneration = currentGeneration();
+        } catch (RuntimeException e) {
+            LOG.warn("Could not read the rating generation, keeping the rating of food {} in the backlog: {}", foodId, e.getMessage());
+            keepInBacklog(() -> ratingBacklogRepository.save(RatingBacklog.of(foodId, delta, votes)), foodId, delta, votes);
+            return;
+        }
+        Runnable write = () -> write(foodId, delta, votes, voteGeneration);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write.run();
+            }
+        });
+    }
+
+    /**
+     * Adds the votes that are not folded yet to each response's average and total, reading every shard of every
+     * food in one pipelined round trip
+     */
+    public void applyPending(Collection<FoodDTO.Response> responses) {
+        List<FoodDTO.Response> foods = responses.stream().filter(response -> response.getId() != null).toList();
+        if (foods.isEmpty()) {
+            return;
+        }
+        long readGeneration = generation >= 0 ? generation : currentGeneration();
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (FoodDTO.Response food : foods) {
+                for (String key : pendingKeys(readGeneration, food.getId())) {
+                    connection.hashCommands().hMGet(bytes(key), bytes("sum"), bytes("count"));
+                }
+            }
+            return null;
+        });
+
+        int keysPerFood = shards + 1;
+        for (int i = 0; i < foods.size(); i++) {
+            long sum = 0;
+            long count = 0;
+            for (Object result : results.subList(i * keysPerFood, (i + 1) * keysPerFood)) {
+                List<?> fields = (List<?>) result;
+                sum += parse(fields.get(0));
+                count += parse(fields.get(1));
+            }
+            if (sum != 0 || count != 0) {
+                apply(foods.get(i), sum, count);
+            }
+        }
+    }
+
+    /**
+     * Folds the pending votes of the dirty foods into their rows, a batch at a time until no full batch is left, then
+     * the backlog
+     */
+    @Scheduled(fixedDelayString = "${foody.food.rating.fold-interval:PT5S}")
+    public void fold() {
+        long foldGeneration = currentGeneration();
+        List<String> dirty;
+        do {
+            dirty = redisTemplate.opsForSet().pop(DIRTY_KEY, batchSize);
+            if (dirty == null || dirty.isEmpty()) {
+                break;
+            }
+            fold(dirty.stream().map(Long::valueOf).toList(), foldGeneration);
+        } while (dirty.size() == batchSize);
+        foldBacklog();
+    }
+
+    /**
+     * Moves to a new generation of buffers and returns it. Called by a rebuild after it has locked out votes and
+     * before it reads the ratings table.
+     */
+    public long nextGeneration() {
+        Long next = redisTemplate.opsForValue().increment(GENERATION_KEY);
+        generation = next != null ? next : 0;
+        return generation;
+    }
+
+    /**
+     * Deletes the shard and folding keys of generations older than the given one, once the surrounding transaction
+     * commits. If the rebuild rolls back they are kept, and the votes in them are counted by the next rebuild.
+     */
+    public void discardGenerationsBefore(long current) {
+        Runnable discard = () -> {
+            List<String> stale = new ArrayList<>();
+            for (String prefix : List.of(SHARD_KEY, FOLDING_KEY)) {
+                try (Cursor<String> keys = redisTemplate.scan(ScanOptions.scanOptions().match(prefix + "*").count(1000).build())) {
+                    keys.forEachRemaining(key -> {
+                        if (generationOf(key, prefix) < current) {
+                            stale.add(key);
+                        }
+                    });
+                }
+            }
+            if (!stale.isEmpty()) {
+                redisTemplate.delete(stale);
+            }
+            LOG.info("Discarded {} rating buffers from before generation {}", stale.size(), current);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            discard.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                discard.run();
+            }
+        });
+    }
+
+    /**
+     * Folds the votes Redis could not take into their rows. Each batch is applied and dropped in one transaction, so
+     * an entry is counted exactly once. Entries meant for a discarded generation are dropped without being applied.
+     */
+    public void foldBacklog() {
+        long foldGeneration = currentGeneration();
+        Set<Long> folded = new TreeSet<>();
+        List<RatingBacklog> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<RatingBacklog> entries = ratingBacklogRepository.lockNextBatch(batchSize);
+                if (entries.isEmpty()) {
+                    return entries;
+                }
+                // Summed per food in id order, so two nodes folding overlapping batches lock the rows in the same order
+                Map<Long, long[]> byFood = new TreeMap<>();
+                for (RatingBacklog entry : entries) {
+                    if (entry.getGeneration() != null && entry.getGeneration() < foldGeneration) {
+                        continue;
+                    }
+                    long[] totals = byFood.computeIfAbsent(entry.getFoodId(), foodId -> new long[2]);
+                    totals[0] += entry.getDelta();
+                    totals[1] += entry.getVotes();
+                }
+                if (!byFood.isEmpty()) {
+                    foodRepository.applyRatingDeltas(byFood.keySet().toArray(Long[]::new),
+                            byFood.values().stream().map(totals -> totals[0]).toArray(Long[]::new),
+                            byFood.values().stream().map(totals -> (int) totals[1]).toArray(Integer[]::new),
+                            new String[byFood.size()]);
+                }
+                ratingBacklogRepository.deleteAllByIdIn(entries.stream().map(RatingBacklog::getId).toList());
+                return entries;
+            });
+            batch.forEach(entry -> folded.add(entry.getFoodId()));
+        } while (batch.size() == batchSize);
+
+        if (!folded.isEmpty()) {
+            cacheService.evictByTag(FoodService.CACHE_NAME, folded.stream().map(CacheTagger::idTag).toArray(String[]::new));
+            LOG.info("Folded backlogged ratings of {} foods", folded.size());
+        }
+    }
+
+    private void fold(List<Long> foodIds, long foldGeneration) {
+        byte[] script = DRAIN_SCRIPT.getBytes(StandardCharsets.UTF_8);
+        // Loaded up front, as a pipelined EVALSHA cannot fall back to EVAL when the script cache is cold
+        String sha = redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+        long now = System.currentTimeMillis();
+        List<String> args = List.of(String.valueOf(now), String.valueOf(now + lease.toMillis()));
+        List<String> tokens = foodIds.stream().map(foodId -> foldGeneration + ":" + UUID.randomUUID()).toList();
+        List<Object> drained = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < foodIds.size(); i++) {
+                Long foodId = foodIds.get(i);
+                List<String> keysAndArgs = new ArrayList<>(List.of(foldingKey(foldGeneration, foodId), DIRTY_KEY, GENERATION_KEY));
+                for (int shard = 0; shard < shards; shard++) {
+                    keysAndArgs.add(shardKey(foldGeneration, foodId, shard));
+                }
+                keysAndArgs.add(String.valueOf(foodId));
+                keysAndArgs.addAll(args);
+                keysAndArgs.add(tokens.get(i));
+                keysAndArgs.add(String.valueOf(foldGeneration));
+                connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, shards + 3,
+                        keysAndArgs.stream().map(FoodRatingCounters::bytes).toArray(byte[][]::new));
+            }
+            return null;
+        });
+
+        List<Long> leased = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+        List<Integer> votes = new ArrayList<>();
+        List<String> batchTokens = new ArrayList<>();
+        for (int i = 0; i < foodIds.size(); i++) {
+            List<?> folded = (List<?>) drained.get(i);
+            if (folded == null || folded.isEmpty()) {
+                continue;
+            }
+            leased.add(foodIds.get(i));
+            long sum = parse(folded.get(0));
+            long count = parse(folded.get(1));
+            if (sum != 0 || count != 0) {
+                ids.add(foodIds.get(i));
+                deltas.add(sum);
+                votes.add((int) count);
+                batchTokens.add(folded.get(2).toString());
+            }
+        }
+        if (leased.isEmpty()) {
+            return;
+        }
+
+        try {
+            if (!ids.isEmpty()) {
+                Integer applied = transactionTemplate.execute(status -> foodRepository.applyRatingDeltas(
+                        ids.toArray(Long[]::new), deltas.toArray(Long[]::new), votes.toArray(Integer[]::new),
+                        batchTokens.toArray(String[]::new)));
+                if (applied != null && applied < ids.size()) {
+                    LOG.info("Skipped {} rating batches that were already folded before their hash was cleared",
+                            ids.size() - applied);
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("Folding ratings of foods {} failed, they are retried on the next run: {}", leased, e.getMessage());
+            releaseLeases(leased, foldGeneration);
+            return;
+        }
+
+        redisTemplate.delete(leased.stream().map(foodId -> foldingKey(foldGeneration, foodId)).toList());
+        if (!ids.isEmpty()) {
+            cacheService.evictByTag(FoodService.CACHE_NAME, ids.stream().map(CacheTagger::idTag).toArray(String[]::new));
+            LOG.debug("Folded pending ratings of {} foods", ids.size());
+        }
+    }
+
+    /**
+     * The vote has already committed when this runs, so a Redis failure must not fail the request: the change is kept
+     * in the backlog in its own transaction instead
+     */
+    private void write(Long foodId, long delta, int votes, long voteGeneration) {
+        try {
+            redisTemplate.execute(RECORD_SCRIPT,
+                    List.of(shardKey(voteGeneration, foodId, ThreadLocalRandom.current().nextInt(shards)), DIRTY_KEY, GENERATION_KEY),
+                    String.valueOf(foodId), String.valueOf(delta), String.valueOf(votes), String.valueOf(voteGeneration));
+        } catch (RuntimeException e) {
+            LOG.warn("Could not buffer a rating of food {}, keeping it in the backlog: {}", foodId, e.getMessage());
+            keepInBacklog(() -> backlogTransaction.executeWithoutResult(status ->
+                    ratingBacklogRepository.save(RatingBacklog.of(foodId, delta, votes, voteGeneration))), foodId, delta, votes);
+        }
+    }
+
+    private static void keepInBacklog(Runnable save, Long foodId, long delta, int votes) {
+        try {
+            save.run();
+        } catch (RuntimeException backlogFailure) {
+            LOG.error("Rating of food {} (sum {}, votes {}) is missing from its aggregate until the next rebuild: {}",
+                    foodId, delta, votes, backlogFailure.getMessage());
+        }
+    }
+
+    private long currentGeneration() {
+        String value = redisTemplate.opsForValue().get(GENERATION_KEY);
+        generation = value != null ? Long.parseLong(value) : 0;
+        return generation;
+    }
+
+    private void releaseLeases(List<Long> foodIds, long foldGeneration) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long foodId : foodIds) {
+                connection.hashCommands().hDel(bytes(foldingKey(foldGeneration, foodId)), bytes("deadline"));
+                connection.setCommands().sAdd(bytes(DIRTY_KEY), bytes(String.valueOf(foodId)));
+            }
+            return null;
+        });
+    }
+
+    private static void apply(FoodDTO.Response food, long pendingSum, long pendingCount) {
+        long count = food.getTotalRatings() != null ? food.getTotalRatings() : 0;
+        long sum = food.getAverageRating() != null ? Math.round(food.getAverageRating() * count) : 0;
+        long total = count + pendingCount;
+        food.setTotalRatings((int) total);
+        food.setAverageRating(total > 0 ? (double) (sum + pendingSum) / total : 0.0);
+    }
+
+    private List<String> pendingKeys(long keyGeneration, Long foodId) {
+        List<String> keys = new ArrayList<>(shards + 1);
+        for (int shard = 0; shard < shards; shard++) {
+            keys.add(shardKey(keyGeneration, foodId, shard));
+        }
+        keys.add(foldingKey(keyGeneration, foodId));
+        return keys;
+    }
+
+    private static String shardKey(long keyGeneration, Long foodId, int shard) {
+        return SHARD_KEY + generationPrefix(keyGeneration) + foodId + ":" + shard;
+    }
+
+    private static String foldingKey(long keyGeneration, Long foodId) {
+        return FOLDING_KEY + generationPrefix(keyGeneration) + foodId;
+    }
+
+    private static String generationPrefix(long keyGeneration) {
+        return keyGeneration == 0 ? "" : "g" + keyGeneration + ":";
+    }
+
+    private static long generationOf(String key, String prefix) {
+        String rest = key.substring(prefix.length());
+        return rest.startsWith("g") ? Long.parseLong(rest.substring(1, rest.indexOf(':'))) : 0;
+    }
+
+    private static long parse(Object value) {
+        return value == null ? 0 : Long.parseLong(value.toString());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -2,7 +2,13 @@ package dev.services.food;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -11,4 +17,107 @@ import java.util.Optional;
 public interface FoodRepository extends JpaRepository<Food, Long>, JpaSpecificationExecutor<Food> {
 
     Optional<Food> findByName(String name);
-}
\ No newline at end of file
+
+    List<Food> findByActiveTrue();
+
+    /**
+     * Foods added, edited or deleted since the given time, for the search index catch-up
+     */
+    List<Food> findByLastModifiedDateGreaterThanEqual(LocalDateTime since);
+
+    /**
+     * Moves the rating aggregates of many foods in one statement, each by a folded sum of rating deltas and a folded
+     * change in vote count. The averages are derived from the pre-update columns, so concurrent folds never overwrite
+     * each other. A food whose last applied fold carries the same token already has these deltas and is skipped, and
+     * so is a batch from a generation of buffers older than the food's token, as a rebuild has counted it since. A null
+     * token is always applied and leaves the stored one alone.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE food f SET
+                rating_sum = f.rating_sum + d.delta,
+                rating_count = f.rating_count + d.votes,
+                total_ratings = f.rating_count + d.votes,
+                average_rating = CASE WHEN f.rating_count + d.votes > 0
+                    THEN CAST(f.rating_sum + d.delta AS DOUBLE PRECISION) / (f.rating_count + d.votes) ELSE 0 END,
+                rating_fold_token = COALESCE(d.token, f.rating_fold_token)
+            FROM unnest(:ids, :deltas, :votes, :tokens) AS d(food_id, delta, votes, token)
+            WHERE f.id = d.food_id
+              AND (d.token IS NULL OR f.rating_fold_token IS DISTINCT FROM d.token)
+              AND (d.token IS NULL
+                   OR CASE WHEN d.token LIKE '%:%' THEN CAST(split_part(d.token, ':', 1) AS BIGINT) ELSE 0 END
+                      >= CASE WHEN f.rating_fold_token LIKE '%:%' THEN CAST(split_part(f.rating_fold_token, ':', 1) AS BIGINT) ELSE 0 END)
+            """, nativeQuery = true)
+    int applyRatingDeltas(@Param("ids") Long[] ids, @Param("deltas") Long[] deltas, @Param("votes") Integer[] votes,
+                          @Param("tokens") String[] tokens);
+
+    /**
+     * Recomputes every food's rating aggregate from the ratings table and stores the given token, which carries the
+     * generation of buffers that starts with the rebuild
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE food f SET
+                rating_sum = agg.total,
+                rating_count = agg.votes,
+                total_ratings = agg.votes,
+                average_rating = CASE WHEN agg.votes > 0 THEN CAST(agg.total AS DOUBLE PRECISION) / agg.votes ELSE 0 END,
+                rating_fold_token = :token
+            FROM (
+                SELECT fo.id, COALESCE(SUM(r.rating), 0) AS total, COUNT(r.id) AS votes
+                FROM food fo LEFT JOIN ratings r ON r.food_id = fo.id
+                GROUP BY fo.id
+            ) agg
+            WHERE agg.id = f.id
+            """, nativeQuery = true)
+    int rebuildRatingAggregates(@Param("token") String token);
+
+    /**
+     * Moves the food's star counters in one of its histogram slots, creating the rows on first use. A changed vote
+     * passes the old and the new star with -1 and +1; the rows are written in star order so two opposite changes on
+     * the same food cannot deadlock.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO food_rating_histogram (food_id, stars, slot, votes)
+            SELECT :foodId, m.stars, :slot, m.delta
+            FROM unnest(:stars, :deltas) AS m(stars, delta)
+            ORDER BY m.stars
+            ON CONFLICT (food_id, stars, slot) DO UPDATE SET votes = food_rating_histogram.votes + EXCLUDED.votes
+            """, nativeQuery = true)
+    int moveRatingHistogram(@Param("foodId") Long foodId, @Param("slot") int slot,
+                            @Param("stars") Integer[] stars, @Param("deltas") Integer[] deltas);
+
+    /**
+     * The star counters of the given foods, summed over their slots; stars nobody has voted are left out
+     */
+    @Query(value = """
+            SELECT food_id AS "foodId", CAST(stars AS INTEGER) AS "stars", CAST(SUM(votes) AS BIGINT) AS "votes"
+            FROM food_rating_histogram
+            WHERE food_id IN (:foodIds)
+            GROUP BY food_id, stars
+            """, nativeQuery = true)
+    List<RatingBucket> findRatingBuckets(@Param("foodIds") Collection<Long> foodIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM food_rating_histogram", nativeQuery = true)
+    int clearRatingHistograms();
+
+    /**
+     * Drops the votes Redis could not take, before a rebuild that reads them from the ratings table
+     */
+    @Modifying
+    @Query(value = "DELETE FROM food_rating_backlog", nativeQuery = true)
+    int clearRatingBacklog();
+
+    /**
+     * Recounts every food's star counters from the ratings table into a single slot, after
+     * {@link #clearRatingHistograms()}
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO food_rating_histogram (food_id, stars, slot, votes)
+            SELECT food_id, rating, 0, COUNT(*) FROM ratings GROUP BY food_id, rating
+            """, nativeQuery = true)
+    int rebuildRatingHistograms();
+}
@@ -0,0 +1,400 @@
+package dev.services.food;
+
+import dev.core.common.Money;
+import dev.services.comment.Comment;
+import dev.services.comment.CommentRepository;
+import dev.services.comment.CommentText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Node-local inverted index over food names, descriptions and comment text, so food search is answered from memory
+ * instead of with leading-wildcard {@code LIKE} scans that no index can serve.
+ * <p>
+ * Text is lower-cased and split on anything that is not a letter or digit. Every active food is one document whose
+ * fields are weighted name over description over comments, and hits are ranked with BM25. Each query term also
+ * matches the indexed terms it is a prefix of, at a discount, so partially typed words still find their dish.
+ * <p>
+ * Writes made on this node reach the index through {@link FoodService} and {@link dev.services.comment.CommentService}
+ * once they commit. Writes made on other nodes are caught up on a short interval by reading only the foods and
+ * comments changed since the last catch-up. The full reload from the database runs at startup and then rarely, as a
+ * repair job for anything the catch-up missed. Local writes that land while either load is reading the database are
+ * recorded and replayed onto its result before it is published, so a load never rolls the index back.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class FoodSearchIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FoodSearchIndex.class);
+
+    static final double NAME_WEIGHT = 3.0;
+    static final double DESCRIPTION_WEIGHT = 1.0;
+    static final double COMMENT_WEIGHT = 0.5;
+    static final double PREFIX_WEIGHT = 0.5;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    /**
+     * How far each catch-up reaches back before the previous one, for writes that were stamped before it read the
+     * database but committed after
+     */
+    private static final Duration CHANGE_OVERLAP = Duration.ofMinutes(1);
+
+    private final FoodRepository foodRepository;
+    private final CommentRepository commentRepository;
+    private final int maxResults;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    /**
+     * Local writes made while a load reads the database; guarded by the write lock
+     */
+    private List<Consumer<Index>> capturedWrites;
+    /**
+     * Held for the whole of a load, so a rebuild and a catch-up never read at the same time
+     */
+    private final Lock loadLock = new ReentrantLock();
+    private LocalDateTime changesSince;
+
+    public FoodSearchIndex(FoodRepository foodRepository, CommentRepository commentRepository,
+                           @Value("${foody.food.search.max-results:50}") int maxResults) {
+        this.foodRepository = foodRepository;
+        this.commentRepository = commentRepository;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Replaces the index with the current database state. Reads every active food and every comment, so after
+     * startup it only runs as a repair job; {@link #refreshChanges()} keeps the index current in between.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${foody.food.search.rebuild-interval:PT6H}",
+            initialDelayString = "${foody.food.search.rebuild-interval:PT6H}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        loadLock.lock();
+        try {
+            LocalDateTime readAt = startCapture();
+            Index rebuilt = new Index();
+            foodRepository.findByActiveTrue().forEach(food -> rebuilt.putFood(Entry.of(food)));
+            List<CommentText> comments = commentRepository.findAllTexts();
+            comments.forEach(comment -> rebuilt.putComment(comment.foodId(), comment.commentId(), comment.content()));
+
+            publish(current -> rebuilt, readAt);
+            LOG.info("Food search index rebuilt with {} foods and {} comments", rebuilt.documents.size(), comments.size());
+        } finally {
+            stopCapture();
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the foods and comments written since the last load, which picks up writes made on other nodes.
+     * Changed foods are re-indexed with all their comments, as a food that was deleted and restored elsewhere
+     * comes back without them; other comments are read only if they are new.
+     */
+    @Scheduled(fixedDelayString = "${foody.food.search.refresh-interval:PT5M}",
+            initialDelayString = "${foody.food.search.refresh-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void refreshChanges() {
+        loadLock.lock();
+        try {
+            if (changesSince == null) {
+                return;
+            }
+            LocalDateTime since = changesSince.minus(CHANGE_OVERLAP);
+            LocalDateTime readAt = startCapture();
+            List<Entry> foods = foodRepository.findByLastModifiedDateGreaterThanEqual(since).stream()
+                    .map(Entry::of)
+                    .toList();
+            List<Long> activeIds = foods.stream().filter(Entry::active).map(Entry::id).toList();
+            List<CommentText> comments = new ArrayList<>(commentRepository.findTextsCreatedSince(since));
+            if (!activeIds.isEmpty()) {
+                comments.addAll(commentRepository.findTextsByFoodIdIn(activeIds));
+            }
+
+            publish(current -> {
+                foods.forEach(entry -> {
+                    if (entry.active()) {
+                        current.putFood(entry);
+                    } else {
+                        current.removeFood(entry.id());
+                    }
+                });
+                comments.forEach(comment -> current.putComment(comment.foodId(), comment.commentId(), comment.content()));
+                return current;
+            }, readAt);
+            LOG.debug("Food search index caught up with {} foods and {} comments", foods.size(), comments.size());
+        } finally {
+            stopCapture();
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Indexes the food's current name, description and price, or drops it once it is deleted, after the
+     * surrounding transaction commits if there is one
+     */
+    public void refresh(Food food) {
+        Entry entry = Entry.of(food);
+        afterCommit(() -> write(current -> {
+            if (entry.active()) {
+                current.putFood(entry);
+            } else {
+                current.removeFood(entry.id());
+            }
+        }));
+    }
+
+    /**
+     * Adds the comment's text to its food's document, after the surrounding transaction commits if there is one
+     */
+    public void refresh(Comment comment) {
+        Long foodId = comment.getFood().getId();
+        Long commentId = comment.getId();
+        String content = comment.getContent();
+        afterCommit(() -> write(current -> current.putComment(foodId, commentId, content)));
+    }
+
+    /**
+     * Available foods matching the query, best match first
+     */
+    public List<FoodDTO.SearchResult> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, maxResults));
+        lock.readLock().lock();
+        try {
+            return index.search(terms, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void write(Consumer<Index> update) {
+        lock.writeLock().lock();
+        try {
+            update.accept(index);
+            if (capturedWrites != null) {
+                capturedWrites.add(update);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts recording local writes for the load about to read the database, and returns when that read starts
+     */
+    private LocalDateTime startCapture() {
+        lock.writeLock().lock();
+        try {
+            capturedWrites = new ArrayList<>();
+            return LocalDateTime.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void stopCapture() {
+        lock.writeLock().lock();
+        try {
+            capturedWrites = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Publishes what a load read, then replays the local writes made meanwhile on top: the load may have read the
+     * database before they committed. Every write replaces whole entries, so replaying one it already saw is harmless.
+     */
+    private void publish(UnaryOperator<Index> loaded, LocalDateTime readAt) {
+        lock.writeLock().lock();
+        try {
+            Index next = loaded.apply(index);
+            capturedWrites.forEach(update -> update.accept(next));
+            index = next;
+            capturedWrites = null;
+            changesSince = readAt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private record Entry(Long id, String name, String description, Money price, String imageUrl,
+                         boolean available, boolean active) {
+
+        static Entry of(Food food) {
+            return new Entry(food.getId(), food.getName(), food.getDescription(), food.getPrice(), food.getImageUrl(),
+                    food.isAvailable(), food.isActive());
+        }
+    }
+
+    private static final class Document {
+        Entry entry;
+        final Map<String, Double> weights = new HashMap<>();
+        final Map<Long, List<String>> comments = new HashMap<>();
+        double length;
+    }
+
+    /**
+     * Postings are kept sorted by term so prefix expansion is a range scan. Each posting holds the food's
+     * field-weighted term frequency; document lengths use the same weights.
+     */
+    private static final class Index {
+        final NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+        final Map<Long, Document> documents = new HashMap<>();
+        double totalLength;
+
+        void putFood(Entry entry) {
+            Document document = documents.computeIfAbsent(entry.id(), id -> new Document());
+            if (document.entry != null) {
+                add(entry.id(), document, tokenize(document.entry.name()), -NAME_WEIGHT);
+                add(entry.id(), document, tokenize(document.entry.description()), -DESCRIPTION_WEIGHT);
+            }
+            document.entry = entry;
+            add(entry.id(), document, tokenize(entry.name()), NAME_WEIGHT);
+            add(entry.id(), document, tokenize(entry.description()), DESCRIPTION_WEIGHT);
+        }
+
+        void putComment(Long foodId, Long commentId, String content) {
+            Document document = documents.get(foodId);
+            if (document == null) {
+                // Comments on deleted or unknown foods are not searchable
+                return;
+            }
+            List<String> previous = document.comments.put(commentId, tokenize(content));
+            if (previous != null) {
+                add(foodId, document, previous, -COMMENT_WEIGHT);
+            }
+            add(foodId, document, document.comments.get(commentId), COMMENT_WEIGHT);
+        }
+
+        void removeFood(Long foodId) {
+            Document document = documents.remove(foodId);
+            if (document == null) {
+                return;
+            }
+            document.weights.keySet().forEach(term -> {
+                Map<Long, Double> posting = postings.get(term);
+                posting.remove(foodId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            });
+            totalLength -= document.length;
+        }
+
+        private void add(Long foodId, Document document, List<String> terms, double weight) {
+            for (String term : terms) {
+                double updated = document.weights.merge(term, weight, Double::sum);
+                Map<Long, Double> posting = postings.computeIfAbsent(term, t -> new HashMap<>());
+                if (updated <= 1e-9) {
+                    document.weights.remove(term);
+                    posting.remove(foodId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                } else {
+                    posting.put(foodId, updated);
+                }
+            }
+            document.length += weight * terms.size();
+            totalLength += weight * terms.size();
+        }
+
+        List<FoodDTO.SearchResult> search(List<String> terms, int limit) {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            int count = documents.size();
+            double averageLength = Math.max(totalLength / count, 1e-9);
+            Map<Long, Double> scores = new HashMap<>();
+
+            for (String queryTerm : new LinkedHashSet<>(terms)) {
+                Map<String, Map<Long, Double>> matches = postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+                int expansions = 0;
+                for (Map.Entry<String, Map<Long, Double>> match : matches.entrySet()) {
+                    if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    double boost = match.getKey().equals(queryTerm) ? 1.0 : PREFIX_WEIGHT;
+                    Map<Long, Double> posting = match.getValue();
+                    double idf = Math.log(1 + (count - posting.size() + 0.5) / (posting.size() + 0.5));
+                    posting.forEach((foodId, frequency) -> {
+                        double norm = K1 * (1 - B + B * documents.get(foodId).length / averageLength);
+                        double score = boost * idf * frequency * (K1 + 1) / (frequency + norm);
+                        scores.merge(foodId, score, Double::sum);
+                    });
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .filter(score -> documents.get(score.getKey()).entry.available())
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(score -> toResult(documents.get(score.getKey()).entry, score.getValue()))
+                    .toList();
+        }
+
+        private static FoodDTO.SearchResult toResult(Entry entry, double score) {
+            return FoodDTO.SearchResult.builder()
+                    .id(entry.id())
+                    .name(entry.name())
+                    .description(entry.description())
+                    .price(entry.price() != null ? entry.price().toBigDecimal() : null)
+                    .imageUrl(entry.imageUrl())
+                    .score(score)
+                    .build();
+        }
+    }
+}
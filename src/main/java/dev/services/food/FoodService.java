@@ -2,8 +2,12 @@ package dev.services.food;
 
 import dev.core.exception.ErrorCode;
 import dev.core.exception.GenericApiException;
+import dev.services.comment.Comment;
 import dev.services.comment.CommentDTO;
+import dev.services.comment.CommentMapper;
+import dev.services.comment.CommentRepository;
 import dev.services.common.CacheService;
+import dev.services.common.CacheTagger;
 import dev.services.food.FoodDTO.Request;
 import dev.services.food.FoodDTO.Response;
 import dev.services.food.FoodDTO.UpdateRequest;
@@ -16,7 +20,10 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static dev.core.exception.ErrorCode.FOOD_NOT_FOUND;
 
@@ -25,7 +32,7 @@ import static dev.core.exception.ErrorCode.FOOD_NOT_FOUND;
  */
 @Service
 public class FoodService {
-    private static final String CACHE_NAME = "food";
+    static final String CACHE_NAME = "food";
 
     private static final Logger LOG = LoggerFactory.getLogger(FoodService.class);
 
@@ -33,12 +40,20 @@ public class FoodService {
     private final FoodMapper foodMapper;
     private final CacheService cacheService;
     private final FoodSpecificationBuilder foodSpecificationBuilder;
+    private final FoodSearchIndex foodSearchIndex;
+    private final CommentRepository commentRepository;
+    private final CommentMapper commentMapper;
 
-    public FoodService(FoodRepository foodRepository, FoodMapper foodMapper, CacheService cacheService, FoodSpecificationBuilder foodSpecificationBuilder) {
+    public FoodService(FoodRepository foodRepository, FoodMapper foodMapper, CacheService cacheService, FoodSpecificationBuilder foodSpecificationBuilder,
+                       FoodSearchIndex foodSearchIndex, CommentRepository commentRepository,
+                       CommentMapper commentMapper) {
         this.foodRepository = foodRepository;
         this.foodMapper = foodMapper;
         this.cacheService = cacheService;
         this.foodSpecificationBuilder = foodSpecificationBuilder;
+        this.foodSearchIndex = foodSearchIndex;
+        this.commentRepository = commentRepository;
+        this.commentMapper = commentMapper;
     }
 
     @Transactional
@@ -51,7 +66,8 @@ public class FoodService {
                 });
         Food food = foodMapper.toEntity(request);
         Food saveFood = foodRepository.save(food);
-        cacheService.evictAllCacheEntries(CACHE_NAME);
+        cacheService.evictByTag(CACHE_NAME, CacheTagger.LIST_TAG);
+        foodSearchIndex.refresh(saveFood);
         LOG.info("Food added successfully with id: {}", saveFood.getId());
         return foodMapper.toDto(saveFood);
     }
@@ -70,7 +86,8 @@ public class FoodService {
         }
         foodMapper.updateFoodFromDto(request, existingFood);
         Food updatedFood = foodRepository.save(existingFood);
-        cacheService.evictAllCacheEntries(CACHE_NAME);
+        cacheService.evictByTag(CACHE_NAME, CacheTagger.idTag(foodId), CacheTagger.LIST_TAG);
+        foodSearchIndex.refresh(updatedFood);
 
         LOG.info("Food updated successfully with id: {}", updatedFood.getId());
         return foodMapper.toDto(updatedFood);
@@ -84,7 +101,8 @@ public class FoodService {
         food.setActive(false);
 
         foodRepository.save(food);
-        cacheService.evictAllCacheEntries(CACHE_NAME);
+        cacheService.evictByTag(CACHE_NAME, CacheTagger.idTag(foodId), CacheTagger.LIST_TAG);
+        foodSearchIndex.refresh(food);
         LOG.info("Food deleted successfully with id: {}", foodId);
     }
 
@@ -94,8 +112,10 @@ public class FoodService {
         LOG.info("Fetching food details with id: {}", foodId);
         Food food = findFoodById(foodId);
 
-        Response response = foodMapper.toDto(food);
-        return limitCommentInResponse(response, commentCount);
+        Response response = foodMapper.toDtoWithoutComments(food);
+        attachLatestComments(List.of(response), commentCount);
+        attachRatingHistograms(List.of(response));
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -106,19 +126,60 @@ public class FoodService {
 
         Page<Food> foods = foodRepository.findAll(foodSpecification, pageable);
 
-        Page<Response> response = foods.map(foodMapper::toDto);
+        Page<Response> response = foods.map(foodMapper::toDtoWithoutComments);
+        attachLatestComments(response.getContent(), commentCount);
+        attachRatingHistograms(response.getContent());
+        return response;
+    }
 
-        return response.map(res -> limitCommentInResponse(res, commentCount));
+    /**
+     * The food's 1 to 5 star breakdown, read from its maintained counters rather than aggregated from the ratings.
+     * Cached alongside the food and evicted with it once new votes are folded in.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = CACHE_NAME, key = "'histogram:' + #foodId")
+    public FoodDTO.RatingHistogram getRatingHistogram(Long foodId) {
+        LOG.info("Fetching rating histogram of food with id: {}", foodId);
+        Food food = findFoodById(foodId);
+        return FoodDTO.RatingHistogram.of(food.getId(), foodRepository.findRatingBuckets(List.of(food.getId())));
     }
 
-    private Response limitCommentInResponse(Response response, int commentCount) {
-        if (response.getComments() != null && response.getComments().size() > commentCount){
-            List<CommentDTO.Response> comments = response.getComments().stream()
-                    .limit(commentCount)
-                    .toList();
-            response.setComments(comments);
+    public List<FoodDTO.SearchResult> searchFood(String query, int limit) {
+        LOG.debug("Searching foods for '{}'", query);
+        return foodSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Sets the latest {@code commentCount} comments on each response, newest first, loading only those comments
+     * for the whole page in one ranked query
+     */
+    private void attachLatestComments(List<Response> responses, int commentCount) {
+        Map<Long, List<CommentDTO.Response>> commentsByFood = new HashMap<>();
+        responses.forEach(response -> commentsByFood.put(response.getId(), new ArrayList<>()));
+
+        if (commentCount > 0 && !commentsByFood.isEmpty()) {
+            List<Long> commentIds = commentRepository.findLatestIdsByFoodIds(commentsByFood.keySet(), commentCount);
+            if (!commentIds.isEmpty()) {
+                for (Comment comment : commentRepository.findWithUserByIds(commentIds)) {
+                    commentsByFood.get(comment.getFood().getId()).add(commentMapper.toDto(comment));
+                }
+            }
         }
-        return response;
+        responses.forEach(response -> response.setComments(commentsByFood.get(response.getId())));
+    }
+
+    /**
+     * Sets every response's star breakdown from one read of the counters of the whole page
+     */
+    private void attachRatingHistograms(List<Response> responses) {
+        Map<Long, List<RatingBucket>> bucketsByFood = new HashMap<>();
+        responses.forEach(response -> bucketsByFood.put(response.getId(), new ArrayList<>()));
+        if (!bucketsByFood.isEmpty()) {
+            foodRepository.findRatingBuckets(bucketsByFood.keySet())
+                    .forEach(bucket -> bucketsByFood.get(bucket.getFoodId()).add(bucket));
+        }
+        responses.forEach(response -> response.setRatingHistogram(
+                FoodDTO.RatingHistogram.of(response.getId(), bucketsByFood.get(response.getId()))));
     }
 
     private Food findFoodById(Long id) {
@@ -0,0 +1,59 @@
+package dev.services.food;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A vote's change to its food's rating aggregate that could not be buffered in Redis. It is folded into the aggregate
+ * from the database by {@link FoodRatingCounters#foldBacklog()} and dropped in the same transaction.
+ *
+ * @author Nelson Tanko
+ */
+@Entity
+@Getter @Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "food_rating_backlog")
+public class RatingBacklog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "food_rating_backlog_sequence")
+    @SequenceGenerator(name = "food_rating_backlog_sequence", sequenceName = "food_rating_backlog_sequence", allocationSize = 50)
+    @Column(nullable = false, updatable = false)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private Long foodId;
+
+    @Column(nullable = false, updatable = false)
+    private long delta;
+
+    @Column(nullable = false, updatable = false)
+    private int votes;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime recordedAt;
+
+    /**
+     * Generation of the buffers the vote was meant for, or null when the entry was written together with the vote
+     */
+    @Column(updatable = false)
+    private Long generation;
+
+    public static RatingBacklog of(Long foodId, long delta, int votes) {
+        return of(foodId, delta, votes, null);
+    }
+
+    public static RatingBacklog of(Long foodId, long delta, int votes, Long generation) {
+        return RatingBacklog.builder()
+                .foodId(foodId)
+                .delta(delta)
+                .votes(votes)
+                .recordedAt(LocalDateTime.now())
+                .generation(generation)
+                .build();
+    }
+}
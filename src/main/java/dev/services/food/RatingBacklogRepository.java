@@ -0,0 +1,25 @@
+package dev.services.food;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * @author Nelson Tanko
+ */
+public interface RatingBacklogRepository extends JpaRepository<RatingBacklog, Long> {
+
+    /**
+     * Locks the oldest backlog entries, skipping those another node is folding
+     */
+    @Query(value = "SELECT * FROM food_rating_backlog ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<RatingBacklog> lockNextBatch(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM RatingBacklog b WHERE b.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,16 @@
+package dev.services.food;
+
+/**
+ * The number of votes a food has received with a given number of stars, as read by
+ * {@link FoodRepository#findRatingBuckets}
+ *
+ * @author Nelson Tanko
+ */
+public interface RatingBucket {
+
+    Long getFoodId();
+
+    Integer getStars();
+
+    Long getVotes();
+}
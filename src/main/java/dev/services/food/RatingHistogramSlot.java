@@ -0,0 +1,45 @@
+package dev.services.food;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One slot of a food's star counters. The rows are only written by the native statements on {@link FoodRepository}
+ * and read back summed over their slots as {@link RatingBucket}s; the mapping keeps the table part of the schema.
+ *
+ * @author Nelson Tanko
+ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(RatingHistogramSlot.Key.class)
+@Table(name = "food_rating_histogram")
+public class RatingHistogramSlot {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private Long foodId;
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private short stars;
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    private short slot;
+
+    @Column(nullable = false)
+    private long votes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long foodId;
+        private short stars;
+        private short slot;
+    }
+}
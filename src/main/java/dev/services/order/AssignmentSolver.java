@@ -0,0 +1,114 @@
+package dev.services.order;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment of rows to columns (Hungarian algorithm with potentials), O(n²m) for n rows and m columns.
+ * Each row gets at most one column and each column at most one row; when there are more rows than columns the
+ * surplus rows are left unassigned.
+ *
+ * @author Nelson Tanko
+ */
+public final class AssignmentSolver {
+
+    private AssignmentSolver() {
+    }
+
+    /**
+     * Returns the column assigned to each row, or -1 for a row left without one
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) {
+            return new int[0];
+        }
+        int columns = cost[0].length;
+        if (rows > columns) {
+            return invert(solve(transpose(cost)), rows);
+        }
+
+        // 1-based so that index 0 can stand for the row being inserted
+        double[] rowPotential = new double[rows + 1];
+        double[] columnPotential = new double[columns + 1];
+        double[] minSlack = new double[columns + 1];
+        int[] rowOfColumn = new int[columns + 1];
+        int[] previousColumn = new int[columns + 1];
+        boolean[] visited = new boolean[columns + 1];
+
+        for (int row = 1; row <= rows; row++) {
+            rowOfColumn[0] = row;
+            int column = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(visited, false);
+
+            // Grow the alternating tree until it reaches a free column
+            do {
+                visited[column] = true;
+                int currentRow = rowOfColumn[column];
+                double[] rowCost = cost[currentRow - 1];
+                double delta = Double.POSITIVE_INFINITY;
+                int nextColumn = 0;
+                for (int j = 1; j <= columns; j++) {
+                    if (visited[j]) {
+                        continue;
+                    }
+                    double slack = rowCost[j - 1] - rowPotential[currentRow] - columnPotential[j];
+                    if (slack < minSlack[j]) {
+                        minSlack[j] = slack;
+                        previousColumn[j] = column;
+                    }
+                    if (minSlack[j] < delta) {
+                        delta = minSlack[j];
+                        nextColumn = j;
+                    }
+                }
+                for (int j = 0; j <= columns; j++) {
+                    if (visited[j]) {
+                        rowPotential[rowOfColumn[j]] += delta;
+                        columnPotential[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                column = nextColumn;
+            } while (rowOfColumn[column] != 0);
+
+            // Flip the augmenting path
+            do {
+                int previous = previousColumn[column];
+                rowOfColumn[column] = rowOfColumn[previous];
+                column = previous;
+            } while (column != 0);
+        }
+
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, -1);
+        for (int j = 1; j <= columns; j++) {
+            if (rowOfColumn[j] != 0) {
+                assignment[rowOfColumn[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+
+    private static double[][] transpose(double[][] cost) {
+        double[][] transposed = new double[cost[0].length][cost.length];
+        for (int i = 0; i < cost.length; i++) {
+            for (int j = 0; j < cost[i].length; j++) {
+                transposed[j][i] = cost[i][j];
+            }
+        }
+        return transposed;
+    }
+
+    private static int[] invert(int[] rowOfColumn, int rows) {
+        int[] assignment = new int[rows];
+        Arrays.fill(assignment, -1);
+        for (int column = 0; column < rowOfColumn.length; column++) {
+            if (rowOfColumn[column] >= 0) {
+                assignment[rowOfColumn[column]] = column;
+            }
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,198 @@
+package dev.services.order;
+
+import dev.account.user.Address;
+import dev.services.restaurant.Restaurant;
+import dev.services.restaurant.RestaurantAvailabilityService;
+import dev.services.restaurant.RestaurantRepository;
+import dev.services.restaurant.RestaurantReservation;
+import dev.services.restaurant.RestaurantSpatialIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Matches pending orders to restaurants a window at a time when dispatch runs in {@link DispatchMode#BATCH} mode.
+ * <p>
+ * Every window locks the waiting orders and offers each of them its nearest restaurants. Each restaurant offers one
+ * seat per order it can still take, but no more than the orders in the window that could reach it, and the seats are
+ * capped in total so a window's cost matrix stays bounded. The window is then solved as an assignment problem for the least total distance,
+ * rather than letting whichever order came first take the closest restaurant. Orders that find no seat wait for the
+ * next window.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class BatchDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchDispatcher.class);
+
+    // Cost of pairing an order with a restaurant outside its candidates; large enough that the solver avoids it
+    private static final double UNREACHABLE = 1e9;
+
+    private final OrderRepository orderRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final RestaurantSpatialIndex spatialIndex;
+    private final RestaurantAvailabilityService restaurantAvailabilityService;
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter dispatchedCounter;
+    private final Timer solveTimer;
+
+    @Value("${foody.dispatch.mode:GREEDY}")
+    private DispatchMode dispatchMode;
+
+    @Value("${foody.dispatch.candidates:10}")
+    private int dispatchCandidates;
+
+    @Value("${foody.dispatch.batch.max-orders:500}")
+    private int maxOrders;
+
+    @Value("${foody.dispatch.batch.max-seats:2000}")
+    private int maxSeats;
+
+    public BatchDispatcher(OrderRepository orderRepository, RestaurantRepository restaurantRepository, RestaurantSpatialIndex spatialIndex,
+                           RestaurantAvailabilityService restaurantAvailabilityService, OrderService orderService,
+                           PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.orderRepository = orderRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.spatialIndex = spatialIndex;
+        this.restaurantAvailabilityService = restaurantAvailabilityService;
+        this.orderService = orderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dispatchedCounter = Counter.builder("foody.dispatch.batch.dispatched")
+                .description("Orders matched to a restaurant by the batch dispatcher")
+                .baseUnit("orders")
+                .register(registry);
+        this.solveTimer = Timer.builder("foody.dispatch.batch.solve")
+                .description("Time taken to solve one dispatch window")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${foody.dispatch.batch.window:PT0.5S}")
+    public void dispatchPendingOrders() {
+        if (dispatchMode != DispatchMode.BATCH) {
+            return;
+        }
+        try {
+            dispatchWindow();
+        } catch (Exception e) {
+            LOG.error("Batch dispatch failed, the orders stay pending: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Matches the orders waiting right now and returns how many were dispatched
+     */
+    public int dispatchWindow() {
+        Integer dispatched = transactionTemplate.execute(status -> matchNextWindow());
+        return dispatched != null ? dispatched : 0;
+    }
+
+    private int matchNextWindow() {
+        List<Long> orderIds = orderRepository.lockPendingDispatch(maxOrders);
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Set<Long>> candidatesByOrder = new HashMap<>();
+        Map<Long, Integer> demand = new LinkedHashMap<>();
+        List<Order> orders = new ArrayList<>();
+        for (Order order : orderRepository.findPendingDispatch(orderIds)) {
+            Set<Long> nearest = new HashSet<>(nearestRestaurants(order.getDeliveryAddress()));
+            if (!nearest.isEmpty()) {
+                orders.add(order);
+                candidatesByOrder.put(order.getId(), nearest);
+                nearest.forEach(id -> demand.merge(id, 1, Integer::sum));
+            }
+        }
+        Set<Long> candidateIds = demand.keySet();
+
+        // Saturated restaurants are known locally, so only ones with room are asked for their capacity
+        Map<Long, Boolean> available = restaurantAvailabilityService.areRestaurantsAvailable(candidateIds);
+        List<Restaurant> open = restaurantRepository.findAllById(candidateIds).stream()
+                .filter(r -> r.isActive() && r.isAvailable() && r.getAddress() != null)
+                .filter(r -> available.getOrDefault(r.getId(), false))
+                .toList();
+        Map<Long, Integer> freeCapacities = restaurantAvailabilityService.freeCapacities(open);
+
+        List<Restaurant> seats = seats(open, freeCapacities, demand, maxSeats);
+        if (seats.isEmpty()) {
+            LOG.info("No free restaurant for any of the {} pending orders", orderIds.size());
+            return 0;
+        }
+
+        double[][] cost = new double[orders.size()][seats.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            Set<Long> candidates = candidatesByOrder.get(order.getId());
+            for (int j = 0; j < seats.size(); j++) {
+                Restaurant restaurant = seats.get(j);
+                cost[i][j] = candidates.contains(restaurant.getId())
+                        ? order.getDeliveryAddress().distanceTo(restaurant.getAddress())
+                        : UNREACHABLE;
+            }
+        }
+        int[] assignment = solveTimer.record(() -> AssignmentSolver.solve(cost));
+
+        int dispatched = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            int seat = assignment[i];
+            if (seat < 0 || cost[i][seat] >= UNREACHABLE) {
+                continue;
+            }
+            Restaurant restaurant = seats.get(seat);
+            // Greedy dispatch or another node may have taken the seat since capacity was read
+            Optional<RestaurantReservation> reservation = restaurantAvailabilityService.reserveFirstAvailable(List.of(restaurant));
+            if (reservation.isEmpty()) {
+                continue;
+            }
+            if (orderService.dispatch(orders.get(i), restaurant, reservation.get())) {
+                dispatched++;
+            }
+        }
+
+        dispatchedCounter.increment(dispatched);
+        LOG.info("Dispatched {} of {} pending orders to {} free seats", dispatched, orderIds.size(), seats.size());
+        return dispatched;
+    }
+
+    /**
+     * Gives each restaurant as many seats as it has free capacity and window orders that could reach it. Seats are
+     * handed out a round at a time, so when the total is capped every restaurant keeps its first seat before any
+     * restaurant gets a second.
+     */
+    static List<Restaurant> seats(List<Restaurant> open, Map<Long, Integer> freeCapacities, Map<Long, Integer> demand, int maxSeats) {
+        List<Restaurant> seats = new ArrayList<>();
+        for (int round = 0; seats.size() < maxSeats; round++) {
+            boolean added = false;
+            for (Restaurant restaurant : open) {
+                int limit = Math.min(freeCapacities.getOrDefault(restaurant.getId(), 0), demand.getOrDefault(restaurant.getId(), 0));
+                if (round < limit && seats.size() < maxSeats) {
+                    seats.add(restaurant);
+                    added = true;
+                }
+            }
+            if (!added) {
+                break;
+            }
+        }
+        return seats;
+    }
+
+    private List<Long> nearestRestaurants(Address address) {
+        if (address.getLatitude() == null || address.getLongitude() == null) {
+            return List.of();
+        }
+        return spatialIndex.findNearestAvailable(address.getLatitude(), address.getLongitude(), dispatchCandidates,
+                restaurantAvailabilityService::isRestaurantAvailable);
+    }
+}
@@ -0,0 +1,73 @@
+package dev.services.order;
+
+import dev.account.user.Address;
+import dev.services.restaurant.PrepTimeStatistics;
+import dev.services.restaurant.Restaurant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Estimates how long an order will take: the restaurant's recent preparation time at a high quantile plus the ride
+ * from the restaurant to the customer. The estimate sets the order's ETA, which in turn decides when its kitchen slot
+ * and courier are handed back, so quick restaurants take their next order sooner.
+ * <p>
+ * Preparation times are learned from deliveries confirmed by hand; automatic completions only echo the estimate and
+ * are not fed back.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class DeliveryTimeEstimator {
+
+    private final PrepTimeStatistics prepTimeStatistics;
+
+    @Value("${foody.delivery.courier-speed-kmh:20}")
+    private double courierSpeedKmh;
+
+    @Value("${foody.delivery.handover-time:PT2M}")
+    private Duration handoverTime;
+
+    @Value("${foody.delivery.default-prep-time:PT10M}")
+    private Duration defaultPrepTime;
+
+    @Value("${foody.delivery.prep-quantile:0.8}")
+    private double prepQuantile;
+
+    @Value("${foody.delivery.max-estimate:PT2H}")
+    private Duration maxEstimate;
+
+    public DeliveryTimeEstimator(PrepTimeStatistics prepTimeStatistics) {
+        this.prepTimeStatistics = prepTimeStatistics;
+    }
+
+    public Duration estimate(Restaurant restaurant, Address deliveryAddress) {
+        Duration prepTime = prepTimeStatistics.quantile(restaurant.getId(), prepQuantile).orElse(defaultPrepTime);
+        Duration total = prepTime.plus(travelTime(restaurant, deliveryAddress));
+        return total.compareTo(maxEstimate) > 0 ? maxEstimate : total;
+    }
+
+    /**
+     * Learns from a delivered order: whatever the ride does not explain is counted as preparation time
+     */
+    public void recordDelivery(Order order, LocalDateTime deliveredAt) {
+        Duration elapsed = Duration.between(order.getOrderTime(), deliveredAt);
+        Duration prepTime = elapsed.minus(travelTime(order.getRestaurant(), order.getDeliveryAddress()));
+        prepTimeStatistics.record(order.getRestaurant().getId(), prepTime.isNegative() ? Duration.ZERO : prepTime);
+    }
+
+    Duration travelTime(Restaurant restaurant, Address deliveryAddress) {
+        Address origin = restaurant.getAddress();
+        if (!hasCoordinates(origin) || !hasCoordinates(deliveryAddress)) {
+            return handoverTime;
+        }
+        double hours = origin.distanceTo(deliveryAddress) / courierSpeedKmh;
+        return Duration.ofSeconds(Math.round(hours * 3600)).plus(handoverTime);
+    }
+
+    private static boolean hasCoordinates(Address address) {
+        return address != null && address.getLatitude() != null && address.getLongitude() != null;
+    }
+}
@@ -0,0 +1,11 @@
+package dev.services.order;
+
+/**
+ * How new orders are matched to restaurants. {@code GREEDY} reserves the nearest free restaurant while the order is
+ * being placed; {@code BATCH} stores the order as pending and leaves the match to {@link BatchDispatcher}.
+ *
+ * @author Nelson Tanko
+ */
+public enum DispatchMode {
+    GREEDY, BATCH
+}
@@ -3,11 +3,13 @@ package dev.services.order;
 import dev.account.user.Address;
 import dev.account.user.User;
 import dev.core.common.AbstractAuditingEntity;
+import dev.core.common.Money;
+import dev.core.common.MoneyConverter;
+import dev.services.restaurant.Courier;
 import dev.services.restaurant.Restaurant;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,12 +22,12 @@ import java.util.List;
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_status_estimated_delivery", columnList = "status, estimated_delivery_time"))
 public class Order extends AbstractAuditingEntity<Long> {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_sequence")
-    @SequenceGenerator(name = "order_sequence", sequenceName = "order_sequence", allocationSize = 1, initialValue = 50)
+    @SequenceGenerator(name = "order_sequence", sequenceName = "order_sequence", allocationSize = 50, initialValue = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
@@ -33,15 +35,23 @@ public class Order extends AbstractAuditingEntity<Long> {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    /**
+     * Null while a batch-dispatched order waits for its match
+     */
     @ManyToOne
-    @JoinColumn(name = "restaurant_id", nullable = false)
+    @JoinColumn(name = "restaurant_id")
     private Restaurant restaurant;
 
+    @ManyToOne
+    @JoinColumn(name = "courier_id")
+    private Courier courier;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false)
-    private BigDecimal totalAmount;
+    private Money totalAmount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -54,4 +64,7 @@ public class Order extends AbstractAuditingEntity<Long> {
     @ManyToOne
     @JoinColumn(name = "delivery_address_id", nullable = false)
     private Address deliveryAddress;
+
+    @Version
+    private Long version;
 }
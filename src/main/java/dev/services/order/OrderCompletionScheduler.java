@@ -0,0 +1,146 @@
+package dev.services.order;
+
+import dev.core.exception.GenericApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable delayed-job queue for delivery completions, kept in Redis sorted sets scored by due time.
+ * <p>
+ * Pollers on every node claim due jobs atomically by moving them into a processing set with a visibility deadline,
+ * so each job has exactly one consumer at a time. A job is acked once its completion commits; a node that dies
+ * mid-job leaves it in the processing set, and it is handed out again when the deadline passes.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class OrderCompletionScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderCompletionScheduler.class);
+    static final String DUE_KEY = "order:completion:due";
+    static final String PROCESSING_KEY = "order:completion:processing";
+
+    /**
+     * Returns jobs whose visibility deadline has passed to the due set, then moves up to the batch size of due jobs
+     * into the processing set. KEYS: due, processing. ARGV: now, visibility timeout in millis, batch size.
+     */
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', now)
+            for _, job in ipairs(expired) do
+                redis.call('ZREM', KEYS[2], job)
+                redis.call('ZADD', KEYS[1], now, job)
+            end
+            local jobs = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now, 'LIMIT', 0, tonumber(ARGV[3]))
+            for _, job in ipairs(jobs) do
+                redis.call('ZREM', KEYS[1], job)
+                redis.call('ZADD', KEYS[2], now + tonumber(ARGV[2]), job)
+            end
+            return jobs
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final OrderCompletionService orderCompletionService;
+
+    @Value("${foody.order.completion.batch-size:50}")
+    private int batchSize;
+
+    @Value("${foody.order.completion.visibility-timeout:PT1M}")
+    private Duration visibilityTimeout;
+
+    public OrderCompletionScheduler(RedisTemplate<String, String> redisTemplate, OrderCompletionService orderCompletionService) {
+        this.redisTemplate = redisTemplate;
+        this.orderCompletionService = orderCompletionService;
+    }
+
+    /**
+     * Schedules completion of an order's delivery at the given time
+     */
+    public void schedule(Long orderId, Long restaurantId, LocalDateTime dueAt) {
+        long dueMillis = dueAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        redisTemplate.opsForZSet().add(DUE_KEY, job(orderId, restaurantId), dueMillis);
+        LOG.debug("Completion of order {} scheduled for {}", orderId, dueAt);
+    }
+
+    /**
+     * Drops a scheduled completion, e.g. when the order was finished by other means
+     */
+    public void cancel(Long orderId, Long restaurantId) {
+        cancelAll(Collections.singletonMap(orderId, restaurantId));
+    }
+
+    /**
+     * Drops the scheduled completions of many orders, keyed by order id with their restaurant id, in one round trip
+     */
+    public void cancelAll(Map<Long, Long> restaurantIdsByOrderId) {
+        if (restaurantIdsByOrderId.isEmpty()) {
+            return;
+        }
+        byte[][] jobs = restaurantIdsByOrderId.entrySet().stream()
+                .map(entry -> job(entry.getKey(), entry.getValue()).getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.zSetCommands().zRem(DUE_KEY.getBytes(StandardCharsets.UTF_8), jobs);
+            connection.zSetCommands().zRem(PROCESSING_KEY.getBytes(StandardCharsets.UTF_8), jobs);
+            return null;
+        });
+    }
+
+    /**
+     * Claims the next batch of due jobs and completes them one by one. A job that fails is not acked and will be
+     * claimed again once its visibility timeout expires.
+     */
+    @Scheduled(fixedDelayString = "${foody.order.completion.poll-interval:PT1S}")
+    public void pollDueCompletions() {
+        List<String> jobs = claimDueJobs();
+        if (jobs.isEmpty()) {
+            return;
+        }
+        LOG.debug("Claimed {} due order completions", jobs.size());
+
+        for (String job : jobs) {
+            Long orderId = Long.parseLong(job.substring(0, job.indexOf(':')));
+            try {
+                orderCompletionService.completeOrder(orderId);
+                ack(job);
+            } catch (GenericApiException e) {
+                // The order is gone, so retrying can never succeed
+                LOG.warn("Dropping completion job {}: {}", job, e.getMessage());
+                ack(job);
+            } catch (Exception e) {
+                LOG.error("Completion job {} failed and will be retried: {}", job, e.getMessage());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> claimDueJobs() {
+        List<String> jobs = redisTemplate.execute(CLAIM_SCRIPT, List.of(DUE_KEY, PROCESSING_KEY),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(visibilityTimeout.toMillis()),
+                String.valueOf(batchSize));
+        return jobs != null ? jobs : List.of();
+    }
+
+    private void ack(String job) {
+        redisTemplate.opsForZSet().remove(PROCESSING_KEY, job);
+    }
+
+    private static String job(Long orderId, Long restaurantId) {
+        return String.format("%d:%d", orderId, restaurantId);
+    }
+}
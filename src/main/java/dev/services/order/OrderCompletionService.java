@@ -1,18 +1,19 @@
 package dev.services.order;
 
-import ch.qos.logback.core.spi.ConfigurationEvent;
+import dev.core.config.Constants;
 import dev.core.exception.ErrorCode;
 import dev.core.exception.GenericApiException;
 import dev.services.restaurant.*;
-import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.connection.RedisConnection;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Objects;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * @author Nelson Tanko
@@ -21,67 +22,80 @@ import java.util.Objects;
 public class OrderCompletionService {
 
     private static final Logger LOG = LoggerFactory.getLogger(OrderCompletionService.class);
-    private static final String RESTAURANT_LOCK_KEY = "restaurant:busy:";
 
     private final OrderRepository orderRepository;
-    private final RestaurantRepository restaurantRepository;
-    private final RedisTemplate<String, String> redisTemplate;
     private final CourierRepository courierRepository;
+    private final RestaurantAvailabilityService restaurantAvailabilityService;
+    private final OrderEventPublisher orderEventPublisher;
+    private final RestaurantPoolResync poolResync;
 
-    public OrderCompletionService(OrderRepository orderRepository, RestaurantRepository restaurantRepository, RedisTemplate<String, String> redisTemplate,
-                                  CourierRepository courierRepository) {
+    public OrderCompletionService(OrderRepository orderRepository, CourierRepository courierRepository,
+                                  RestaurantAvailabilityService restaurantAvailabilityService, OrderEventPublisher orderEventPublisher,
+                                  RestaurantPoolResync poolResync) {
         this.orderRepository = orderRepository;
-        this.restaurantRepository = restaurantRepository;
-        this.redisTemplate = redisTemplate;
         this.courierRepository = courierRepository;
+        this.restaurantAvailabilityService = restaurantAvailabilityService;
+        this.orderEventPublisher = orderEventPublisher;
+        this.poolResync = poolResync;
     }
 
+    /**
+     * Marks an order delivered and frees its courier and kitchen slot. The status moves with a conditional update, so
+     * an order that is no longer delivering is left alone and a job that runs twice completes the order once.
+     */
     @Transactional
-    public void completeOrderAndFreeRestaurant(Long restaurantId) {
-        LOG.info("Processing completion for restaurant {}", restaurantId);
-
-        try {
-            Restaurant restaurant = restaurantRepository.findById(restaurantId)
-                    .orElseThrow(() -> new GenericApiException(ErrorCode.RESTAURANT_NOT_FOUND));
-            restaurant.markAsAvailable();
-            restaurantRepository.save(restaurant);
+    public void completeOrder(Long orderId) {
+        LOG.info("Processing completion for order {}", orderId);
 
-            Courier courier = restaurant.getCourier();
-            if (courier != null) {
-                courier.markAsAvailable();
-                courierRepository.save(courier);
-            }
-            orderRepository.findByRestaurantIdAndStatusOrderByCreatedDateDesc(
-                            restaurantId, OrderStatus.DELIVERING)
-                    .stream()
-                    .findFirst()
-                    .ifPresent(order -> {
-                        order.setStatus(OrderStatus.DELIVERED);
-                        orderRepository.save(order);
-                        LOG.info("Order {} marked as delivered", order.getId());
-                    });
-
-            redisTemplate.delete(RESTAURANT_LOCK_KEY + restaurant.getId());
-            LOG.info("Restaurant {} and its courier marked as available", restaurantId);
-        }catch (Exception ex){
-            LOG.error("Error completing order for restaurant {}: {}", restaurantId, ex.getMessage(), ex);
-            throw ex;
+        int updated = orderRepository.compareAndSetStatus(orderId, OrderStatus.DELIVERED.allowedPredecessors(),
+                OrderStatus.DELIVERED, Constants.SYSTEM, LocalDateTime.now());
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new GenericApiException(ErrorCode.ORDER_NOT_FOUND));
+        if (updated == 0) {
+            LOG.info("Order {} is already {}, nothing to complete", orderId, order.getStatus());
+            return;
         }
+
+        releaseDelivery(order);
+        orderEventPublisher.publish(order, OrderEventType.DELIVERED);
+        LOG.info("Order {} marked as delivered", orderId);
     }
 
     /**
-     * Initialize Redis config at startup to support keyspace events
+     * Frees the courier and kitchen slot held by an order that has just reached a final state. Callers must have won
+     * the status transition, which guarantees this runs once per order.
      */
-    @PostConstruct
-    public void init() {
-        try {
-            RedisConnection connection = Objects.requireNonNull(redisTemplate.getConnectionFactory())
-                    .getConnection();
-            ConfigurationEvent.newConfigurationChangeDetectedEvent(connection.serverCommands());
-            LOG.info("Redis keyspace notifications configured successfully");
-        } catch (Exception e) {
-            LOG.warn("Failed to configure Redis keyspace notifications: {}", e.getMessage(), e);
-            LOG.warn("You may need to manually run: CONFIG SET notify-keyspace-events Ex");
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseDelivery(Order order) {
+        Courier courier = order.getCourier();
+        if (courier == null) {
+            return;
         }
+        courier.markAsAvailable();
+        courierRepository.save(courier);
+        releaseSlotOnCommit(order);
+    }
+
+    private void releaseSlotOnCommit(Order order) {
+        Long courierId = order.getCourier() != null ? order.getCourier().getId() : null;
+        Runnable release = () -> {
+            try {
+                restaurantAvailabilityService.releaseOrder(order.getId(), order.getRestaurant(), courierId);
+            } catch (Exception e) {
+                LOG.error("Order {} was completed but its slot could not be released, the pool will be rebuilt: {}",
+                        order.getId(), e.getMessage());
+                poolResync.resyncLater(List.of(order.getRestaurant().getId()));
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release.run();
+            }
+        });
     }
 }
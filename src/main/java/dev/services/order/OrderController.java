@@ -1,14 +1,20 @@
 package dev.services.order;
 
+import dev.core.utils.CursorPage;
+import dev.core.utils.PaginationUtils;
 import dev.services.order.OrderDTO.Request;
 import dev.services.order.OrderDTO.Response;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
 
 
 /**
@@ -35,9 +41,21 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getUserOrders(pageable));
     }
 
+    /**
+     * Keyset-paginated orders of the current user, newest first; the {@code Link} header carries the next page's cursor
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<List<Response>> scrollUserOrders(@RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        CursorPage<Response> page = orderService.scrollUserOrders(cursor, size);
+        HttpHeaders headers = PaginationUtils.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
     @PatchMapping("/status")
     public ResponseEntity<Response> updateOrderStatus(@RequestBody OrderStatusUpdateRequest statusUpdateDTO) {
-        Response response = orderService.updateOrderStatus(statusUpdateDTO.getOrderId(), statusUpdateDTO.getOrderStatus());
+        Response response = orderService.updateOrderStatus(statusUpdateDTO.getOrderId(),
+                statusUpdateDTO.getOrderStatus(), statusUpdateDTO.getVersion());
         return ResponseEntity.ok(response);
     }
 }
@@ -38,11 +38,13 @@ public class OrderDTO {
         private String username;
         private Long restaurantId;
         private String restaurantName;
+        private Long courierId;
         private List<OrderItemDTO.Response> orderItems;
         private BigDecimal totalAmount;
         private AddressDTO.Response deliveryAddress;
         private LocalDateTime orderTime;
         private LocalDateTime estimatedDeliveryTime;
         private OrderStatus status;
+        private Long version;
     }
 }
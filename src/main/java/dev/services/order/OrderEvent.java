@@ -0,0 +1,77 @@
+package dev.services.order;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outbox row describing an order state change. It is written in the same transaction as the change itself and
+ * removed once {@link OrderEventRelay} has handed it to the order event stream.
+ *
+ * @author Nelson Tanko
+ */
+@Entity
+@Getter @Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "order_events")
+public class OrderEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_event_sequence")
+    @SequenceGenerator(name = "order_event_sequence", sequenceName = "order_event_sequence", allocationSize = 50)
+    @Column(nullable = false, updatable = false)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private OrderEventType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private OrderStatus status;
+
+    @Column(nullable = false, updatable = false)
+    private Long userId;
+
+    @Column(updatable = false)
+    private Long restaurantId;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    public static OrderEvent of(Order order, OrderEventType type) {
+        return OrderEvent.builder()
+                .orderId(order.getId())
+                .type(type)
+                .status(order.getStatus())
+                .userId(order.getUser().getId())
+                .restaurantId(order.getRestaurant() != null ? order.getRestaurant().getId() : null)
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Fields of the stream entry for this event
+     */
+    public Map<String, String> toStreamFields() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("eventId", String.valueOf(id));
+        fields.put("orderId", String.valueOf(orderId));
+        fields.put("type", type.name());
+        fields.put("status", status.name());
+        fields.put("userId", String.valueOf(userId));
+        if (restaurantId != null) {
+            fields.put("restaurantId", String.valueOf(restaurantId));
+        }
+        fields.put("occurredAt", occurredAt.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,39 @@
+package dev.services.order;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Records order lifecycle events in the outbox. Must be called inside the transaction that changes the order,
+ * so an event exists if and only if the change is committed.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class OrderEventPublisher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderEventPublisher.class);
+
+    private final OrderEventRepository orderEventRepository;
+
+    public OrderEventPublisher(OrderEventRepository orderEventRepository) {
+        this.orderEventRepository = orderEventRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Order order, OrderEventType type) {
+        orderEventRepository.save(OrderEvent.of(order, type));
+        LOG.debug("Recorded {} event for order {}", type, order.getId());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishAll(List<OrderEvent> events) {
+        orderEventRepository.saveAll(events);
+        LOG.debug("Recorded {} order events", events.size());
+    }
+}
@@ -0,0 +1,172 @@
+package dev.services.order;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the order event outbox into the {@value #STREAM_KEY} Redis Stream.
+ * <p>
+ * Each batch is locked, appended to the stream in one pipeline and deleted in the same database transaction, so an
+ * event is removed only after Redis accepted it. A crash between the two leaves the batch in the outbox and it is
+ * sent again: consumers get every event at least once and can de-duplicate on {@code eventId}.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class OrderEventRelay {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderEventRelay.class);
+
+    public static final String STREAM_KEY = "order:events";
+
+    private final OrderEventRepository orderEventRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter relayedCounter;
+    private final Timer batchTimer;
+
+    @Value("${foody.order.events.batch-size:500}")
+    private int batchSize;
+
+    @Value("${foody.order.events.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${foody.order.events.stream-max-length:100000}")
+    private long streamMaxLength;
+
+    @Value("${foody.order.events.consumer-groups:notifications,analytics}")
+    private String[] consumerGroups;
+
+    public OrderEventRelay(OrderEventRepository orderEventRepository, RedisTemplate<String, String> redisTemplate,
+                           PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.orderEventRepository = orderEventRepository;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.relayedCounter = Counter.builder("foody.order.events.relayed")
+                .description("Order events moved from the outbox to the stream")
+                .baseUnit("events")
+                .register(registry);
+        this.batchTimer = Timer.builder("foody.order.events.batch")
+                .description("Time taken to append one outbox batch to the stream")
+                .register(registry);
+        Gauge.builder("foody.order.events.lag", this, OrderEventRelay::currentLagMillis)
+                .description("Age of the oldest event still waiting in the outbox")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    /**
+     * Creates the stream and its consumer groups if they are missing. New groups start from the beginning of the stream.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createConsumerGroups() {
+        byte[] key = STREAM_KEY.getBytes(StandardCharsets.UTF_8);
+        for (String group : consumerGroups) {
+            try {
+                redisTemplate.execute((RedisCallback<String>) connection ->
+                        connection.streamCommands().xGroupCreate(key, group, ReadOffset.from("0"), true));
+                LOG.info("Created consumer group {} on {}", group, STREAM_KEY);
+            } catch (DataAccessException e) {
+                if (!String.valueOf(e.getMostSpecificCause().getMessage()).contains("BUSYGROUP")) {
+                    LOG.warn("Could not create consumer group {} on {}: {}", group, STREAM_KEY, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Relays full batches until the outbox is drained or the per-run limit is hit, so a backlog clears quickly
+     * without one node holding row locks indefinitely.
+     */
+    @Scheduled(fixedDelayString = "${foody.order.events.relay-interval:PT1S}")
+    public void relayPendingEvents() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer relayed;
+            try {
+                relayed = transactionTemplate.execute(status -> relayNextBatch());
+            } catch (Exception e) {
+                LOG.error("Relaying order events failed, the batch stays in the outbox: {}", e.getMessage());
+                return;
+            }
+            if (relayed == null || relayed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int relayNextBatch() {
+        List<OrderEvent> events = orderEventRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        batchTimer.record(() -> appendToStream(events));
+        orderEventRepository.deleteAllByIdIn(events.stream().map(OrderEvent::getId).toList());
+
+        relayedCounter.increment(events.size());
+        LOG.debug("Relayed {} order events to {}", events.size(), STREAM_KEY);
+        return events.size();
+    }
+
+    /**
+     * Read from the outbox on every scrape rather than kept by the relay, so the gauge keeps growing while relaying
+     * fails or no node runs the relay at all
+     */
+    double currentLagMillis() {
+        try {
+            return orderEventRepository.findOldestOccurredAt()
+                    .map(oldest -> (double) Duration.between(oldest, LocalDateTime.now()).toMillis())
+                    .orElse(0.0);
+        } catch (DataAccessException e) {
+            LOG.warn("Could not read the order event outbox lag: {}", e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    private void appendToStream(List<OrderEvent> events) {
+        byte[] key = STREAM_KEY.getBytes(StandardCharsets.UTF_8);
+        XAddOptions options = XAddOptions.maxlen(streamMaxLength).approximateTrimming(true);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (OrderEvent event : events) {
+                MapRecord<byte[], byte[], byte[]> record = StreamRecords.newRecord()
+                        .in(key)
+                        .ofMap(toBytes(event.toStreamFields()));
+                connection.streamCommands().xAdd(record, options);
+            }
+            return null;
+        });
+    }
+
+    private static Map<byte[], byte[]> toBytes(Map<String, String> fields) {
+        Map<byte[], byte[]> bytes = new LinkedHashMap<>();
+        fields.forEach((field, value) ->
+                bytes.put(field.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8)));
+        return bytes;
+    }
+}
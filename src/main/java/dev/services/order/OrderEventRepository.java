@@ -0,0 +1,34 @@
+package dev.services.order;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author Nelson Tanko
+ */
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    /**
+     * Locks the oldest pending events. Rows already locked by another relay are skipped rather than waited on,
+     * so several nodes can drain the outbox side by side.
+     */
+    @Query(value = "SELECT * FROM order_events ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OrderEvent> lockNextBatch(@Param("limit") int limit);
+
+    /**
+     * When the oldest event still waiting in the outbox happened; empty once the outbox is drained
+     */
+    @Query("SELECT min(e.occurredAt) FROM OrderEvent e")
+    Optional<LocalDateTime> findOldestOccurredAt();
+
+    @Modifying
+    @Query("DELETE FROM OrderEvent e WHERE e.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,8 @@
+package dev.services.order;
+
+/**
+ * @author Nelson Tanko
+ */
+public enum OrderEventType {
+    CREATED, STATUS_CHANGED, DELIVERED
+}
@@ -1,12 +1,12 @@
 package dev.services.order;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import dev.core.common.Money;
+import dev.core.common.MoneyConverter;
 import dev.services.food.Food;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
-
 /**
  * @author Nelson Tanko
  */
@@ -20,7 +20,7 @@ public class OrderItem {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_sequence")
-    @SequenceGenerator(name = "order_items_sequence", sequenceName = "order_items_sequence", allocationSize = 1, initialValue = 50)
+    @SequenceGenerator(name = "order_items_sequence", sequenceName = "order_items_sequence", allocationSize = 50, initialValue = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
@@ -36,10 +36,11 @@ public class OrderItem {
     @Column(nullable = false)
     private int quantity;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false)
-    private BigDecimal price;
+    private Money price;
 
-    public BigDecimal getSubtotal() {
-        return price.multiply(BigDecimal.valueOf(quantity));
+    public Money getSubtotal() {
+        return price.times(quantity);
     }
 }
@@ -1,9 +1,23 @@
 package dev.services.order;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author Nelson Tanko
  */
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    @Query("""
+            SELECT new dev.services.order.OrderItemSummary(i.order.id, i.id, f.id, f.name, i.quantity, i.price)
+            FROM OrderItem i
+            JOIN i.food f
+            WHERE i.order.id IN :orderIds
+            ORDER BY i.id
+            """)
+    List<OrderItemSummary> findSummariesByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
 }
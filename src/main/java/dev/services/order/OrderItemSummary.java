@@ -0,0 +1,15 @@
+package dev.services.order;
+
+import dev.core.common.Money;
+
+/**
+ * Read-only view of an order line with its food name, loaded in bulk for a page of {@link OrderSummary}.
+ *
+ * @author Nelson Tanko
+ */
+public record OrderItemSummary(Long orderId, Long id, Long foodId, String foodName, Integer quantity, Money price) {
+
+    public Money subtotal() {
+        return price.times(quantity);
+    }
+}
@@ -1,6 +1,7 @@
 package dev.services.order;
 
 import dev.account.mapper.AddressMapper;
+import dev.core.common.MoneyMapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -9,13 +10,14 @@ import java.util.List;
 /**
  * @author Nelson Tanko
  */
-@Mapper(componentModel = "spring", uses = {AddressMapper.class})
+@Mapper(componentModel = "spring", uses = {AddressMapper.class, MoneyMapper.class})
 public interface OrderMapper {
 
     @Mapping(target = "userId", source = "user.id")
     @Mapping(target = "username", source = "user.fullname")
     @Mapping(target = "restaurantId", source = "restaurant.id")
     @Mapping(target = "restaurantName", source = "restaurant.name")
+    @Mapping(target = "courierId", source = "courier.id")
     @Mapping(target = "deliveryAddress", source = "deliveryAddress")
     OrderDTO.Response toDto(Order order);
 
@@ -23,8 +25,21 @@ public interface OrderMapper {
 
     @Mapping(target = "foodId", source = "food.id")
     @Mapping(target = "foodName", source = "food.name")
-    @Mapping(target = "subtotal", expression = "java(orderItem.getSubtotal())")
+    @Mapping(target = "subtotal", source = "subtotal")
     OrderItemDTO.Response orderItemToDto(OrderItem orderItem);
 
     List<OrderItemDTO.Response> orderItemsToDtoList(List<OrderItem> orderItems);
+
+    @Mapping(target = "deliveryAddress.street", source = "order.street")
+    @Mapping(target = "deliveryAddress.city", source = "order.city")
+    @Mapping(target = "deliveryAddress.country", source = "order.country")
+    @Mapping(target = "deliveryAddress.latitude", source = "order.latitude")
+    @Mapping(target = "deliveryAddress.longitude", source = "order.longitude")
+    @Mapping(target = "orderItems", source = "items")
+    OrderDTO.Response toDto(OrderSummary order, List<OrderItemSummary> items);
+
+    @Mapping(target = "subtotal", expression = "java(item.subtotal().toBigDecimal())")
+    OrderItemDTO.Response orderItemSummaryToDto(OrderItemSummary item);
+
+    List<OrderItemDTO.Response> orderItemSummariesToDtoList(List<OrderItemSummary> items);
 }
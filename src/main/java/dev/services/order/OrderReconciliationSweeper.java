@@ -0,0 +1,143 @@
+package dev.services.order;
+
+import dev.core.config.Constants;
+import dev.services.restaurant.CourierRepository;
+import dev.services.restaurant.RestaurantAvailabilityService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Safety net for deliveries the completion queue lost track of, e.g. because a completion kept failing or its job was
+ * dropped. Orders still delivering well past their ETA are completed in pages: each page is locked, moved to
+ * delivered and has its couriers freed with set-based updates in one transaction, and once that commits the slots and
+ * couriers are handed back to the Redis pools.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class OrderReconciliationSweeper {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderReconciliationSweeper.class);
+
+    private final OrderRepository orderRepository;
+    private final CourierRepository courierRepository;
+    private final OrderEventPublisher orderEventPublisher;
+    private final RestaurantAvailabilityService restaurantAvailabilityService;
+    private final OrderCompletionScheduler completionScheduler;
+    private final RestaurantPoolResync poolResync;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter recoveredCounter;
+    private final Counter couriersFreedCounter;
+    private final Timer sweepTimer;
+
+    @Value("${foody.order.reconciliation.grace-period:PT5M}")
+    private Duration gracePeriod;
+
+    @Value("${foody.order.reconciliation.page-size:200}")
+    private int pageSize;
+
+    @Value("${foody.order.reconciliation.max-pages-per-run:50}")
+    private int maxPagesPerRun;
+
+    public OrderReconciliationSweeper(OrderRepository orderRepository, CourierRepository courierRepository,
+                                      OrderEventPublisher orderEventPublisher, RestaurantAvailabilityService restaurantAvailabilityService,
+                                      OrderCompletionScheduler completionScheduler, RestaurantPoolResync poolResync,
+                                      PlatformTransactionManager transactionManager, MeterRegistry registry) {
+        this.orderRepository = orderRepository;
+        this.courierRepository = courierRepository;
+        this.orderEventPublisher = orderEventPublisher;
+        this.restaurantAvailabilityService = restaurantAvailabilityService;
+        this.completionScheduler = completionScheduler;
+        this.poolResync = poolResync;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recoveredCounter = Counter.builder("foody.order.reconciliation.recovered")
+                .description("Overdue deliveries completed by the reconciliation sweep")
+                .baseUnit("orders")
+                .register(registry);
+        this.couriersFreedCounter = Counter.builder("foody.order.reconciliation.couriers.freed")
+                .description("Couriers handed back by the reconciliation sweep")
+                .baseUnit("couriers")
+                .register(registry);
+        this.sweepTimer = Timer.builder("foody.order.reconciliation.sweep")
+                .description("Time taken by one reconciliation run")
+                .register(registry);
+    }
+
+    /**
+     * Completes deliveries that are past their ETA by more than the grace period, giving the completion queue
+     * time to do it first. Stops after a full run of pages so one node does not hold the sweep indefinitely.
+     */
+    @Scheduled(fixedDelayString = "${foody.order.reconciliation.interval:PT1M}")
+    public void sweepOverdueDeliveries() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+        sweepTimer.record(() -> sweep(cutoff));
+    }
+
+    private void sweep(LocalDateTime cutoff) {
+        for (int page = 0; page < maxPagesPerRun; page++) {
+            List<OverdueDelivery> recovered;
+            try {
+                recovered = transactionTemplate.execute(status -> completeNextPage(cutoff));
+            } catch (Exception e) {
+                LOG.error("Reconciling overdue deliveries failed, they are retried on the next run: {}", e.getMessage());
+                return;
+            }
+            if (recovered == null || recovered.isEmpty()) {
+                return;
+            }
+
+            releaseInRedis(recovered);
+            recoveredCounter.increment(recovered.size());
+            couriersFreedCounter.increment(recovered.stream().filter(delivery -> delivery.courierId() != null).count());
+            LOG.warn("Completed {} deliveries that were overdue since before {}", recovered.size(), cutoff);
+            if (recovered.size() < pageSize) {
+                return;
+            }
+        }
+    }
+
+    private List<OverdueDelivery> completeNextPage(LocalDateTime cutoff) {
+        List<Long> orderIds = orderRepository.lockOverdueDeliveries(cutoff, pageSize);
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OverdueDelivery> deliveries = orderRepository.findOverdueDeliveries(orderIds);
+        orderRepository.compareAndSetStatuses(orderIds, OrderStatus.DELIVERED.allowedPredecessors(),
+                OrderStatus.DELIVERED, Constants.SYSTEM, now);
+
+        List<Long> courierIds = deliveries.stream().map(OverdueDelivery::courierId).filter(Objects::nonNull).toList();
+        if (!courierIds.isEmpty()) {
+            courierRepository.markAvailable(courierIds);
+        }
+        orderEventPublisher.publishAll(deliveries.stream().map(delivery -> delivery.deliveredEvent(now)).toList());
+        return deliveries;
+    }
+
+    private void releaseInRedis(List<OverdueDelivery> deliveries) {
+        try {
+            restaurantAvailabilityService.releaseOrders(deliveries.stream().map(OverdueDelivery::release).toList());
+            completionScheduler.cancelAll(deliveries.stream()
+                    .collect(Collectors.toMap(OverdueDelivery::orderId, OverdueDelivery::restaurantId)));
+        } catch (Exception e) {
+            LOG.error("Orders {} were completed but their slots could not be released, their pools will be rebuilt: {}",
+                    deliveries.stream().map(OverdueDelivery::orderId).toList(), e.getMessage());
+            poolResync.resyncLater(deliveries.stream().map(OverdueDelivery::restaurantId).collect(Collectors.toSet()));
+        }
+    }
+}
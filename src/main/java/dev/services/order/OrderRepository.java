@@ -4,7 +4,11 @@ import dev.account.user.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
@@ -15,9 +19,161 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByUser(User user);
 
-    Page<Order> findAllByUserOrderByOrderTimeDesc(User user, Pageable pageable);
+    @Query(value = """
+            SELECT new dev.services.order.OrderSummary(o.id, u.id, u.fullname, r.id, r.name, c.id, o.totalAmount,
+                   o.status, o.orderTime, o.estimatedDeliveryTime, a.street, a.city, a.country, a.latitude, a.longitude, o.version)
+            FROM Order o
+            JOIN o.user u
+            LEFT JOIN o.restaurant r
+            JOIN o.deliveryAddress a
+            LEFT JOIN o.courier c
+            WHERE u.id = :userId
+            ORDER BY o.orderTime DESC
+            """,
+            countQuery = "SELECT count(o) FROM Order o WHERE o.user.id = :userId")
+    Page<OrderSummary> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * The user's newest orders, the first page of {@link #findSummariesByUserIdBefore}
+     */
+    @Query(value = """
+            SELECT new dev.services.order.OrderSummary(o.id, u.id, u.fullname, r.id, r.name, c.id, o.totalAmount,
+                   o.status, o.orderTime, o.estimatedDeliveryTime, a.street, a.city, a.country, a.latitude, a.longitude, o.version)
+            FROM Order o
+            JOIN o.user u
+            LEFT JOIN o.restaurant r
+            JOIN o.deliveryAddress a
+            LEFT JOIN o.courier c
+            WHERE u.id = :userId
+            ORDER BY o.orderTime DESC, o.id DESC
+            """)
+    List<OrderSummary> findLatestSummariesByUserId(@Param("userId") Long userId, Pageable window);
+
+    /**
+     * The user's orders placed before the given one, newest first. The bound on the order time alone lets the scan
+     * start at the cursor on the user and order time index; the id breaks ties between equal times.
+     */
+    @Query(value = """
+            SELECT new dev.services.order.OrderSummary(o.id, u.id, u.fullname, r.id, r.name, c.id, o.totalAmount,
+                   o.status, o.orderTime, o.estimatedDeliveryTime, a.street, a.city, a.country, a.latitude, a.longitude, o.version)
+            FROM Order o
+            JOIN o.user u
+            LEFT JOIN o.restaurant r
+            JOIN o.deliveryAddress a
+            LEFT JOIN o.courier c
+            WHERE u.id = :userId
+              AND o.orderTime <= :orderTime
+              AND (o.orderTime < :orderTime OR o.id < :id)
+            ORDER BY o.orderTime DESC, o.id DESC
+            """)
+    List<OrderSummary> findSummariesByUserIdBefore(@Param("userId") Long userId, @Param("orderTime") LocalDateTime orderTime,
+                                                   @Param("id") Long id, Pageable window);
 
     List<Order> findByStatus(OrderStatus status);
 
-    Collection<Order> findByRestaurantIdAndStatusOrderByCreatedDateDesc(Long restaurantId, OrderStatus orderStatus);
-}
\ No newline at end of file
+    boolean existsByIdAndUserEmailIgnoreCase(Long id, String email);
+
+    /**
+     * Moves an order to a new status only if it is currently in one of the given states, bumping its version.
+     * Returns the number of rows changed, so 0 means another writer got there first or the move is not allowed.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Order o
+            SET o.status = :next, o.version = o.version + 1, o.lastModifiedBy = :modifiedBy, o.lastModifiedDate = :modifiedAt
+            WHERE o.id = :id AND o.status IN :from
+            """)
+    int compareAndSetStatus(@Param("id") Long id, @Param("from") Collection<OrderStatus> from, @Param("next") OrderStatus next,
+                            @Param("modifiedBy") String modifiedBy, @Param("modifiedAt") LocalDateTime modifiedAt);
+
+    /**
+     * Same as {@link #compareAndSetStatus} but also requires the version the caller last saw
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Order o
+            SET o.status = :next, o.version = o.version + 1, o.lastModifiedBy = :modifiedBy, o.lastModifiedDate = :modifiedAt
+            WHERE o.id = :id AND o.version = :version AND o.status IN :from
+            """)
+    int compareAndSetStatus(@Param("id") Long id, @Param("version") Long version, @Param("from") Collection<OrderStatus> from,
+                            @Param("next") OrderStatus next, @Param("modifiedBy") String modifiedBy,
+                            @Param("modifiedAt") LocalDateTime modifiedAt);
+
+    /**
+     * Bulk form of {@link #compareAndSetStatus}; only rows still in one of the given states are changed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Order o
+            SET o.status = :next, o.version = o.version + 1, o.lastModifiedBy = :modifiedBy, o.lastModifiedDate = :modifiedAt
+            WHERE o.id IN :ids AND o.status IN :from
+            """)
+    int compareAndSetStatuses(@Param("ids") Collection<Long> ids, @Param("from") Collection<OrderStatus> from,
+                              @Param("next") OrderStatus next, @Param("modifiedBy") String modifiedBy,
+                              @Param("modifiedAt") LocalDateTime modifiedAt);
+
+    /**
+     * Locks the oldest page of deliveries that should have arrived before the cutoff, walking the status and ETA
+     * index. Rows held by another sweeper are skipped, and completed rows leave the predicate, so calling this again
+     * after each page moves through the backlog without offsets.
+     */
+    @Query(value = """
+            SELECT o.id FROM orders o
+            WHERE o.status = 'DELIVERING' AND o.estimated_delivery_time < :cutoff
+            ORDER BY o.estimated_delivery_time
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockOverdueDeliveries(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Query("""
+            SELECT new dev.services.order.OverdueDelivery(o.id, u.id, r.id, r.capacity, c.id)
+            FROM Order o
+            JOIN o.user u
+            JOIN o.restaurant r
+            LEFT JOIN o.courier c
+            WHERE o.id IN :ids
+            """)
+    List<OverdueDelivery> findOverdueDeliveries(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Locks the oldest orders waiting for batch dispatch. Orders held by another dispatcher are skipped, so each
+     * window on each node works on its own orders.
+     */
+    @Query(value = """
+            SELECT o.id FROM orders o
+            WHERE o.status = 'PENDING' AND o.restaurant_id IS NULL
+            ORDER BY o.order_time
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockPendingDispatch(@Param("limit") int limit);
+
+    @Query("SELECT o FROM Order o JOIN FETCH o.user JOIN FETCH o.deliveryAddress WHERE o.id IN :ids ORDER BY o.orderTime")
+    List<Order> findPendingDispatch(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Active restaurants after the given id, in id order, each with the number of its orders out for delivery
+     */
+    @Query("""
+            SELECT new dev.services.order.RestaurantLoad(r.id, r.capacity, count(o.id))
+            FROM Restaurant r
+            LEFT JOIN Order o ON o.restaurant = r AND o.status = dev.services.order.OrderStatus.DELIVERING
+            WHERE r.active = true AND r.id > :afterId
+            GROUP BY r.id, r.capacity
+            ORDER BY r.id
+            """)
+    List<RestaurantLoad> findRestaurantLoadsAfter(@Param("afterId") Long afterId, Pageable window);
+
+    /**
+     * {@link #findRestaurantLoadsAfter} for the given restaurants
+     */
+    @Query("""
+            SELECT new dev.services.order.RestaurantLoad(r.id, r.capacity, count(o.id))
+            FROM Restaurant r
+            LEFT JOIN Order o ON o.restaurant = r AND o.status = dev.services.order.OrderStatus.DELIVERING
+            WHERE r.active = true AND r.id IN :ids
+            GROUP BY r.id, r.capacity
+            """)
+    List<RestaurantLoad> findRestaurantLoads(@Param("ids") Collection<Long> ids);
+}
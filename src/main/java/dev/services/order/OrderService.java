@@ -1,28 +1,43 @@
 package dev.services.order;
 
 import dev.account.user.*;
+import dev.core.common.Money;
+import dev.core.config.Constants;
 import dev.core.exception.ErrorCode;
 import dev.core.exception.GenericApiException;
+import dev.core.utils.Cursor;
+import dev.core.utils.CursorPage;
+import dev.security.SecurityUtils;
 import dev.services.food.Food;
 import dev.services.food.FoodRepository;
 import dev.services.order.OrderDTO.Request;
 import dev.services.order.OrderDTO.Response;
+import dev.services.restaurant.Courier;
+import dev.services.restaurant.CourierRepository;
 import dev.services.restaurant.Restaurant;
 import dev.services.restaurant.RestaurantAvailabilityService;
 import dev.services.restaurant.RestaurantRepository;
+import dev.services.restaurant.RestaurantReservation;
+import dev.services.restaurant.RestaurantSpatialIndex;
 import dev.services.util.AuthenticatedUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * @author Nelson Tanko
@@ -33,21 +48,44 @@ public class OrderService {
     private static final Logger LOG = LoggerFactory.getLogger(OrderService.class);
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final FoodRepository foodRepository;
     private final RestaurantRepository restaurantRepository;
+    private final CourierRepository courierRepository;
     private final AddressRepository addressRepository;
     private final OrderMapper orderMapper;
     private final RestaurantAvailabilityService restaurantAvailabilityService;
+    private final RestaurantSpatialIndex spatialIndex;
+    private final OrderCompletionScheduler completionScheduler;
+    private final OrderCompletionService orderCompletionService;
+    private final OrderEventPublisher orderEventPublisher;
+    private final DeliveryTimeEstimator deliveryTimeEstimator;
     private final AuthenticatedUser auth;
 
-    public OrderService(OrderRepository orderRepository, FoodRepository foodRepository, RestaurantRepository restaurantRepository,
-                        AddressRepository addressRepository, OrderMapper orderMapper, RestaurantAvailabilityService restaurantAvailabilityService, AuthenticatedUser auth) {
+    @Value("${foody.dispatch.candidates:10}")
+    private int dispatchCandidates;
+
+    @Value("${foody.dispatch.mode:GREEDY}")
+    private DispatchMode dispatchMode;
+
+    public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository, FoodRepository foodRepository, RestaurantRepository restaurantRepository,
+                        CourierRepository courierRepository, AddressRepository addressRepository, OrderMapper orderMapper,
+                        RestaurantAvailabilityService restaurantAvailabilityService, RestaurantSpatialIndex spatialIndex,
+                        OrderCompletionScheduler completionScheduler, OrderCompletionService orderCompletionService,
+                        OrderEventPublisher orderEventPublisher, DeliveryTimeEstimator deliveryTimeEstimator, AuthenticatedUser auth) {
         this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
         this.foodRepository = foodRepository;
         this.restaurantRepository = restaurantRepository;
+        this.courierRepository = courierRepository;
         this.addressRepository = addressRepository;
         this.orderMapper = orderMapper;
         this.restaurantAvailabilityService = restaurantAvailabilityService;
+        this.spatialIndex = spatialIndex;
+        this.completionScheduler = completionScheduler;
+        this.orderCompletionService = orderCompletionService;
+        this.orderEventPublisher = orderEventPublisher;
+        this.deliveryTimeEstimator = deliveryTimeEstimator;
         this.auth = auth;
     }
 
@@ -56,40 +94,154 @@ public class OrderService {
         User user = auth.getAuthenticatedUser();
 
         Address deliveryAddress = resolveDeliveryAddress(user, request.getDeliveryAddress());
-        Restaurant restaurant = findAvailableRestaurant(deliveryAddress);
 
         List<OrderItem> orderItems = buildOrderItems(request.getOrderItems());
-        BigDecimal totalAmount = calculateTotalAmount(orderItems);
+        Money totalAmount = calculateTotalAmount(orderItems);
+
+        if (dispatchMode == DispatchMode.BATCH) {
+            return createPendingOrder(user, deliveryAddress, orderItems, totalAmount);
+        }
+
+        RestaurantReservation reservation = reserveNearestAvailableRestaurant(deliveryAddress);
+        Restaurant restaurant = restaurantRepository.findById(reservation.restaurantId())
+                .orElseThrow(() -> new GenericApiException(ErrorCode.RESTAURANT_NOT_FOUND));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime estimatedDeliveryTime = now.plus(deliveryTimeEstimator.estimate(restaurant, deliveryAddress));
+        Courier courier = assignCourier(restaurant, reservation, estimatedDeliveryTime);
 
-        Order order = createNewOrder(user, restaurant, deliveryAddress, orderItems, totalAmount);
+        Order order = createNewOrder(user, restaurant, courier, deliveryAddress, orderItems, totalAmount, now,
+                estimatedDeliveryTime, OrderStatus.DELIVERING);
+        orderEventPublisher.publish(order, OrderEventType.CREATED);
 
-        markRestaurantAndCourierAsBusy(restaurant, order);
+        confirmReservationOnCommit(reservation, order);
 
         LOG.info("Order created successfully with id: {}", order.getId());
         return orderMapper.toDto(order);
     }
 
+    /**
+     * Hands a pending order to the restaurant the batch dispatcher matched it with, once the slot and courier are
+     * reserved. Runs in the dispatcher's transaction: the reservation is confirmed on commit and given back on rollback.
+     * The order goes through PREPARING with the same conditional updates as {@link #updateOrderStatus}, as DELIVERING is
+     * only reachable from there; an order that has left PENDING in the meantime is skipped and its reservation given
+     * back when the window completes. Returns whether the order was dispatched.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean dispatch(Order order, Restaurant restaurant, RestaurantReservation reservation) {
+        releaseReservationOnRollback(reservation);
+        if (!advanceStatus(order.getId(), OrderStatus.PREPARING) || !advanceStatus(order.getId(), OrderStatus.DELIVERING)) {
+            releaseReservationOnCommit(reservation);
+            LOG.info("Order {} left PENDING before it could be dispatched", order.getId());
+            return false;
+        }
+
+        // The conditional updates cleared the persistence context, so the order is read back at its new version
+        Order dispatched = orderRepository.findById(order.getId())
+                .orElseThrow(() -> new GenericApiException(ErrorCode.ORDER_NOT_FOUND));
+        LocalDateTime estimatedDeliveryTime = LocalDateTime.now()
+                .plus(deliveryTimeEstimator.estimate(restaurant, dispatched.getDeliveryAddress()));
+        Courier courier = assignCourier(restaurant, reservation, estimatedDeliveryTime);
+
+        dispatched.setRestaurant(restaurant);
+        dispatched.setCourier(courier);
+        dispatched.setEstimatedDeliveryTime(estimatedDeliveryTime);
+        orderRepository.save(dispatched);
+        orderEventPublisher.publish(dispatched, OrderEventType.STATUS_CHANGED);
+
+        confirmReservationOnCommit(reservation, dispatched);
+        LOG.info("Order {} dispatched to restaurant {}", order.getId(), restaurant.getId());
+        return true;
+    }
+
+    /**
+     * Lists the user's orders, newest first, with a fixed number of statements per page: one for the orders,
+     * one for the count and one for the items of every order on the page.
+     */
     @Transactional(readOnly = true)
     public Page<Response> getUserOrders(Pageable pageable){
         User user = auth.getAuthenticatedUser();
-        Page<Order> orders = orderRepository.findAllByUserOrderByOrderTimeDesc(user, pageable);
+        Page<OrderSummary> orders = orderRepository.findSummariesByUserId(user.getId(), pageable);
+        if (orders.isEmpty()) {
+            return orders.map(order -> orderMapper.toDto(order, List.of()));
+        }
+
+        Map<Long, List<OrderItemSummary>> itemsByOrder = orderItemRepository
+                .findSummariesByOrderIdIn(orders.map(OrderSummary::id).toList()).stream()
+                .collect(Collectors.groupingBy(OrderItemSummary::orderId));
 
-        return orders.map(orderMapper::toDto);
+        return orders.map(order -> orderMapper.toDto(order, itemsByOrder.getOrDefault(order.id(), List.of())));
     }
 
-    public Response updateOrderStatus(Long orderId, OrderStatus newStatus) {
+    /**
+     * Lists the user's orders newest first, a page at a time from the cursor of the previous page, with one
+     * statement for the orders and one for their items however deep the page is
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Response> scrollUserOrders(String cursor, int size) {
+        User user = auth.getAuthenticatedUser();
+        Cursor after = Cursor.decode(cursor);
+        List<OrderSummary> orders = after == null
+                ? orderRepository.findLatestSummariesByUserId(user.getId(), CursorPage.window(size))
+                : orderRepository.findSummariesByUserIdBefore(user.getId(), after.requireSortKey(), after.id(), CursorPage.window(size));
+
+        Map<Long, List<OrderItemSummary>> itemsByOrder = orders.isEmpty() ? Map.of() : orderItemRepository
+                .findSummariesByOrderIdIn(orders.stream().map(OrderSummary::id).toList()).stream()
+                .collect(Collectors.groupingBy(OrderItemSummary::orderId));
+
+        return CursorPage.of(orders, size, order -> new Cursor(order.orderTime(), order.id()),
+                order -> orderMapper.toDto(order, itemsByOrder.getOrDefault(order.id(), List.of())));
+    }
+
+    /**
+     * Moves an order along its lifecycle with a single conditional update, so of two concurrent updates only one
+     * wins and the other gets a conflict instead of silently overwriting it. When an expected version is given the
+     * update also fails if the order changed since the caller read it.
+     */
+    @Transactional
+    public Response updateOrderStatus(Long orderId, OrderStatus newStatus, Long expectedVersion) {
+        Set<OrderStatus> allowedFrom = newStatus.allowedPredecessors();
+        if (allowedFrom.isEmpty()) {
+            throw new GenericApiException(ErrorCode.ORDER_INVALID_STATUS_TRANSITION);
+        }
+
+        String modifiedBy = SecurityUtils.getCurrentUser().orElse(Constants.SYSTEM);
+        int updated = expectedVersion == null
+                ? orderRepository.compareAndSetStatus(orderId, allowedFrom, newStatus, modifiedBy, LocalDateTime.now())
+                : orderRepository.compareAndSetStatus(orderId, expectedVersion, allowedFrom, newStatus, modifiedBy, LocalDateTime.now());
+
         Order order = orderRepository.findById(orderId).orElseThrow(() ->
                 new GenericApiException(ErrorCode.ORDER_NOT_FOUND));
+        if (updated == 0) {
+            throw rejectedTransition(order, expectedVersion);
+        }
 
-        if (order.getStatus().equals(OrderStatus.DELIVERED)){
-            throw new GenericApiException(ErrorCode.ORDER_ALREADY_DELIVERED);
+        if (newStatus.isFinal()) {
+            orderCompletionService.releaseDelivery(order);
         }
-        order.setStatus(newStatus);
-        orderRepository.save(order);
+        // Only confirmed hand-overs teach the estimator; automatic completion just replays its own estimate
+        if (newStatus == OrderStatus.DELIVERED) {
+            deliveryTimeEstimator.recordDelivery(order, LocalDateTime.now());
+        }
+        orderEventPublisher.publish(order, newStatus == OrderStatus.DELIVERED ? OrderEventType.DELIVERED : OrderEventType.STATUS_CHANGED);
 
         return orderMapper.toDto(order);
     }
 
+    private boolean advanceStatus(Long orderId, OrderStatus next) {
+        String modifiedBy = SecurityUtils.getCurrentUser().orElse(Constants.SYSTEM);
+        return orderRepository.compareAndSetStatus(orderId, next.allowedPredecessors(), next, modifiedBy, LocalDateTime.now()) > 0;
+    }
+
+    private static GenericApiException rejectedTransition(Order current, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            return new GenericApiException(ErrorCode.ORDER_CONCURRENTLY_MODIFIED);
+        }
+        if (current.getStatus() == OrderStatus.DELIVERED) {
+            return new GenericApiException(ErrorCode.ORDER_ALREADY_DELIVERED);
+        }
+        return new GenericApiException(ErrorCode.ORDER_INVALID_STATUS_TRANSITION);
+    }
+
     private Address resolveDeliveryAddress(User user, AddressDTO.Request address) {
         if (address != null){
             return findOrCreateAddress(user, address);
@@ -107,46 +259,72 @@ public class OrderService {
         ).orElseGet(() -> createAndSaveNewAddress(user, address));
     }
 
-    private Restaurant findAvailableRestaurant(Address deliveryAddress) {
-        return Optional.ofNullable(findNearestAvailableRestaurant(deliveryAddress))
-                .orElseThrow(() -> new GenericApiException(ErrorCode.RESTAURANT_NOT_FOUND));
-    }
-
+    /**
+     * Resolves every food in the cart with one batched lookup and prices the items from the foods it loaded, so an
+     * order is charged what the database says the food costs in the same transaction
+     */
     private List<OrderItem> buildOrderItems(List<OrderItemDTO.Request> orderItemDTOs) {
+        Set<Long> foodIds = orderItemDTOs.stream()
+                .map(OrderItemDTO.Request::getFoodId)
+                .collect(Collectors.toSet());
+        Map<Long, Food> foods = foodRepository.findAllById(foodIds).stream()
+                .collect(Collectors.toMap(Food::getId, Function.identity()));
+
         return orderItemDTOs.stream()
-                .map(this::createOrderItem)
+                .map(itemDto -> createOrderItem(itemDto, foods.get(itemDto.getFoodId())))
                 .toList();
     }
 
-    private OrderItem createOrderItem(OrderItemDTO.Request itemDto) {
-        Food food = foodRepository.findById(itemDto.getFoodId())
-                .orElseThrow(() -> new GenericApiException(ErrorCode.FOOD_NOT_FOUND));
+    private OrderItem createOrderItem(OrderItemDTO.Request itemDto, Food food) {
+        if (food == null) {
+            throw new GenericApiException(ErrorCode.FOOD_NOT_FOUND);
+        }
+        if (!food.isAvailable() || !food.isActive()) {
+            throw new GenericApiException(ErrorCode.FOOD_NOT_FOUND);
+        }
 
         return OrderItem.builder()
                 .food(food)
                 .quantity(itemDto.getQuantity())
-                .price(Optional.ofNullable(food.getPrice()).orElse(BigDecimal.ZERO))
+                .price(food.getPrice() == null ? Money.ZERO : food.getPrice())
                 .build();
     }
 
-    private BigDecimal calculateTotalAmount(List<OrderItem> orderItems) {
-        return orderItems.stream()
-                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Sums the cart in minor units, so pricing allocates nothing per line
+     */
+    private Money calculateTotalAmount(List<OrderItem> orderItems) {
+        long totalMinor = 0;
+        for (OrderItem item : orderItems) {
+            totalMinor = Math.addExact(totalMinor, Math.multiplyExact(item.getPrice().minor(), item.getQuantity()));
+        }
+        return Money.ofMinor(totalMinor);
     }
 
-    private Order createNewOrder(User user, Restaurant restaurant, Address deliveryAddress,
-                                 List<OrderItem> orderItems, BigDecimal totalAmount) {
-        LocalDateTime now = LocalDateTime.now();
+    /**
+     * In batch mode the order is stored without a restaurant and the client gets its id straight away; the match
+     * arrives later as a status change
+     */
+    private Response createPendingOrder(User user, Address deliveryAddress, List<OrderItem> orderItems, Money totalAmount) {
+        Order order = createNewOrder(user, null, null, deliveryAddress, orderItems, totalAmount, LocalDateTime.now(),
+                null, OrderStatus.PENDING);
+        orderEventPublisher.publish(order, OrderEventType.CREATED);
 
+        LOG.info("Order {} created and waiting for dispatch", order.getId());
+        return orderMapper.toDto(order);
+    }
+
+    private Order createNewOrder(User user, Restaurant restaurant, Courier courier, Address deliveryAddress, List<OrderItem> orderItems,
+                                 Money totalAmount, LocalDateTime now, LocalDateTime estimatedDeliveryTime, OrderStatus status) {
         Order order = Order.builder()
                 .user(user)
                 .restaurant(restaurant)
+                .courier(courier)
                 .deliveryAddress(deliveryAddress)
                 .totalAmount(totalAmount)
                 .orderTime(now)
-                .estimatedDeliveryTime(now.plusMinutes(15))
-                .status(OrderStatus.DELIVERING)
+                .estimatedDeliveryTime(estimatedDeliveryTime)
+                .status(status)
                 .orderItems(orderItems)
                 .build();
         orderItems.forEach(item -> item.setOrder(order));
@@ -155,27 +333,101 @@ public class OrderService {
         return orderRepository.save(order);
     }
 
-    private void markRestaurantAndCourierAsBusy(Restaurant restaurant, Order order) {
-        restaurantAvailabilityService.markRestaurantAsBusy(restaurant.getId(), order.getId(), order.getEstimatedDeliveryTime());
-        restaurant.markAsBusy();
-        restaurant.getCourier().markAsBusy();
-        restaurantRepository.save(restaurant);
+    /**
+     * Only the courier's row is touched; the restaurant's free capacity lives in Redis, so concurrent orders do not
+     * contend on its row.
+     */
+    private Courier assignCourier(Restaurant restaurant, RestaurantReservation reservation, LocalDateTime estimatedDeliveryTime) {
+        Courier courier = restaurant.getActiveCouriers().stream()
+                .filter(c -> c.getId().equals(reservation.courierId()))
+                .findFirst()
+                .orElseThrow(() -> new GenericApiException(ErrorCode.RESTAURANT_UNAVAILABLE_FOR_DELIVERY));
+        courier.markAsBusy(estimatedDeliveryTime);
+        return courierRepository.save(courier);
+    }
+
+    /**
+     * The order's hold on its slot is only recorded, and its completion only scheduled, once the order is committed
+     */
+    private void confirmReservationOnCommit(RestaurantReservation reservation, Order order) {
+        Runnable confirm = () -> {
+            restaurantAvailabilityService.confirmReservation(reservation, order.getId(), order.getEstimatedDeliveryTime());
+            completionScheduler.schedule(order.getId(), reservation.restaurantId(), order.getEstimatedDeliveryTime());
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            confirm.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                confirm.run();
+            }
+        });
+    }
+
+    /**
+     * A failed order hands its slot and courier straight back
+     */
+    private void releaseReservationOnRollback(RestaurantReservation reservation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    restaurantAvailabilityService.releaseReservation(reservation);
+                }
+            }
+        });
     }
 
-    private Restaurant findNearestAvailableRestaurant(Address deliveryLocation) {
+    /**
+     * A skipped order hands its slot and courier back once the window commits; a rollback is already covered by
+     * {@link #releaseReservationOnRollback}
+     */
+    private void releaseReservationOnCommit(RestaurantReservation reservation) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                restaurantAvailabilityService.releaseReservation(reservation);
+            }
+        });
+    }
+
+    /**
+     * Picks the nearest candidates from the spatial index, drops those whose rows say they cannot take an order, and lets
+     * Redis claim a slot and courier at the first one with remaining capacity. Saturated restaurants fall through to the next.
+     */
+    private RestaurantReservation reserveNearestAvailableRestaurant(Address deliveryLocation) {
         LOG.info("Finding nearest available restaurant");
 
-        List<Restaurant> availableRestaurants = restaurantRepository.findByAvailableAndActive(true, true);
+        // Restaurants the registry knows to be full are skipped during the search, so they never crowd out ones with room
+        List<Long> candidateIds = spatialIndex.findNearestAvailable(deliveryLocation.getLatitude(),
+                deliveryLocation.getLongitude(), dispatchCandidates, restaurantAvailabilityService::isRestaurantAvailable);
 
-        if (availableRestaurants.isEmpty()) {
+        if (candidateIds.isEmpty()) {
             LOG.error("No available restaurants found");
             throw new GenericApiException(ErrorCode.RESTAURANT_UNAVAILABLE_FOR_DELIVERY);
         }
 
-        return availableRestaurants.stream()
-                .filter(r -> r.getAddress() != null)
-                .min(Comparator.comparingDouble(r -> r.getAddress().distanceTo(deliveryLocation)))
-                .orElseThrow(() -> new GenericApiException(ErrorCode.RESTAURANT_NOT_FOUND));
+        // The index may lag behind other nodes, so the candidates are re-checked against their rows
+        Map<Long, Restaurant> candidates = restaurantRepository.findAllById(candidateIds).stream()
+                .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+
+        List<Restaurant> eligible = candidateIds.stream()
+                .map(candidates::get)
+                .filter(r -> r != null && r.isActive() && r.isAvailable() && r.getAddress() != null)
+                .toList();
+
+        RestaurantReservation reservation = restaurantAvailabilityService.reserveFirstAvailable(eligible)
+                .orElseThrow(() -> {
+                    LOG.error("No available restaurants found among {} nearest candidates", candidateIds.size());
+                    return new GenericApiException(ErrorCode.RESTAURANT_UNAVAILABLE_FOR_DELIVERY);
+                });
+        releaseReservationOnRollback(reservation);
+        return reservation;
     }
 
     private Address createAndSaveNewAddress(User user, AddressDTO.Request request) {
@@ -1,8 +1,34 @@
 package dev.services.order;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
+ * Order lifecycle: PENDING → PREPARING → DELIVERING → DELIVERED, with CANCELLED reachable from any non-final state.
+ *
  * @author Nelson Tanko
  */
 public enum OrderStatus {
-    PENDING, PREPARING, DELIVERING, DELIVERED, CANCELLED
+    PENDING, PREPARING, DELIVERING, DELIVERED, CANCELLED;
+
+    /**
+     * States an order may be in to move into this one
+     */
+    public Set<OrderStatus> allowedPredecessors() {
+        return switch (this) {
+            case PENDING -> EnumSet.noneOf(OrderStatus.class);
+            case PREPARING -> EnumSet.of(PENDING);
+            case DELIVERING -> EnumSet.of(PREPARING);
+            case DELIVERED -> EnumSet.of(DELIVERING);
+            case CANCELLED -> EnumSet.of(PENDING, PREPARING, DELIVERING);
+        };
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return next.allowedPredecessors().contains(this);
+    }
+
+    public boolean isFinal() {
+        return this == DELIVERED || this == CANCELLED;
+    }
 }
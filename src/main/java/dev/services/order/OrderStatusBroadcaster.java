@@ -0,0 +1,104 @@
+package dev.services.order;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tails the order event stream and pushes each change to the order's topic and to its owner's topic.
+ * <p>
+ * Every node reads the whole stream rather than sharing a consumer group, because each node's broker only knows its
+ * own WebSocket sessions. Tailing starts at the end of the stream on the first successful poll, so a restarted node
+ * does not replay history and a node that starts while Redis is down simply begins once it is back.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class OrderStatusBroadcaster {
+
+    private static final Logger LOG = LoggerFactory.getLogger(OrderStatusBroadcaster.class);
+    private static final String STREAM_START = "0-0";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${foody.order.push.batch-size:200}")
+    private int batchSize;
+
+    private volatile String lastId;
+
+    public OrderStatusBroadcaster(RedisTemplate<String, String> redisTemplate, SimpMessagingTemplate messagingTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * Moves the tail to the newest stream entry. Returns false, leaving the tail unset, when Redis cannot be read.
+     */
+    public boolean startFromLatest() {
+        try {
+            List<MapRecord<String, Object, Object>> latest = redisTemplate.opsForStream()
+                    .reverseRange(OrderEventRelay.STREAM_KEY, Range.unbounded(), Limit.limit().count(1));
+            lastId = latest == null || latest.isEmpty() ? STREAM_START : latest.get(0).getId().getValue();
+        } catch (DataAccessException e) {
+            LOG.warn("Could not find the end of {}, will retry on the next poll: {}", OrderEventRelay.STREAM_KEY, e.getMessage());
+            return false;
+        }
+        LOG.debug("Order status push starts after stream entry {}", lastId);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${foody.order.push.poll-interval:PT0.5S}")
+    public void pushNewEvents() {
+        if (lastId == null && !startFromLatest()) {
+            return;
+        }
+        List<MapRecord<String, Object, Object>> records;
+        try {
+            records = redisTemplate.opsForStream().read(
+                    StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(OrderEventRelay.STREAM_KEY, ReadOffset.from(lastId)));
+        } catch (DataAccessException e) {
+            LOG.warn("Could not read {} after entry {}: {}", OrderEventRelay.STREAM_KEY, lastId, e.getMessage());
+            return;
+        }
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+
+        for (MapRecord<String, Object, Object> record : records) {
+            try {
+                push(record.getValue());
+            } catch (Exception e) {
+                LOG.warn("Could not push order event {}: {}", record.getId(), e.getMessage());
+            }
+            lastId = record.getId().getValue();
+        }
+    }
+
+    private void push(Map<Object, Object> fields) {
+        Long orderId = Long.parseLong((String) fields.get("orderId"));
+        Long userId = Long.parseLong((String) fields.get("userId"));
+        OrderStatusMessage message = new OrderStatusMessage(orderId,
+                OrderStatus.valueOf((String) fields.get("status")),
+                OrderEventType.valueOf((String) fields.get("type")),
+                (String) fields.get("occurredAt"));
+
+        messagingTemplate.convertAndSend(OrderTopics.orderTopic(orderId), message);
+        messagingTemplate.convertAndSend(OrderTopics.userTopic(userId), message);
+    }
+}
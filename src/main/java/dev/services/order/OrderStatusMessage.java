@@ -0,0 +1,9 @@
+package dev.services.order;
+
+/**
+ * Payload pushed to the order topics whenever an order changes state
+ *
+ * @author Nelson Tanko
+ */
+public record OrderStatusMessage(Long orderId, OrderStatus status, OrderEventType type, String occurredAt) {
+}
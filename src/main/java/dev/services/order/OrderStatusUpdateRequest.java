@@ -2,13 +2,20 @@ package dev.services.order;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * @author Nelson Tanko
  */
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class OrderStatusUpdateRequest {
     private Long orderId;
     private OrderStatus orderStatus;
+
+    /**
+     * Version of the order the client last saw. When set, the update is refused if the order has changed since.
+     */
+    private Long version;
 }
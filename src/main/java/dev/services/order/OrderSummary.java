@@ -0,0 +1,29 @@
+package dev.services.order;
+
+import dev.core.common.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only view of an order for the history listing, filled by a single JPQL projection so no entity graph
+ * (user authorities, restaurant couriers, items) is loaded along the way.
+ *
+ * @author Nelson Tanko
+ */
+public record OrderSummary(Long id,
+                           Long userId,
+                           String username,
+                           Long restaurantId,
+                           String restaurantName,
+                           Long courierId,
+                           Money totalAmount,
+                           OrderStatus status,
+                           LocalDateTime orderTime,
+                           LocalDateTime estimatedDeliveryTime,
+                           String street,
+                           String city,
+                           String country,
+                           Double latitude,
+                           Double longitude,
+                           Long version) {
+}
@@ -0,0 +1,69 @@
+package dev.services.order;
+
+import dev.account.user.UserAccountRepository;
+import dev.security.AuthoritiesConstants;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * STOMP destinations for live order updates, and who may subscribe to them. An order topic is open to the order's
+ * owner, a user topic to that user, and both to admins.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class OrderTopics {
+
+    private static final Pattern ORDER_TOPIC = Pattern.compile("^/topic/orders/(\\d+)$");
+    private static final Pattern USER_TOPIC = Pattern.compile("^/topic/users/(\\d+)/orders$");
+
+    private final OrderRepository orderRepository;
+    private final UserAccountRepository userAccountRepository;
+
+    public OrderTopics(OrderRepository orderRepository, UserAccountRepository userAccountRepository) {
+        this.orderRepository = orderRepository;
+        this.userAccountRepository = userAccountRepository;
+    }
+
+    public static String orderTopic(Long orderId) {
+        return "/topic/orders/" + orderId;
+    }
+
+    public static String userTopic(Long userId) {
+        return "/topic/users/" + userId + "/orders";
+    }
+
+    /**
+     * Checks whether the user may subscribe to the destination. Destinations that are not order topics are refused.
+     */
+    public boolean canSubscribe(Authentication authentication, String destination) {
+        if (authentication == null || destination == null) {
+            return false;
+        }
+        Matcher order = ORDER_TOPIC.matcher(destination);
+        Matcher user = USER_TOPIC.matcher(destination);
+        if (!order.matches() && !user.matches()) {
+            return false;
+        }
+        if (isAdmin(authentication)) {
+            return true;
+        }
+        if (order.matches()) {
+            return orderRepository.existsByIdAndUserEmailIgnoreCase(Long.parseLong(order.group(1)), authentication.getName());
+        }
+        Long userId = Long.parseLong(user.group(1));
+        return userAccountRepository.findOneByEmailIgnoreCase(authentication.getName())
+                .map(account -> userId.equals(account.getId()))
+                .orElse(false);
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(AuthoritiesConstants.ADMIN::equals);
+    }
+}
@@ -0,0 +1,28 @@
+package dev.services.order;
+
+import dev.services.restaurant.OrderRelease;
+
+import java.time.LocalDateTime;
+
+/**
+ * What the reconciliation sweep needs to close out a delivery that outlived its ETA, without loading the order.
+ *
+ * @author Nelson Tanko
+ */
+public record OverdueDelivery(Long orderId, Long userId, Long restaurantId, int capacity, Long courierId) {
+
+    OrderRelease release() {
+        return new OrderRelease(orderId, restaurantId, capacity, courierId);
+    }
+
+    OrderEvent deliveredEvent(LocalDateTime occurredAt) {
+        return OrderEvent.builder()
+                .orderId(orderId)
+                .type(OrderEventType.DELIVERED)
+                .status(OrderStatus.DELIVERED)
+                .userId(userId)
+                .restaurantId(restaurantId)
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
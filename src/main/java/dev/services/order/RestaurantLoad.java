@@ -0,0 +1,13 @@
+package dev.services.order;
+
+/**
+ * How many deliveries an active restaurant has in flight against its kitchen capacity, read without loading it.
+ *
+ * @author Nelson Tanko
+ */
+public record RestaurantLoad(Long restaurantId, int capacity, long delivering) {
+
+    int freeSlots() {
+        return (int) Math.max(0, capacity - delivering);
+    }
+}
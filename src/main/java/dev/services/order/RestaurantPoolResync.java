@@ -0,0 +1,102 @@
+package dev.services.order;
+
+import dev.services.restaurant.CourierRepository;
+import dev.services.restaurant.FreeCourier;
+import dev.services.restaurant.RestaurantAvailabilityService;
+import dev.services.restaurant.RestaurantPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the Redis slot and courier pools from the database, which is where orders and couriers are recorded
+ * durably. A pool's free slots are its capacity less its orders out for delivery, and its free couriers are the active
+ * ones not on a delivery.
+ * <p>
+ * Every active restaurant is rebuilt on a fixed interval, which heals pools that drifted and pools that were seeded at
+ * full capacity after Redis lost its data. Restaurants whose release could not reach Redis are queued and rebuilt
+ * sooner, once Redis answers again.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class RestaurantPoolResync {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RestaurantPoolResync.class);
+
+    private final OrderRepository orderRepository;
+    private final CourierRepository courierRepository;
+    private final RestaurantAvailabilityService restaurantAvailabilityService;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${foody.restaurant.availability.resync.page-size:500}")
+    private int pageSize;
+
+    public RestaurantPoolResync(OrderRepository orderRepository, CourierRepository courierRepository,
+                                RestaurantAvailabilityService restaurantAvailabilityService) {
+        this.orderRepository = orderRepository;
+        this.courierRepository = courierRepository;
+        this.restaurantAvailabilityService = restaurantAvailabilityService;
+    }
+
+    /**
+     * Queues restaurants whose pool missed a release, to be rebuilt on the next retry
+     */
+    public void resyncLater(Collection<Long> restaurantIds) {
+        pending.addAll(restaurantIds);
+    }
+
+    @Scheduled(fixedDelayString = "${foody.restaurant.availability.resync.interval:PT5M}",
+            initialDelayString = "${foody.restaurant.availability.resync.interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void resyncAll() {
+        int resynced = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<RestaurantLoad> loads = orderRepository.findRestaurantLoadsAfter(afterId, PageRequest.ofSize(pageSize));
+            if (loads.isEmpty()) {
+                break;
+            }
+            resync(loads);
+            resynced += loads.size();
+            afterId = loads.get(loads.size() - 1).restaurantId();
+        }
+        LOG.info("Rebuilt the slot and courier pools of {} restaurants", resynced);
+    }
+
+    @Scheduled(fixedDelayString = "${foody.restaurant.availability.resync.retry-interval:PT10S}")
+    @Transactional(readOnly = true)
+    public void resyncPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> restaurantIds = List.copyOf(pending);
+        pending.removeAll(restaurantIds);
+        try {
+            resync(orderRepository.findRestaurantLoads(restaurantIds));
+            LOG.info("Rebuilt the pools of restaurants {} after a failed release", restaurantIds);
+        } catch (Exception e) {
+            pending.addAll(restaurantIds);
+            LOG.warn("Could not rebuild the pools of restaurants {}, will retry: {}", restaurantIds, e.getMessage());
+        }
+    }
+
+    private void resync(List<RestaurantLoad> loads) {
+        Map<Long, List<Long>> freeCouriers = courierRepository
+                .findFreeCouriers(loads.stream().map(RestaurantLoad::restaurantId).toList()).stream()
+                .collect(Collectors.groupingBy(FreeCourier::restaurantId,
+                        Collectors.mapping(FreeCourier::courierId, Collectors.toList())));
+        restaurantAvailabilityService.resyncPools(loads.stream()
+                .map(load -> new RestaurantPool(load.restaurantId(), load.freeSlots(),
+                        freeCouriers.getOrDefault(load.restaurantId(), List.of())))
+                .toList());
+    }
+}
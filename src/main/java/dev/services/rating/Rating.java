@@ -19,7 +19,7 @@ public class Rating extends AbstractAuditingEntity<Long>{
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rating_sequence")
-    @SequenceGenerator(name = "rating_sequence", sequenceName = "rating_sequence", allocationSize = 1, initialValue = 50)
+    @SequenceGenerator(name = "rating_sequence", sequenceName = "rating_sequence", allocationSize = 50, initialValue = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
@@ -0,0 +1,33 @@
+package dev.services.rating;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off job that recomputes the food rating aggregates from the ratings table at startup. It is off by default;
+ * switch it on for a single deployment after importing ratings or repairing them outside the application.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class RatingAggregateRebuild {
+
+    private final RatingService ratingService;
+    private final boolean enabled;
+
+    public RatingAggregateRebuild(RatingService ratingService,
+                                  @Value("${foody.rating.rebuild-aggregates-on-startup:false}") boolean enabled) {
+        this.ratingService = ratingService;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() {
+        if (enabled) {
+            // Votes still buffered are discarded by the rebuild itself, as it reads them back from the ratings table
+            ratingService.rebuildRatingAggregates();
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package dev.services.rating;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -10,4 +15,19 @@ import java.util.Optional;
 public interface RatingRepository extends JpaRepository<Rating, Long> {
     Optional<   Rating> findByFoodIdAndUserId(Long foodId, Long userId);
 
+    /**
+     * Locks the user's vote on the food, so two changes to the same vote cannot both apply a delta against the
+     * same previous value
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Rating r WHERE r.food.id = :foodId AND r.user.id = :userId")
+    Optional<Rating> findForUpdate(@Param("foodId") Long foodId, @Param("userId") Long userId);
+
+    /**
+     * Holds off votes until the surrounding transaction ends. Every vote starts with {@link #findForUpdate}, so a vote
+     * either commits before the lock is granted or waits for it to be released.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE ratings IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockAgainstVotes();
 }
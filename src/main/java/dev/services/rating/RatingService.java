@@ -5,31 +5,46 @@ import dev.core.exception.ErrorCode;
 import dev.core.exception.GenericApiException;
 import dev.services.common.CacheService;
 import dev.services.food.Food;
+import dev.services.food.FoodRatingCounters;
 import dev.services.food.FoodRepository;
 import dev.services.rating.RatingDTO.Request;
 import dev.services.rating.RatingDTO.Response;
 import dev.services.util.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * @author Nelson Tanko
  */
 @Service
 public class RatingService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(RatingService.class);
+
     private final RatingRepository ratingRepository;
     private final FoodRepository foodRepository;
     private final RatingMapper ratingMapper;
     private final CacheService cacheService;
     private final AuthenticatedUser auth;
+    private final FoodRatingCounters foodRatingCounters;
+    private final int histogramSlots;
 
-    public RatingService(RatingRepository ratingRepository, FoodRepository foodRepository, RatingMapper ratingMapper, CacheService cacheService, AuthenticatedUser auth) {
+    public RatingService(RatingRepository ratingRepository, FoodRepository foodRepository, RatingMapper ratingMapper, CacheService cacheService, AuthenticatedUser auth,
+                         FoodRatingCounters foodRatingCounters,
+                         @Value("${foody.rating.histogram-slots:8}") int histogramSlots) {
         this.ratingRepository = ratingRepository;
         this.foodRepository = foodRepository;
         this.ratingMapper = ratingMapper;
         this.cacheService = cacheService;
         this.auth = auth;
+        this.foodRatingCounters = foodRatingCounters;
+        this.histogramSlots = histogramSlots;
     }
 
     @Transactional
@@ -37,14 +52,50 @@ public class RatingService {
         User user = auth.getAuthenticatedUser();
         Food food = getFoodById(request.getFoodId());
 
-        Rating rating = ratingRepository.findByFoodIdAndUserId(request.getFoodId(), user.getId())
-                .map(existingRating -> updateRating(existingRating, request.getRating()))
-                .orElseGet(() -> creatNewRating(request, user, food));
+        Optional<Rating> existing = ratingRepository.findForUpdate(request.getFoodId(), user.getId());
+        Rating rating;
+        if (existing.isPresent()) {
+            int previous = existing.get().getRating();
+            rating = updateRating(existing.get(), request.getRating());
+            if (rating.getRating() != previous) {
+                moveHistogram(food.getId(), new Integer[]{previous, rating.getRating()}, new Integer[]{-1, 1});
+            }
+            foodRatingCounters.record(food.getId(), rating.getRating() - previous, 0);
+        } else {
+            rating = creatNewRating(request, user, food);
+            moveHistogram(food.getId(), new Integer[]{rating.getRating()}, new Integer[]{1});
+            foodRatingCounters.record(food.getId(), rating.getRating(), 1);
+        }
+        return ratingMapper.toDto(rating);
+    }
 
-        food.calculateAverageRating();
-        foodRepository.save(food);
+    /**
+     * Recomputes every food's rating aggregate and star histogram from the ratings table, for data written before
+     * they were maintained or repaired by hand. Votes are held off meanwhile and the rating buffers move to a new
+     * generation first, so a vote is counted either here or by a later fold, never both. The backlog is dropped, as the
+     * votes in it are read back from the ratings table along with everything committed before them.
+     */
+    @Transactional
+    public int rebuildRatingAggregates() {
+        ratingRepository.lockAgainstVotes();
+        long generation = foodRatingCounters.nextGeneration();
+        foodRepository.clearRatingBacklog();
+        int foods = foodRepository.rebuildRatingAggregates(generation + ":rebuild");
+        foodRatingCounters.discardGenerationsBefore(generation);
+        foodRepository.clearRatingHistograms();
+        foodRepository.rebuildRatingHistograms();
         cacheService.evictAllCacheEntries("food");
-        return ratingMapper.toDto(rating);
+        LOG.info("Rebuilt rating aggregates of {} foods", foods);
+        return foods;
+    }
+
+    /**
+     * Moves the food's star counters in the vote's transaction. Each vote lands in one of a few slots picked at
+     * random, so concurrent votes for the same star rarely wait on the same row; a slot may drop below zero when a
+     * changed vote is taken out of a different slot than it went into, only the sum over the slots is meaningful.
+     */
+    private void moveHistogram(Long foodId, Integer[] stars, Integer[] deltas) {
+        foodRepository.moveRatingHistogram(foodId, ThreadLocalRandom.current().nextInt(histogramSlots), stars, deltas);
     }
 
     private Food getFoodById(Long foodId) {
@@ -63,4 +114,4 @@ public class RatingService {
         rating.setRating(newRating);
         return ratingRepository.save(rating);
     }
-}
\ No newline at end of file
+}
@@ -19,14 +19,14 @@ public class Courier extends AbstractAuditingEntity<Long> {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courier_sequence")
-    @SequenceGenerator(name = "courier_sequence", sequenceName = "courier_sequence", allocationSize = 1, initialValue = 50)
+    @SequenceGenerator(name = "courier_sequence", sequenceName = "courier_sequence", allocationSize = 50, initialValue = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
     @Column(nullable = false)
     private String name;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @ManyToOne
     @JoinColumn(name = "restaurant_id", referencedColumnName = "id", nullable = false)
     private Restaurant restaurant;
 
@@ -45,15 +45,13 @@ public class Courier extends AbstractAuditingEntity<Long> {
         this.active = true;
     }
 
-    public void markAsBusy() {
+    public void markAsBusy(LocalDateTime availableFrom) {
         this.available = false;
-        this.availableFrom = LocalDateTime.now().plusMinutes(15);
+        this.availableFrom = availableFrom;
     }
 
     public void markAsAvailable() {
-        if (!available && availableFrom != null && LocalDateTime.now().isAfter(availableFrom)) {
-            this.available = true;
-            this.availableFrom = null;
-        }
+        this.available = true;
+        this.availableFrom = null;
     }
 }
@@ -1,9 +1,25 @@
 package dev.services.restaurant;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * @author Nelson Tanko
  */
 public interface CourierRepository extends JpaRepository<Courier, Long> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Courier c SET c.available = true, c.availableFrom = null WHERE c.id IN :ids")
+    int markAvailable(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new dev.services.restaurant.FreeCourier(c.restaurant.id, c.id) FROM Courier c
+            WHERE c.restaurant.id IN :restaurantIds AND c.active = true AND c.available = true
+            """)
+    List<FreeCourier> findFreeCouriers(@Param("restaurantIds") Collection<Long> restaurantIds);
 }
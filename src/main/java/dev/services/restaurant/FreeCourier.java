@@ -0,0 +1,9 @@
+package dev.services.restaurant;
+
+/**
+ * An active courier that is not out on a delivery, and the restaurant it rides for
+ *
+ * @author Nelson Tanko
+ */
+public record FreeCourier(Long restaurantId, Long courierId) {
+}
@@ -0,0 +1,83 @@
+package dev.services.restaurant;
+
+import dev.account.user.Address;
+import dev.core.common.Geohash;
+import dev.services.restaurant.RestaurantDTO.Response;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads the active restaurants around a geohash cell, cached per cell and radius so every caller inside the same
+ * cell shares one database round trip.
+ * <p>
+ * The cached list covers the radius measured from anywhere in the cell, i.e. the radius plus the distance from the
+ * cell center to its corner; {@link RestaurantService#getNearbyRestaurants} cuts it down to the caller's exact point.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class NearbyRestaurantFinder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NearbyRestaurantFinder.class);
+
+    private final RestaurantRepository restaurantRepository;
+    private final RestaurantMapper restaurantMapper;
+
+    public NearbyRestaurantFinder(RestaurantRepository restaurantRepository, RestaurantMapper restaurantMapper) {
+        this.restaurantRepository = restaurantRepository;
+        this.restaurantMapper = restaurantMapper;
+    }
+
+    /**
+     * The geohash prefixes narrow the scan to the cells around the center and the bounding box trims their
+     * corners, both on indexed columns; exact Haversine then runs only on the rows that survive.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = RestaurantService.CACHE_NAME)
+    public List<Response> findAroundCell(String cell, int radiusKm) {
+        Geohash.Bounds bounds = Geohash.decode(cell);
+        double latitude = bounds.centerLatitude();
+        double longitude = bounds.centerLongitude();
+        double reachKm = radiusKm + Address.distanceBetween(latitude, longitude, bounds.maxLatitude(), bounds.maxLongitude());
+
+        Set<String> prefixes = Geohash.neighbourhood(latitude, longitude, Geohash.precisionFor(reachKm, latitude));
+        List<Restaurant> candidates = restaurantRepository.findAll(
+                withinArea(Geohash.Bounds.around(latitude, longitude, reachKm), prefixes));
+
+        LOG.debug("Loaded {} candidate restaurants around cell {} within {} km", candidates.size(), cell, radiusKm);
+        return candidates.stream()
+                .filter(restaurant -> Address.distanceBetween(latitude, longitude,
+                        restaurant.getAddress().getLatitude(), restaurant.getAddress().getLongitude()) <= reachKm)
+                .map(restaurantMapper::toResponseDto)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static Specification<Restaurant> withinArea(Geohash.Bounds box, Set<String> prefixes) {
+        return (root, query, criteriaBuilder) -> {
+            // Hibernate's fetches are joins too, so the fetched address can carry the filters as well
+            Fetch<Restaurant, Address> fetch = root.fetch("address", JoinType.INNER);
+            Join<Restaurant, Address> address = (Join<Restaurant, Address>) fetch;
+            Predicate[] cells = prefixes.stream()
+                    .map(prefix -> criteriaBuilder.like(address.get("geohash"), prefix + "%"))
+                    .toArray(Predicate[]::new);
+            return criteriaBuilder.and(
+                    criteriaBuilder.isTrue(root.get("active")),
+                    criteriaBuilder.or(cells),
+                    criteriaBuilder.between(address.get("latitude"), box.minLatitude(), box.maxLatitude()),
+                    criteriaBuilder.between(address.get("longitude"), box.minLongitude(), box.maxLongitude()));
+        };
+    }
+}
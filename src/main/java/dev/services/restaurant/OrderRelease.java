@@ -0,0 +1,9 @@
+package dev.services.restaurant;
+
+/**
+ * The slot and courier a finished order gives back to its restaurant's pool
+ *
+ * @author Nelson Tanko
+ */
+public record OrderRelease(Long orderId, Long restaurantId, int capacity, Long courierId) {
+}
@@ -0,0 +1,122 @@
+package dev.services.restaurant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rolling per-restaurant preparation times, kept as a one-minute histogram in a Redis hash so every node feeds and
+ * reads the same numbers. Once a histogram holds more than the window of samples every bucket is halved, which keeps
+ * quantiles tracking the restaurant's recent behaviour rather than its whole history.
+ * <p>
+ * Reads go through a short-lived local copy, so estimating a delivery does not cost a Redis round trip per order.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class PrepTimeStatistics {
+
+    static final String KEY_PREFIX = "restaurant:prep:";
+    static final int MAX_MINUTES = 180;
+    private static final String COUNT_FIELD = "n";
+
+    /**
+     * Adds a sample and decays the histogram once it outgrows the window. KEYS: histogram. ARGV: bucket, window.
+     */
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('HINCRBY', KEYS[1], ARGV[1], 1)
+            local n = redis.call('HINCRBY', KEYS[1], 'n', 1)
+            if n > tonumber(ARGV[2]) then
+                local fields = redis.call('HGETALL', KEYS[1])
+                local total = 0
+                for i = 1, #fields, 2 do
+                    if fields[i] ~= 'n' then
+                        local count = math.floor(tonumber(fields[i + 1]) / 2)
+                        if count == 0 then
+                            redis.call('HDEL', KEYS[1], fields[i])
+                        else
+                            redis.call('HSET', KEYS[1], fields[i], count)
+                            total = total + count
+                        end
+                    end
+                end
+                redis.call('HSET', KEYS[1], 'n', total)
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<Long, CachedHistogram> localCopies = new ConcurrentHashMap<>();
+
+    @Value("${foody.delivery.prep-stats.window:200}")
+    private int window;
+
+    @Value("${foody.delivery.prep-stats.min-samples:10}")
+    private int minSamples;
+
+    @Value("${foody.delivery.prep-stats.cache-ttl:PT1M}")
+    private Duration cacheTtl;
+
+    public PrepTimeStatistics(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void record(Long restaurantId, Duration prepTime) {
+        long minutes = Math.min(Math.max(prepTime.toMinutes(), 0), MAX_MINUTES);
+        redisTemplate.execute(RECORD_SCRIPT, List.of(KEY_PREFIX + restaurantId), String.valueOf(minutes), String.valueOf(window));
+        localCopies.remove(restaurantId);
+    }
+
+    /**
+     * The prep time that the given share of recent orders finished within, rounded up to the minute. Empty while the
+     * restaurant has too few samples to say.
+     */
+    public Optional<Duration> quantile(Long restaurantId, double quantile) {
+        long[] counts = histogram(restaurantId);
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total < minSamples) {
+            return Optional.empty();
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int minute = 0; minute < counts.length; minute++) {
+            seen += counts[minute];
+            if (seen >= rank) {
+                return Optional.of(Duration.ofMinutes(minute + 1L));
+            }
+        }
+        return Optional.of(Duration.ofMinutes(MAX_MINUTES));
+    }
+
+    private long[] histogram(Long restaurantId) {
+        long now = System.nanoTime();
+        CachedHistogram cached = localCopies.get(restaurantId);
+        if (cached != null && now < cached.expiresAt()) {
+            return cached.counts();
+        }
+
+        long[] counts = new long[MAX_MINUTES + 1];
+        redisTemplate.opsForHash().entries(KEY_PREFIX + restaurantId).forEach((field, value) -> {
+            if (!COUNT_FIELD.equals(field)) {
+                counts[Integer.parseInt((String) field)] = Long.parseLong((String) value);
+            }
+        });
+        localCopies.put(restaurantId, new CachedHistogram(counts, now + cacheTtl.toNanos()));
+        return counts;
+    }
+
+    private record CachedHistogram(long[] counts, long expiresAt) {
+    }
+}
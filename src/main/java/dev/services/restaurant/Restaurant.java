@@ -9,7 +9,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -21,11 +23,12 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "restaurants")
+@EntityListeners(RestaurantIndexListener.class)
 public class Restaurant extends AbstractAuditingEntity<Long> {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "restaurant_sequence")
-    @SequenceGenerator(name = "restaurant_sequence", sequenceName = "restaurant_sequence", allocationSize = 1, initialValue = 50)
+    @SequenceGenerator(name = "restaurant_sequence", sequenceName = "restaurant_sequence", allocationSize = 50, initialValue = 50)
     @Column(nullable = false, updatable = false)
     private Long id;
 
@@ -46,8 +49,15 @@ public class Restaurant extends AbstractAuditingEntity<Long> {
     @Column(name = "available_from")
     private LocalDateTime availableFrom;
 
-    @OneToOne(mappedBy = "restaurant", cascade = CascadeType.ALL)
-    private Courier courier;
+    /**
+     * Number of orders the kitchen can prepare at the same time
+     */
+    @Column(nullable = false, columnDefinition = "integer default 1")
+    private int capacity;
+
+    @Builder.Default
+    @OneToMany(mappedBy = "restaurant", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    private List<Courier> couriers = new ArrayList<>();
 
     @OneToOne(mappedBy = "restaurant", cascade = CascadeType.ALL)
     private Address address;
@@ -60,17 +70,18 @@ public class Restaurant extends AbstractAuditingEntity<Long> {
     protected void onCreate() {
         this.available = true;
         this.active = true;
+        this.capacity = Math.max(capacity, 1);
     }
 
-    public void markAsBusy() {
-        this.available = false;
-        this.availableFrom = LocalDateTime.now().plusMinutes(15);
+    public void addCourier(Courier courier) {
+        if (couriers == null) {
+            couriers = new ArrayList<>();
+        }
+        courier.setRestaurant(this);
+        couriers.add(courier);
     }
 
-    public void markAsAvailable() {
-        if (!available && availableFrom != null && LocalDateTime.now().isAfter(availableFrom)) {
-            this.available = true;
-            this.availableFrom = null;
-        }
+    public List<Courier> getActiveCouriers() {
+        return couriers == null ? List.of() : couriers.stream().filter(Courier::isActive).toList();
     }
 }
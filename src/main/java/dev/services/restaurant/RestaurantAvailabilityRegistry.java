@@ -0,0 +1,298 @@
+package dev.services.restaurant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Single source of truth for whether a restaurant can take an order right now, readable without leaving the JVM.
+ * <p>
+ * Redis keeps two bitmaps indexed by restaurant id: {@code restaurant:enabled} (active and switched on by an admin)
+ * and {@code restaurant:available} (enabled, and either not tracked yet or holding a free slot and a free courier).
+ * The scripts in {@link RestaurantAvailabilityService} recompute a restaurant's bit in the same call that changes its
+ * pool, and every flip bumps {@code restaurant:available:version} and is published on {@code restaurant:availability}.
+ * <p>
+ * Each node mirrors the bitmap into a local {@link BitSet}: loaded in full at startup and on a fixed interval, and
+ * kept current in between by the published flips. Flips carry the version they were made at, so a late message can
+ * never undo a newer state this node already applied.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class RestaurantAvailabilityRegistry implements MessageListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RestaurantAvailabilityRegistry.class);
+
+    static final String AVAILABLE_KEY = "restaurant:available";
+    static final String ENABLED_KEY = "restaurant:enabled";
+    static final String VERSION_KEY = "restaurant:available:version";
+    static final String CHANNEL = "restaurant:availability";
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    /**
+     * Lua helper shared by every script that touches a pool. Recomputes the restaurant's bit from its enabled bit,
+     * slot counter and courier set, publishes the flip if it changed, and returns the bit and the version it holds at.
+     * Scripts that include it must pass the available, enabled and version keys as KEYS[1..3].
+     */
+    static final String REFRESH_FUNCTION = """
+            local function refresh(id, slots, couriers)
+                local bit = 0
+                if redis.call('GETBIT', KEYS[2], id) == 1 then
+                    local free = redis.call('GET', slots)
+                    if not free or (tonumber(free) > 0 and redis.call('SCARD', couriers) > 0) then
+                        bit = 1
+                    end
+                end
+                if redis.call('SETBIT', KEYS[1], id, bit) ~= bit then
+                    local version = redis.call('INCR', KEYS[3])
+                    redis.call('PUBLISH', '%s', id .. ':' .. bit .. ':' .. version)
+                    return {tostring(bit), tostring(version)}
+                end
+                return {tostring(bit), redis.call('GET', KEYS[3]) or '0'}
+            end
+            """.formatted(CHANNEL);
+
+    /**
+     * Sets the enabled bit of each restaurant and recomputes its availability. KEYS: available, enabled, version,
+     * then a slots/couriers key pair per restaurant. ARGV: id and 0/1 per restaurant. Returns bit and version pairs.
+     */
+    private static final RedisScript<List> SYNC_SCRIPT = new DefaultRedisScript<>(REFRESH_FUNCTION + """
+            local states = {}
+            for i = 4, #KEYS, 2 do
+                local n = (i - 2) / 2
+                local id = ARGV[n * 2 - 1]
+                redis.call('SETBIT', KEYS[2], id, ARGV[n * 2])
+                local state = refresh(id, KEYS[i], KEYS[i + 1])
+                states[#states + 1] = state[1]
+                states[#states + 1] = state[2]
+            end
+            return states
+            """, List.class);
+
+    /**
+     * Reads the bitmap together with the version it is at. KEYS: available, version.
+     */
+    private static final byte[] SNAPSHOT_SCRIPT = """
+            return {redis.call('GET', KEYS[1]) or '', redis.call('GET', KEYS[2]) or '0'}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RestaurantRepository restaurantRepository;
+
+    // Guarded by lock; versions only holds flips newer than the last snapshot
+    private final Object lock = new Object();
+    private BitSet available = new BitSet();
+    private long snapshotVersion;
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    public RestaurantAvailabilityRegistry(RedisTemplate<String, String> redisTemplate,
+                                          RestaurantRepository restaurantRepository,
+                                          RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.restaurantRepository = restaurantRepository;
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public boolean isAvailable(Long restaurantId) {
+        synchronized (lock) {
+            return available.get(Math.toIntExact(restaurantId));
+        }
+    }
+
+    public Map<Long, Boolean> areAvailable(Collection<Long> restaurantIds) {
+        Map<Long, Boolean> availability = new HashMap<>();
+        synchronized (lock) {
+            restaurantIds.forEach(id -> availability.put(id, available.get(Math.toIntExact(id))));
+        }
+        return availability;
+    }
+
+    /**
+     * Ids of every restaurant that can take an order right now, in ascending order
+     */
+    public List<Long> availableRestaurantIds() {
+        synchronized (lock) {
+            return available.stream().mapToObj(id -> (long) id).toList();
+        }
+    }
+
+    /**
+     * Re-derives the enabled bitmap from the restaurant rows, clearing restaurants that were deactivated or removed,
+     * then reloads the local replica. Runs at startup and periodically to heal anything a lost write left behind.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${foody.restaurant.availability.registry.sync-interval:PT5M}",
+            initialDelayString = "${foody.restaurant.availability.registry.sync-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void synchronize() {
+        Map<Long, Boolean> enabled = new LinkedHashMap<>();
+        decode(redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(bytes(ENABLED_KEY))))
+                .stream().forEach(id -> enabled.put((long) id, false));
+        restaurantRepository.findActiveLocations()
+                .forEach(location -> enabled.put(location.id(), location.available()));
+
+        List<Map.Entry<Long, Boolean>> entries = new ArrayList<>(enabled.entrySet());
+        for (int from = 0; from < entries.size(); from += SYNC_BATCH_SIZE) {
+            sync(entries.subList(from, Math.min(from + SYNC_BATCH_SIZE, entries.size())));
+        }
+        reload();
+        LOG.info("Restaurant availability registry synchronised for {} restaurants", enabled.size());
+    }
+
+    /**
+     * Replaces the local replica with the bitmap held in Redis. Flips this node applied after the snapshot was taken
+     * are kept, so a reload never rolls the replica back.
+     */
+    @Scheduled(fixedDelayString = "${foody.restaurant.availability.registry.reload-interval:PT30S}",
+            initialDelayString = "${foody.restaurant.availability.registry.reload-interval:PT30S}")
+    public void reload() {
+        List<byte[]> snapshot = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection
+                .scriptingCommands().eval(SNAPSHOT_SCRIPT, ReturnType.MULTI, 2, bytes(AVAILABLE_KEY), bytes(VERSION_KEY)));
+        if (snapshot == null || snapshot.size() < 2) {
+            return;
+        }
+        BitSet loaded = decode(snapshot.get(0));
+        long loadedVersion = Long.parseLong(new String(snapshot.get(1), StandardCharsets.UTF_8));
+        synchronized (lock) {
+            if (loadedVersion < snapshotVersion) {
+                return;
+            }
+            Iterator<Map.Entry<Long, Long>> newer = versions.entrySet().iterator();
+            while (newer.hasNext()) {
+                Map.Entry<Long, Long> flip = newer.next();
+                if (flip.getValue() > loadedVersion) {
+                    int index = Math.toIntExact(flip.getKey());
+                    loaded.set(index, available.get(index));
+                } else {
+                    newer.remove();
+                }
+            }
+            available = loaded;
+            snapshotVersion = loadedVersion;
+        }
+    }
+
+    /**
+     * Publishes a restaurant row's enabled state once the transaction that wrote it commits
+     */
+    void track(Restaurant restaurant) {
+        if (restaurant.getId() == null) {
+            return;
+        }
+        afterCommit(List.of(Map.entry(restaurant.getId(), restaurant.isActive() && restaurant.isAvailable())));
+    }
+
+    void untrack(Long restaurantId) {
+        afterCommit(List.of(Map.entry(restaurantId, false)));
+    }
+
+    /**
+     * Applies a state returned by one of the pool scripts, unless a newer one for the same restaurant is already applied
+     */
+    void apply(Long restaurantId, List<?> state) {
+        if (state == null || state.size() < 2) {
+            return;
+        }
+        apply(restaurantId, "1".equals(state.get(0)), Long.parseLong((String) state.get(1)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] flip = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+        if (flip.length != 3) {
+            LOG.warn("Ignoring malformed availability message {}", message);
+            return;
+        }
+        apply(Long.parseLong(flip[0]), "1".equals(flip[1]), Long.parseLong(flip[2]));
+    }
+
+    private void apply(Long restaurantId, boolean isAvailable, long version) {
+        synchronized (lock) {
+            Long applied = versions.get(restaurantId);
+            if (version < snapshotVersion || (applied != null && applied > version)) {
+                return;
+            }
+            versions.put(restaurantId, version);
+            available.set(Math.toIntExact(restaurantId), isAvailable);
+        }
+    }
+
+    private void afterCommit(List<Map.Entry<Long, Boolean>> entries) {
+        Runnable sync = () -> {
+            try {
+                sync(entries);
+            } catch (RuntimeException e) {
+                // The periodic synchronisation repairs the bitmap
+                LOG.warn("Could not publish availability for restaurants {}", entries, e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            sync.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                sync.run();
+            }
+        });
+    }
+
+    private void sync(List<Map.Entry<Long, Boolean>> entries) {
+        List<String> keys = new ArrayList<>(3 + entries.size() * 2);
+        List<String> args = new ArrayList<>(entries.size() * 2);
+        keys.addAll(List.of(AVAILABLE_KEY, ENABLED_KEY, VERSION_KEY));
+        for (Map.Entry<Long, Boolean> entry : entries) {
+            keys.add(RestaurantAvailabilityService.SLOTS_KEY + entry.getKey());
+            keys.add(RestaurantAvailabilityService.COURIERS_KEY + entry.getKey());
+            args.add(String.valueOf(entry.getKey()));
+            args.add(entry.getValue() ? "1" : "0");
+        }
+        List<?> states = redisTemplate.execute(SYNC_SCRIPT, keys, args.toArray());
+        for (int i = 0; states != null && i < entries.size(); i++) {
+            apply(entries.get(i).getKey(), states.subList(i * 2, i * 2 + 2));
+        }
+    }
+
+    /**
+     * Redis numbers bitmap offsets from the most significant bit of each byte, BitSet from the least significant
+     */
+    private static BitSet decode(byte[] bitmap) {
+        BitSet bits = new BitSet();
+        if (bitmap == null) {
+            return bits;
+        }
+        for (int i = 0; i < bitmap.length; i++) {
+            int value = bitmap[i] & 0xFF;
+            for (int bit = 0; value != 0 && bit < 8; bit++) {
+                if ((value & (0x80 >>> bit)) != 0) {
+                    bits.set(i * 8 + bit);
+                }
+            }
+        }
+        return bits;
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
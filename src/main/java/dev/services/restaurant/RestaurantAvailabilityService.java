@@ -3,71 +3,369 @@ package dev.services.restaurant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
+ * Tracks each restaurant's free kitchen slots and free couriers in Redis, so several orders can be in flight per
+ * restaurant and dispatch never double-books a slot or a courier.
+ * <p>
+ * {@code restaurant:slots:{id}} counts free slots and {@code restaurant:couriers:{id}} holds the ids of free couriers.
+ * Both are seeded from the restaurant row the first time it is considered for dispatch, and rebuilt from the database
+ * by {@code RestaurantPoolResync}. Every script that changes a
+ * pool also refreshes the restaurant's bit in {@link RestaurantAvailabilityRegistry}, so availability reads stay local.
+ *
  * @author Nelson Tanko
  */
 @Service
 public class RestaurantAvailabilityService {
 
     private static final Logger LOG = LoggerFactory.getLogger(RestaurantAvailabilityService.class);
-    private static final String RESTAURANT_LOCK_KEY = "restaurant:busy:";
+    static final String SLOTS_KEY = "restaurant:slots:";
+    static final String COURIERS_KEY = "restaurant:couriers:";
     private static final String ORDER_INFO_KEY = "order:info:";
+    private static final Duration MIN_BUSY_DURATION = Duration.ofMinutes(1);
+
+    /**
+     * Walks the candidates in order and claims a slot and a courier from the first one that has both. A restaurant
+     * seen for the first time is seeded with its capacity and free couriers. Returns the 1-based position of the
+     * claimed candidate, the courier id and the candidate's refreshed availability, or an empty list when all are
+     * saturated. KEYS: available, enabled and version keys, then a slots/couriers key pair per candidate.
+     * ARGV: id, capacity and comma-separated free courier ids per candidate.
+     */
+    private static final RedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>(RestaurantAvailabilityRegistry.REFRESH_FUNCTION + """
+            for i = 4, #KEYS, 2 do
+                local slots, couriers = KEYS[i], KEYS[i + 1]
+                local candidate = (i - 2) / 2
+                local id = ARGV[candidate * 3 - 2]
+                if redis.call('SET', slots, ARGV[candidate * 3 - 1], 'NX') then
+                    for courier in string.gmatch(ARGV[candidate * 3], '[^,]+') do
+                        redis.call('SADD', couriers, courier)
+                    end
+                    refresh(id, slots, couriers)
+                end
+                if tonumber(redis.call('GET', slots)) > 0 then
+                    local courier = redis.call('SPOP', couriers)
+                    if courier then
+                        redis.call('DECR', slots)
+                        local state = refresh(id, slots, couriers)
+                        return {tostring(candidate), courier, state[1], state[2]}
+                    end
+                end
+            end
+            return {}
+            """, List.class);
+
+    /**
+     * Returns a slot without going over capacity, and the courier if there was one, and drops the order's hold when
+     * given. An untracked pool is left alone, as it is seeded whole on next dispatch. Returns the refreshed
+     * availability. KEYS: available, enabled, version, slots, couriers, optionally the order info key.
+     * ARGV: restaurant id, capacity, courier id or empty.
+     */
+    private static final RedisScript<List> RELEASE_SCRIPT = new DefaultRedisScript<>(RestaurantAvailabilityRegistry.REFRESH_FUNCTION + """
+            if KEYS[6] then
+                redis.call('DEL', KEYS[6])
+            end
+            if redis.call('EXISTS', KEYS[4]) == 1 then
+                if tonumber(redis.call('GET', KEYS[4])) < tonumber(ARGV[2]) then
+                    redis.call('INCR', KEYS[4])
+                end
+                if ARGV[3] ~= '' then
+                    redis.call('SADD', KEYS[5], ARGV[3])
+                end
+            end
+            return refresh(ARGV[1], KEYS[4], KEYS[5])
+            """, List.class);
+
+    /**
+     * Applies an admin change to a pool that is already tracked; untracked pools are seeded on next dispatch. A
+     * capacity cut below the slots in use leaves the counter at 0, and the releases of those orders refill it up to
+     * the new capacity. Returns the refreshed availability. KEYS: available, enabled, version, slots, couriers.
+     * ARGV: restaurant id, capacity delta, comma-separated couriers to add, comma-separated couriers to remove.
+     */
+    private static final RedisScript<List> ADJUST_SCRIPT = new DefaultRedisScript<>(RestaurantAvailabilityRegistry.REFRESH_FUNCTION + """
+            if redis.call('EXISTS', KEYS[4]) == 1 then
+                if redis.call('INCRBY', KEYS[4], ARGV[2]) < 0 then
+                    redis.call('SET', KEYS[4], 0)
+                end
+                for courier in string.gmatch(ARGV[3], '[^,]+') do
+                    redis.call('SADD', KEYS[5], courier)
+                end
+                for courier in string.gmatch(ARGV[4], '[^,]+') do
+                    redis.call('SREM', KEYS[5], courier)
+                end
+            end
+            return refresh(ARGV[1], KEYS[4], KEYS[5])
+            """, List.class);
+
+    /**
+     * Replaces a pool with the free slots and couriers the database holds, tracked or not, so a pool that drifted or
+     * was seeded at full capacity after a Redis flush matches the orders actually out for delivery. Returns the
+     * refreshed availability. KEYS: available, enabled, version, slots, couriers.
+     * ARGV: restaurant id, free slots, comma-separated free couriers.
+     */
+    private static final RedisScript<List> RESYNC_SCRIPT = new DefaultRedisScript<>(RestaurantAvailabilityRegistry.REFRESH_FUNCTION + """
+            redis.call('SET', KEYS[4], ARGV[2])
+            redis.call('DEL', KEYS[5])
+            for courier in string.gmatch(ARGV[3], '[^,]+') do
+                redis.call('SADD', KEYS[5], courier)
+            end
+            return refresh(ARGV[1], KEYS[4], KEYS[5])
+            """, List.class);
 
     @Value("${foody.restaurant.availability.default-busy-minutes:15}")
     private long defaultBusyMinutes;
 
     private final RedisTemplate<String, String> redisTemplate;
+    private final RestaurantAvailabilityRegistry registry;
 
-    public RestaurantAvailabilityService(RedisTemplate<String, String> redisTemplate) {
+    public RestaurantAvailabilityService(RedisTemplate<String, String> redisTemplate, RestaurantAvailabilityRegistry registry) {
         this.redisTemplate = redisTemplate;
+        this.registry = registry;
     }
 
     /**
-     * Marks a restaurant as busy in Redis and stores order completion data
+     * Atomically claims a kitchen slot and a courier from the first candidate, nearest first, that has both free,
+     * in a single script call. Saturated candidates are skipped in favour of the next one.
      */
-    public void markRestaurantAsBusy(Long restaurantId, Long orderId, LocalDateTime deliveryTime) {
-        Duration busyDuration = Duration.between(LocalDateTime.now(), deliveryTime);
-        long busyMinutes = Math.max(busyDuration.toMinutes(), defaultBusyMinutes);
+    @SuppressWarnings("unchecked")
+    public Optional<RestaurantReservation> reserveFirstAvailable(List<Restaurant> candidates) {
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        List<String> keys = new ArrayList<>(3 + candidates.size() * 2);
+        List<String> args = new ArrayList<>(candidates.size() * 3);
+        keys.addAll(registryKeys());
+        for (Restaurant restaurant : candidates) {
+            keys.add(SLOTS_KEY + restaurant.getId());
+            keys.add(COURIERS_KEY + restaurant.getId());
+            args.add(String.valueOf(restaurant.getId()));
+            args.add(String.valueOf(restaurant.getCapacity()));
+            args.add(joinIds(restaurant.getActiveCouriers().stream()
+                    .filter(Courier::isAvailable)
+                    .map(Courier::getId)
+                    .toList()));
+        }
 
-        String restaurantKey = RESTAURANT_LOCK_KEY + restaurantId;
-        String orderInfoKey = ORDER_INFO_KEY + restaurantId;
+        List<String> claimed = redisTemplate.execute(RESERVE_SCRIPT, keys, args.toArray());
+        if (claimed == null || claimed.isEmpty()) {
+            LOG.info("None of the {} candidate restaurants has a free slot and courier", candidates.size());
+            return Optional.empty();
+        }
+        Restaurant restaurant = candidates.get(Integer.parseInt(claimed.get(0)) - 1);
+        Long courierId = Long.parseLong(claimed.get(1));
+        registry.apply(restaurant.getId(), claimed.subList(2, 4));
+        LOG.info("Reserved a slot at restaurant {} with courier {}", restaurant.getId(), courierId);
+        return Optional.of(new RestaurantReservation(restaurant.getId(), courierId, restaurant.getCapacity()));
+    }
+
+    /**
+     * Records which restaurant and courier an order holds, for as long as the delivery is expected to take
+     */
+    public void confirmReservation(RestaurantReservation reservation, Long orderId, LocalDateTime deliveryTime) {
+        String orderInfo = String.format("%d:%d:%d", orderId, reservation.restaurantId(), reservation.courierId());
+        redisTemplate.opsForValue().set(ORDER_INFO_KEY + orderId, orderInfo, busyDuration(deliveryTime));
+        LOG.info("Order {} holds a slot at restaurant {} with courier {}", orderId, reservation.restaurantId(), reservation.courierId());
+    }
+
+    /**
+     * Gives back a reservation whose order was never created
+     */
+    public void releaseReservation(RestaurantReservation reservation) {
+        release(reservation.restaurantId(), reservation.courierId(), reservation.capacity(), null);
+        LOG.info("Reservation at restaurant {} released", reservation.restaurantId());
+    }
+
+    /**
+     * Frees the slot and courier held by a finished order
+     */
+    public void releaseOrder(Long orderId, Restaurant restaurant, Long courierId) {
+        releaseOrder(orderId, restaurant.getId(), restaurant.getCapacity(), courierId);
+    }
+
+    public void releaseOrder(Long orderId, Long restaurantId, int capacity, Long courierId) {
+        release(restaurantId, courierId, capacity, ORDER_INFO_KEY + orderId);
+        LOG.info("Order {} released its slot at restaurant {}", orderId, restaurantId);
+    }
+
+    /**
+     * Frees the slots and couriers held by many finished orders, with every release pipelined into one round trip
+     */
+    public void releaseOrders(Collection<OrderRelease> releases) {
+        if (releases.isEmpty()) {
+            return;
+        }
+        List<OrderRelease> ordered = List.copyOf(releases);
+        byte[] script = RELEASE_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        // Loaded up front, as a pipelined EVALSHA cannot fall back to EVAL when the script cache is cold
+        String sha = redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+        List<Object> states = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (OrderRelease release : ordered) {
+                List<String> keys = poolKeys(release.restaurantId());
+                keys.add(ORDER_INFO_KEY + release.orderId());
+                List<String> keysAndArgs = new ArrayList<>(keys);
+                keysAndArgs.addAll(List.of(String.valueOf(release.restaurantId()), String.valueOf(release.capacity()),
+                        release.courierId() != null ? release.courierId().toString() : ""));
+                connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, keys.size(),
+                        keysAndArgs.stream().map(RestaurantAvailabilityService::bytes).toArray(byte[][]::new));
+            }
+            return null;
+        });
+        for (int i = 0; i < ordered.size(); i++) {
+            registry.apply(ordered.get(i).restaurantId(), (List<?>) states.get(i));
+        }
+    }
 
-        redisTemplate.opsForValue().set(restaurantKey, orderId.toString(), Duration.ofMinutes(busyMinutes));
-        LOG.info("Restaurant {} marked as busy for {} minutes with order {}", restaurantId, busyMinutes, orderId);
+    /**
+     * Rebuilds many pools from their database state, with every script pipelined into one round trip. A dispatch that
+     * is reserving at one of these restaurants while it is rebuilt can be counted free again until the next rebuild.
+     */
+    public void resyncPools(Collection<RestaurantPool> pools) {
+        if (pools.isEmpty()) {
+            return;
+        }
+        List<RestaurantPool> ordered = List.copyOf(pools);
+        byte[] script = RESYNC_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8);
+        String sha = redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands().scriptLoad(script));
+        List<Object> states = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (RestaurantPool pool : ordered) {
+                List<String> keysAndArgs = poolKeys(pool.restaurantId());
+                keysAndArgs.addAll(List.of(String.valueOf(pool.restaurantId()), String.valueOf(pool.freeSlots()),
+                        joinIds(pool.freeCourierIds())));
+                connection.scriptingCommands().evalSha(sha, ReturnType.MULTI, 5,
+                        keysAndArgs.stream().map(RestaurantAvailabilityService::bytes).toArray(byte[][]::new));
+            }
+            return null;
+        });
+        for (int i = 0; i < ordered.size(); i++) {
+            registry.apply(ordered.get(i).restaurantId(), (List<?>) states.get(i));
+        }
+    }
 
-        String orderInfo = String.format("%d:%d", orderId, restaurantId);
-        redisTemplate.opsForValue().set(orderInfoKey, orderInfo, Duration.ofMinutes(busyMinutes));
+    /**
+     * Brings a tracked pool in line with a capacity change and couriers added to or removed from the restaurant
+     */
+    public void adjustPool(Long restaurantId, int capacityDelta, Collection<Long> addedCourierIds, Collection<Long> removedCourierIds) {
+        List<?> state = redisTemplate.execute(ADJUST_SCRIPT, poolKeys(restaurantId), String.valueOf(restaurantId),
+                String.valueOf(capacityDelta), joinIds(addedCourierIds), joinIds(removedCourierIds));
+        registry.apply(restaurantId, state);
     }
 
     /**
-     * Checks if a restaurant is available (not busy)
+     * Checks if a restaurant can take another order, from this node's replica of the registry. A restaurant that has
+     * not been dispatched to yet is not tracked and counts as available as long as it is switched on.
      */
     public boolean isRestaurantAvailable(Long restaurantId) {
-        String key = RESTAURANT_LOCK_KEY + restaurantId;
-        return !Boolean.TRUE.equals(redisTemplate.hasKey(key));
+        return registry.isAvailable(restaurantId);
+    }
+
+    /**
+     * Same as {@link #isRestaurantAvailable} for many restaurants at once, read from one consistent view of the replica
+     */
+    public Map<Long, Boolean> areRestaurantsAvailable(Collection<Long> restaurantIds) {
+        return registry.areAvailable(restaurantIds);
+    }
+
+    /**
+     * How many more orders a restaurant can take right now: the lower of its free slots and free couriers. A restaurant
+     * that is not tracked yet is judged from its row, the same way it would be seeded.
+     */
+    public int freeCapacity(Restaurant restaurant) {
+        return freeCapacities(List.of(restaurant)).get(restaurant.getId());
     }
 
     /**
-     * Gets the remaining unavailability time in seconds
+     * {@link #freeCapacity} for many restaurants, reading every slot counter and courier set in one pipelined round trip
      */
-    public long getRemainingBusyTime(Long restaurantId) {
-        String key = RESTAURANT_LOCK_KEY + restaurantId;
-        Long ttl = redisTemplate.getExpire(key);
-        return ttl != null && ttl > 0 ? ttl / 60 : 0; // Convert seconds to minutes
+    public Map<Long, Integer> freeCapacities(Collection<Restaurant> restaurants) {
+        if (restaurants.isEmpty()) {
+            return Map.of();
+        }
+        List<Restaurant> ordered = List.copyOf(restaurants);
+        List<Object> counts = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Restaurant restaurant : ordered) {
+                connection.stringCommands().get(bytes(SLOTS_KEY + restaurant.getId()));
+                connection.setCommands().sCard(bytes(COURIERS_KEY + restaurant.getId()));
+            }
+            return null;
+        });
+        Map<Long, Integer> capacities = new HashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            Restaurant restaurant = ordered.get(i);
+            String freeSlots = (String) counts.get(i * 2);
+            Long freeCouriers = (Long) counts.get(i * 2 + 1);
+            if (freeSlots == null) {
+                long rowCouriers = restaurant.getActiveCouriers().stream().filter(Courier::isAvailable).count();
+                capacities.put(restaurant.getId(), (int) Math.min(restaurant.getCapacity(), rowCouriers));
+            } else {
+                long free = Math.min(Long.parseLong(freeSlots), freeCouriers != null ? freeCouriers : 0);
+                capacities.put(restaurant.getId(), (int) Math.max(0, free));
+            }
+        }
+        return capacities;
     }
 
     /**
-     * Get the order ID associated with a busy restaurant
+     * Gets the number of free kitchen slots, or null if the restaurant is not tracked yet
      */
-    public Long getRestaurantOrderId(Long restaurantId) {
-        String key = RESTAURANT_LOCK_KEY + restaurantId;
-        String value = redisTemplate.opsForValue().get(key);
+    public Long getFreeSlots(Long restaurantId) {
+        String value = redisTemplate.opsForValue().get(SLOTS_KEY + restaurantId);
         return value != null ? Long.parseLong(value) : null;
     }
+
+    private void release(Long restaurantId, Long courierId, int capacity, String orderInfoKey) {
+        List<String> keys = poolKeys(restaurantId);
+        if (orderInfoKey != null) {
+            keys.add(orderInfoKey);
+        }
+        List<?> state = redisTemplate.execute(RELEASE_SCRIPT, keys, String.valueOf(restaurantId),
+                String.valueOf(capacity), courierId != null ? courierId.toString() : "");
+        registry.apply(restaurantId, state);
+    }
+
+    private static List<String> registryKeys() {
+        return List.of(RestaurantAvailabilityRegistry.AVAILABLE_KEY, RestaurantAvailabilityRegistry.ENABLED_KEY,
+                RestaurantAvailabilityRegistry.VERSION_KEY);
+    }
+
+    private static List<String> poolKeys(Long restaurantId) {
+        List<String> keys = new ArrayList<>(registryKeys());
+        keys.add(SLOTS_KEY + restaurantId);
+        keys.add(COURIERS_KEY + restaurantId);
+        return keys;
+    }
+
+    /**
+     * The order holds its slot until its estimated delivery, which already reflects the restaurant's recent pace
+     */
+    private Duration busyDuration(LocalDateTime deliveryTime) {
+        if (deliveryTime == null) {
+            return Duration.ofMinutes(defaultBusyMinutes);
+        }
+        Duration remaining = Duration.between(LocalDateTime.now(), deliveryTime);
+        return remaining.compareTo(MIN_BUSY_DURATION) < 0 ? MIN_BUSY_DURATION : remaining;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String joinIds(Collection<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
 }
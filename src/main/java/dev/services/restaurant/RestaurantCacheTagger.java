@@ -0,0 +1,28 @@
+package dev.services.restaurant;
+
+import dev.services.common.CacheTagger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tags cached restaurant details and restaurant list pages with the ids of the restaurants they show
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class RestaurantCacheTagger implements CacheTagger<RestaurantDTO.Response> {
+
+    @Override
+    public String cacheName() {
+        return RestaurantService.CACHE_NAME;
+    }
+
+    @Override
+    public Class<RestaurantDTO.Response> type() {
+        return RestaurantDTO.Response.class;
+    }
+
+    @Override
+    public Object idOf(RestaurantDTO.Response restaurant) {
+        return restaurant.getId();
+    }
+}
@@ -1,6 +1,9 @@
 package dev.services.restaurant;
 
+import dev.core.utils.CursorPage;
+import dev.core.utils.PaginationUtils;
 import dev.services.common.RateLimit;
+import dev.services.restaurant.RestaurantDTO.NearbyResponse;
 import dev.services.restaurant.RestaurantDTO.Request;
 import dev.services.restaurant.RestaurantDTO.Response;
 import dev.services.restaurant.RestaurantDTO.UpdateRequest;
@@ -9,10 +12,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
 
 /**
  * @author Nelson Tanko
@@ -45,6 +52,28 @@ public class RestaurantController {
         return ResponseEntity.ok(restaurantService.getAllRestaurants(pageable));
     }
 
+    /**
+     * Keyset-paginated active restaurants, newest first; the {@code Link} header carries the next page's cursor
+     */
+    @GetMapping("/scroll")
+    @RateLimit
+    public ResponseEntity<List<Response>> scrollRestaurants(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<Response> page = restaurantService.scrollRestaurants(cursor, size);
+        HttpHeaders headers = PaginationUtils.generateCursorHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Active restaurants within {@code radiusKm} of the point, nearest first
+     */
+    @GetMapping("/nearby")
+    @RateLimit
+    public ResponseEntity<List<NearbyResponse>> getNearbyRestaurants(@RequestParam double lat, @RequestParam double lon,
+                                                                     @RequestParam(defaultValue = "5") double radiusKm) {
+        return ResponseEntity.ok(restaurantService.getNearbyRestaurants(lat, lon, radiusKm));
+    }
+
     @GetMapping("/{restaurantId}")
     public ResponseEntity<Response> getRestaurantById(@PathVariable Long restaurantId) {
         return ResponseEntity.ok(restaurantService.getRestaurantById(restaurantId));
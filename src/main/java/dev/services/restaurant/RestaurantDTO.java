@@ -4,10 +4,13 @@ import dev.account.user.AddressDTO;
 import dev.core.validation.ValidEmail;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * @author Nelson Tanko
@@ -29,9 +32,12 @@ public class RestaurantDTO {
 
         private String phoneNumber;
 
+        @Positive(message = "Capacity must be positive")
+        private Integer capacity;
+
         @Valid
-        @NotNull(message = "Courier is required")
-        private CourierDTO.Request courier;
+        @NotEmpty(message = "At least one courier is required")
+        private List<CourierDTO.Request> couriers;
 
         @Valid
         @NotNull(message = "Address is required")
@@ -49,8 +55,17 @@ public class RestaurantDTO {
         private boolean active;
         private boolean available;
         private LocalDateTime availableFrom;
+        private int capacity;
         private AddressDTO.Response address;
-        private CourierDTO.Response courier;
+        private List<CourierDTO.Response> couriers;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NearbyResponse {
+        private Response restaurant;
+        private double distanceKm;
     }
 
     @Data
@@ -64,6 +79,13 @@ public class RestaurantDTO {
 
         private String phoneNumber;
         private Boolean available;
+
+        @Positive(message = "Capacity must be positive")
+        private Integer capacity;
+
+        /**
+         * Updates the courier with the same name, or adds it to the pool if there is none
+         */
         private CourierDTO.UpdateRequest courier;
     }
 }
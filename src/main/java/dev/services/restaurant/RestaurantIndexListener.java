@@ -0,0 +1,57 @@
+package dev.services.restaurant;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link RestaurantSpatialIndex} in step with every restaurant write and publishes the restaurant's enabled
+ * state to {@link RestaurantAvailabilityRegistry}, both once the write commits, so a rolled back write never reaches
+ * either.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class RestaurantIndexListener {
+
+    // Resolved lazily: the listener is instantiated while the entity manager factory is still being built
+    private final ObjectProvider<RestaurantSpatialIndex> spatialIndex;
+    private final ObjectProvider<RestaurantAvailabilityRegistry> availabilityRegistry;
+
+    public RestaurantIndexListener(ObjectProvider<RestaurantSpatialIndex> spatialIndex,
+                                   ObjectProvider<RestaurantAvailabilityRegistry> availabilityRegistry) {
+        this.spatialIndex = spatialIndex;
+        this.availabilityRegistry = availabilityRegistry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Restaurant restaurant) {
+        afterCommit(() -> spatialIndex.ifAvailable(index -> index.upsert(restaurant)));
+        availabilityRegistry.ifAvailable(registry -> registry.track(restaurant));
+    }
+
+    @PostRemove
+    public void onRemove(Restaurant restaurant) {
+        Long restaurantId = restaurant.getId();
+        afterCommit(() -> spatialIndex.ifAvailable(index -> index.remove(restaurantId)));
+        availabilityRegistry.ifAvailable(registry -> registry.untrack(restaurantId));
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package dev.services.restaurant;
+
+/**
+ * Lightweight read model of where an active restaurant sits, used to (re)build the spatial index
+ * without hydrating the restaurant, its courier and its address.
+ *
+ * @author Nelson Tanko
+ */
+public record RestaurantLocation(Long id, Double latitude, Double longitude, boolean available) {
+}
@@ -14,7 +14,7 @@ public interface RestaurantMapper {
     @Mapping(target = "orders", ignore = true)
     Restaurant toEntity(RestaurantDTO.Request request);
 
-    @Mapping(target = "courier", source = "courier")
+    @Mapping(target = "couriers", source = "couriers")
     @Mapping(target = "address", source = "address")
     RestaurantDTO.Response toResponseDto(Restaurant restaurant);
 
@@ -23,6 +23,7 @@ public interface RestaurantMapper {
     @Mapping(target = "availableFrom", ignore = true)
     @Mapping(target = "address", ignore = true)
     @Mapping(target = "active", ignore = true)
+    @Mapping(target = "couriers", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateRestaurantFromDto(UpdateRequest request, @MappingTarget Restaurant restaurant);
 
@@ -31,8 +32,8 @@ public interface RestaurantMapper {
             restaurant.getAddress().setRestaurant(restaurant);
         }
 
-        if (restaurant.getCourier() != null) {
-            restaurant.getCourier().setRestaurant(restaurant);
+        if (restaurant.getCouriers() != null) {
+            restaurant.getCouriers().forEach(courier -> courier.setRestaurant(restaurant));
         }
     }
 }
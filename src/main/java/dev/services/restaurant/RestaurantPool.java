@@ -0,0 +1,11 @@
+package dev.services.restaurant;
+
+import java.util.Collection;
+
+/**
+ * A restaurant's free kitchen slots and free couriers as the database sees them, used to rebuild its Redis pool
+ *
+ * @author Nelson Tanko
+ */
+public record RestaurantPool(Long restaurantId, int freeSlots, Collection<Long> freeCourierIds) {
+}
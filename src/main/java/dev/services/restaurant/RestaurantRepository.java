@@ -3,19 +3,49 @@ package dev.services.restaurant;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * @author Nelson Tanko
  */
-public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
+public interface RestaurantRepository extends JpaRepository<Restaurant, Long>, JpaSpecificationExecutor<Restaurant> {
 
     @Query("SELECT r FROM Restaurant r WHERE r.active = true ORDER BY r.available DESC")
     Page<Restaurant> findByActiveTrueOrderByAvailableDesc(Pageable pageable);
 
+    /**
+     * The newest active restaurants, the first page of {@link #findActiveBefore}
+     */
+    @Query("""
+            SELECT r FROM Restaurant r LEFT JOIN FETCH r.address
+            WHERE r.active = true
+            ORDER BY r.createdDate DESC, r.id DESC
+            """)
+    List<Restaurant> findLatestActive(Pageable window);
+
+    /**
+     * The active restaurants created before the given one, newest first, seeking on the partial index over active
+     * restaurants by creation date
+     */
+    @Query("""
+            SELECT r FROM Restaurant r LEFT JOIN FETCH r.address
+            WHERE r.active = true
+              AND r.createdDate <= :createdDate
+              AND (r.createdDate < :createdDate OR r.id < :id)
+            ORDER BY r.createdDate DESC, r.id DESC
+            """)
+    List<Restaurant> findActiveBefore(@Param("createdDate") LocalDateTime createdDate, @Param("id") Long id, Pageable window);
+
     List<Restaurant> findByAvailableAndActive(boolean available, boolean active);
 
+    @Query("SELECT new dev.services.restaurant.RestaurantLocation(r.id, a.latitude, a.longitude, r.available) " +
+            "FROM Restaurant r JOIN r.address a WHERE r.active = true")
+    List<RestaurantLocation> findActiveLocations();
+
     boolean existsByName(String tastyBites);
 }
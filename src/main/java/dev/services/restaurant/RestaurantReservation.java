@@ -0,0 +1,10 @@
+package dev.services.restaurant;
+
+/**
+ * A kitchen slot and a courier claimed in Redis for an order. Holds the restaurant's capacity so the slot can be
+ * handed back without going over it.
+ *
+ * @author Nelson Tanko
+ */
+public record RestaurantReservation(Long restaurantId, Long courierId, int capacity) {
+}
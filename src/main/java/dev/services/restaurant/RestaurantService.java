@@ -1,21 +1,31 @@
 package dev.services.restaurant;
 
+import dev.account.user.Address;
 import dev.account.user.AddressRepository;
+import dev.core.common.Geohash;
 import dev.core.exception.ErrorCode;
 import dev.core.exception.GenericApiException;
+import dev.core.utils.Cursor;
+import dev.core.utils.CursorPage;
 import dev.services.common.CacheService;
+import dev.services.common.CacheTagger;
+import dev.services.restaurant.RestaurantDTO.NearbyResponse;
 import dev.services.restaurant.RestaurantDTO.Request;
 import dev.services.restaurant.RestaurantDTO.Response;
 import dev.services.restaurant.RestaurantDTO.UpdateRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static dev.core.exception.ErrorCode.RESTAURANT_NOT_FOUND;
@@ -25,7 +35,7 @@ import static dev.core.exception.ErrorCode.RESTAURANT_NOT_FOUND;
  */
 @Service
 public class RestaurantService {
-    private static final String CACHE_NAME = "restaurants";
+    static final String CACHE_NAME = "restaurants";
 
     private static final Logger LOG = LoggerFactory.getLogger(RestaurantService.class);
 
@@ -34,13 +44,25 @@ public class RestaurantService {
     private final RestaurantMapper restaurantMapper;
     private final CourierMapper courierMapper;
     private final CacheService cacheService;
-
-    public RestaurantService(RestaurantRepository restaurantRepository, AddressRepository addressRepository, RestaurantMapper restaurantMapper, CourierMapper courierMapper, CacheService cacheService) {
+    private final RestaurantAvailabilityService restaurantAvailabilityService;
+    private final NearbyRestaurantFinder nearbyRestaurantFinder;
+    private final int nearbyCellPrecision;
+    private final double nearbyMaxRadiusKm;
+
+    public RestaurantService(RestaurantRepository restaurantRepository, AddressRepository addressRepository, RestaurantMapper restaurantMapper, CourierMapper courierMapper,
+                             CacheService cacheService, RestaurantAvailabilityService restaurantAvailabilityService,
+                             NearbyRestaurantFinder nearbyRestaurantFinder,
+                             @Value("${foody.restaurant.nearby.cell-precision:6}") int nearbyCellPrecision,
+                             @Value("${foody.restaurant.nearby.max-radius-km:50}") double nearbyMaxRadiusKm) {
         this.restaurantRepository = restaurantRepository;
         this.addressRepository = addressRepository;
         this.restaurantMapper = restaurantMapper;
         this.courierMapper = courierMapper;
         this.cacheService = cacheService;
+        this.restaurantAvailabilityService = restaurantAvailabilityService;
+        this.nearbyRestaurantFinder = nearbyRestaurantFinder;
+        this.nearbyCellPrecision = nearbyCellPrecision;
+        this.nearbyMaxRadiusKm = nearbyMaxRadiusKm;
     }
 
     @Transactional
@@ -55,7 +77,7 @@ public class RestaurantService {
         Restaurant savedRestaurant = restaurantRepository.save(restaurant);
 
         LOG.info("Restaurant created with ID: {}", savedRestaurant.getId());
-        cacheService.evictAllCacheEntries(CACHE_NAME);
+        cacheService.evictByTag(CACHE_NAME, CacheTagger.LIST_TAG);
         return restaurantMapper.toResponseDto(savedRestaurant);
     }
 
@@ -67,6 +89,22 @@ public class RestaurantService {
         return restaurants.map(restaurantMapper::toResponseDto);
     }
 
+    /**
+     * Active restaurants newest first, a page at a time from the cursor of the previous page. Cached per cursor
+     * like the offset pages, and evicted with them.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = CACHE_NAME)
+    public CursorPage<Response> scrollRestaurants(String cursor, int size) {
+        LOG.info("Scrolling active restaurants");
+        Cursor after = Cursor.decode(cursor);
+        List<Restaurant> restaurants = after == null
+                ? restaurantRepository.findLatestActive(CursorPage.window(size))
+                : restaurantRepository.findActiveBefore(after.requireSortKey(), after.id(), CursorPage.window(size));
+        return CursorPage.of(restaurants, size, restaurant -> new Cursor(restaurant.getCreatedDate(), restaurant.getId()),
+                restaurantMapper::toResponseDto);
+    }
+
     @Transactional(readOnly = true)
     @Cacheable(value = CACHE_NAME)
     public Response getRestaurantById(Long restaurantId) {
@@ -75,18 +113,47 @@ public class RestaurantService {
         return restaurantMapper.toResponseDto(restaurant);
     }
 
+    /**
+     * Active restaurants within {@code radiusKm} of the point, nearest first. Candidates come from the cache entry
+     * of the point's geohash cell; the distances and live availability are worked out per request.
+     */
+    public List<NearbyResponse> getNearbyRestaurants(double latitude, double longitude, double radiusKm) {
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180 || radiusKm <= 0 || radiusKm > nearbyMaxRadiusKm) {
+            throw new GenericApiException(ErrorCode.RESTAURANT_INVALID_SEARCH_AREA);
+        }
+        LOG.info("Fetching restaurants within {} km of ({}, {})", radiusKm, latitude, longitude);
+        String cell = Geohash.encode(latitude, longitude, nearbyCellPrecision);
+        List<NearbyResponse> nearby = nearbyRestaurantFinder.findAroundCell(cell, (int) Math.ceil(radiusKm)).stream()
+                .map(restaurant -> new NearbyResponse(restaurant, Address.distanceBetween(latitude, longitude,
+                        restaurant.getAddress().getLatitude(), restaurant.getAddress().getLongitude())))
+                .filter(candidate -> candidate.getDistanceKm() <= radiusKm)
+                .sorted(Comparator.comparingDouble(NearbyResponse::getDistanceKm))
+                .toList();
+
+        Map<Long, Boolean> available = restaurantAvailabilityService.areRestaurantsAvailable(
+                nearby.stream().map(candidate -> candidate.getRestaurant().getId()).toList());
+        nearby.forEach(candidate -> candidate.getRestaurant().setAvailable(
+                available.getOrDefault(candidate.getRestaurant().getId(), false)));
+        return nearby;
+    }
+
     @Transactional
     public Response updateRestaurant(Long restaurantId, UpdateRequest request) {
         LOG.info("Updating restaurant with ID: {}", restaurantId);
         Restaurant restaurant = findRestaurantById(restaurantId);
+        int previousCapacity = restaurant.getCapacity();
 
         restaurantMapper.updateRestaurantFromDto(request, restaurant);
-        updateCourier(request.getCourier(), restaurant);
-
-        Restaurant updatedRestaurant = restaurantRepository.save(restaurant);
-        cacheService.evictAllCacheEntries(CACHE_NAME);
-        LOG.info("Restaurant updated: {}", updatedRestaurant.getId());
-        return restaurantMapper.toResponseDto(updatedRestaurant);
+        Courier addedCourier = updateCourier(request.getCourier(), restaurant);
+
+        // The restaurant is managed, so flushing persists a new courier in place and gives it its id; a merge would
+        // copy it instead and leave this instance without one
+        restaurantRepository.flush();
+        restaurantAvailabilityService.adjustPool(restaurantId, restaurant.getCapacity() - previousCapacity,
+                addedCourier != null ? List.of(addedCourier.getId()) : List.of(), List.of());
+        cacheService.evictByTag(CACHE_NAME, CacheTagger.idTag(restaurantId), CacheTagger.LIST_TAG);
+        LOG.info("Restaurant updated: {}", restaurant.getId());
+        return restaurantMapper.toResponseDto(restaurant);
     }
 
     @Transactional
@@ -95,12 +162,12 @@ public class RestaurantService {
         Restaurant restaurant = findRestaurantById(restaurantId);
 
         restaurant.setActive(false);
+        restaurant.getCouriers().forEach(courier -> courier.setActive(false));
 
-        if (restaurant.getCourier() != null) {
-            restaurant.getCourier().setActive(false);
-        }
         restaurantRepository.save(restaurant);
-        cacheService.evictAllCacheEntries(CACHE_NAME);
+        restaurantAvailabilityService.adjustPool(restaurantId, 0, List.of(),
+                restaurant.getCouriers().stream().map(Courier::getId).toList());
+        cacheService.evictByTag(CACHE_NAME, CacheTagger.idTag(restaurantId), CacheTagger.LIST_TAG);
         LOG.info("Restaurant soft deleted: {}", restaurantId);
     }
 
@@ -114,15 +181,22 @@ public class RestaurantService {
         return addressRepository.existsByLatitudeAndLongitude(latitude, longitude);
     }
 
-    private void updateCourier(CourierDTO.UpdateRequest courierRequest, Restaurant restaurant) {
-        Optional.ofNullable(courierRequest).ifPresent(request -> {
-            if (restaurant.getCourier() != null) {
-                courierMapper.updateCourierFromDto(request, restaurant.getCourier());
-            } else {
-                Courier newCourier = courierMapper.toEntityUpdate(request);
-                newCourier.setRestaurant(restaurant);
-                restaurant.setCourier(newCourier);
-            }
-        });
+    /**
+     * Returns the courier when a new one was added to the pool
+     */
+    private Courier updateCourier(CourierDTO.UpdateRequest courierRequest, Restaurant restaurant) {
+        if (courierRequest == null) {
+            return null;
+        }
+        Optional<Courier> existing = restaurant.getCouriers().stream()
+                .filter(courier -> courier.getName().equals(courierRequest.getName()))
+                .findFirst();
+        if (existing.isPresent()) {
+            courierMapper.updateCourierFromDto(courierRequest, existing.get());
+            return null;
+        }
+        Courier newCourier = courierMapper.toEntityUpdate(courierRequest);
+        restaurant.addCourier(newCourier);
+        return newCourier;
     }
 }
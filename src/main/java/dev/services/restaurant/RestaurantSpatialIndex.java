@@ -0,0 +1,240 @@
+package dev.services.restaurant;
+
+import dev.account.user.Address;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Node-local grid index of active restaurants, so dispatch can run a k-nearest query over a handful
+ * of neighbouring cells instead of loading every available restaurant and computing Haversine against all of them.
+ * <p>
+ * The index is rebuilt from the database at startup and on a fixed interval, and kept current in between by
+ * {@link RestaurantIndexListener} whenever a restaurant is persisted, updated or removed.
+ *
+ * @author Nelson Tanko
+ */
+@Component
+public class RestaurantSpatialIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RestaurantSpatialIndex.class);
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final RestaurantRepository restaurantRepository;
+    private final double cellSizeDegrees;
+
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public RestaurantSpatialIndex(RestaurantRepository restaurantRepository,
+                                  @Value("${foody.restaurant.spatial-index.cell-size-degrees:0.05}") double cellSizeDegrees) {
+        this.restaurantRepository = restaurantRepository;
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    /**
+     * Reloads the index from the database. Runs at startup and periodically to pick up writes made by other nodes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${foody.restaurant.spatial-index.refresh-interval:PT5M}",
+            initialDelayString = "${foody.restaurant.spatial-index.refresh-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<RestaurantLocation> locations = restaurantRepository.findActiveLocations();
+        Set<Long> seen = new HashSet<>();
+        for (RestaurantLocation location : locations) {
+            put(location.id(), location.latitude(), location.longitude(), location.available());
+            seen.add(location.id());
+        }
+        entries.keySet().stream()
+                .filter(id -> !seen.contains(id))
+                .toList()
+                .forEach(this::remove);
+        LOG.info("Restaurant spatial index rebuilt with {} restaurants in {} cells", entries.size(), cells.size());
+    }
+
+    public void upsert(Restaurant restaurant) {
+        Address address = restaurant.getAddress();
+        if (restaurant.getId() == null) {
+            return;
+        }
+        if (!restaurant.isActive() || address == null || address.getLatitude() == null || address.getLongitude() == null) {
+            remove(restaurant.getId());
+            return;
+        }
+        put(restaurant.getId(), address.getLatitude(), address.getLongitude(), restaurant.isAvailable());
+    }
+
+    public void remove(Long restaurantId) {
+        Entry removed = entries.remove(restaurantId);
+        if (removed != null) {
+            cells.computeIfPresent(removed.cell(), (cell, ids) -> {
+                ids.remove(restaurantId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    public void setAvailable(Long restaurantId, boolean available) {
+        entries.computeIfPresent(restaurantId, (id, entry) -> entry.withAvailable(available));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns up to {@code limit} available restaurant ids ordered by distance from the given point, nearest first.
+     * Rings of cells are visited outwards from the cell containing the point and the search stops as soon as
+     * no unvisited cell can hold anything closer than the current k-th candidate.
+     */
+    public List<Long> findNearestAvailable(double latitude, double longitude, int limit) {
+        return findNearestAvailable(latitude, longitude, limit, id -> true);
+    }
+
+    /**
+     * Same as {@link #findNearestAvailable(double, double, int)}, but only restaurants passing {@code accept} are
+     * counted, so the rings keep expanding past restaurants that are known to be full instead of returning them.
+     */
+    public List<Long> findNearestAvailable(double latitude, double longitude, int limit, LongPredicate accept) {
+        if (limit <= 0 || entries.isEmpty()) {
+            return List.of();
+        }
+        int row = cellRow(latitude);
+        int column = cellColumn(longitude);
+        PriorityQueue<Candidate> nearest = new PriorityQueue<>(Comparator.<Candidate>naturalOrder().reversed());
+
+        for (int ring = 0; ; ring++) {
+            if (nearest.size() == limit && ringLowerBoundKm(ring, latitude) > nearest.peek().distance()) {
+                break;
+            }
+            if (ringCellCount(ring) > cells.size()) {
+                // The ring is wider than the populated part of the grid: scan the remaining populated cells directly
+                scanRemainingCells(row, column, ring, latitude, longitude, limit, accept, nearest);
+                break;
+            }
+            visitRing(row, column, ring, latitude, longitude, limit, accept, nearest);
+        }
+
+        List<Candidate> ordered = new ArrayList<>(nearest);
+        Collections.sort(ordered);
+        return ordered.stream().map(Candidate::restaurantId).toList();
+    }
+
+    private void visitRing(int row, int column, int ring, double latitude, double longitude, int limit,
+                           LongPredicate accept, PriorityQueue<Candidate> nearest) {
+        if (ring == 0) {
+            visitCell(cellKey(row, column), latitude, longitude, limit, accept, nearest);
+            return;
+        }
+        for (int offset = -ring; offset <= ring; offset++) {
+            visitCell(cellKey(row - ring, column + offset), latitude, longitude, limit, accept, nearest);
+            visitCell(cellKey(row + ring, column + offset), latitude, longitude, limit, accept, nearest);
+        }
+        for (int offset = -ring + 1; offset <= ring - 1; offset++) {
+            visitCell(cellKey(row + offset, column - ring), latitude, longitude, limit, accept, nearest);
+            visitCell(cellKey(row + offset, column + ring), latitude, longitude, limit, accept, nearest);
+        }
+    }
+
+    private void scanRemainingCells(int row, int column, int fromRing, double latitude, double longitude, int limit,
+                                    LongPredicate accept, PriorityQueue<Candidate> nearest) {
+        for (Long cell : cells.keySet()) {
+            int ring = Math.max(Math.abs(rowOf(cell) - row), Math.abs(columnOf(cell) - column));
+            if (ring >= fromRing) {
+                visitCell(cell, latitude, longitude, limit, accept, nearest);
+            }
+        }
+    }
+
+    private void visitCell(long cell, double latitude, double longitude, int limit, LongPredicate accept,
+                           PriorityQueue<Candidate> nearest) {
+        Set<Long> ids = cells.get(cell);
+        if (ids == null) {
+            return;
+        }
+        for (Long id : ids) {
+            Entry entry = entries.get(id);
+            if (entry == null || !entry.available() || !accept.test(id)) {
+                continue;
+            }
+            double distance = Address.distanceBetween(latitude, longitude, entry.latitude(), entry.longitude());
+            nearest.offer(new Candidate(id, distance));
+            if (nearest.size() > limit) {
+                nearest.poll();
+            }
+        }
+    }
+
+    private void put(Long restaurantId, double latitude, double longitude, boolean available) {
+        long cell = cellKey(cellRow(latitude), cellColumn(longitude));
+        Entry previous = entries.put(restaurantId, new Entry(latitude, longitude, cell, available));
+        if (previous != null && previous.cell() != cell) {
+            cells.computeIfPresent(previous.cell(), (key, ids) -> {
+                ids.remove(restaurantId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        cells.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(restaurantId);
+    }
+
+    /**
+     * Smallest distance any point in the given ring can be from the query point. Longitude cells narrow towards
+     * the poles, so the bound uses the cosine at the furthest latitude the ring can reach.
+     */
+    private double ringLowerBoundKm(int ring, double latitude) {
+        if (ring <= 1) {
+            return 0;
+        }
+        double reachedLatitude = Math.min(Math.abs(latitude) + ring * cellSizeDegrees, 89.0);
+        double cellKm = cellSizeDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(reachedLatitude));
+        return (ring - 1) * cellKm;
+    }
+
+    private static int ringCellCount(int ring) {
+        return ring == 0 ? 1 : 8 * ring;
+    }
+
+    private int cellRow(double latitude) {
+        return (int) Math.floor(latitude / cellSizeDegrees);
+    }
+
+    private int cellColumn(double longitude) {
+        return (int) Math.floor(longitude / cellSizeDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    private static int rowOf(long cell) {
+        return (int) (cell >> 32);
+    }
+
+    private static int columnOf(long cell) {
+        return (int) cell;
+    }
+
+    private record Entry(double latitude, double longitude, long cell, boolean available) {
+        Entry withAvailable(boolean available) {
+            return new Entry(latitude, longitude, cell, available);
+        }
+    }
+
+    private record Candidate(Long restaurantId, double distance) implements Comparable<Candidate> {
+        @Override
+        public int compareTo(Candidate other) {
+            int byDistance = Double.compare(distance, other.distance);
+            return byDistance != 0 ? byDistance : restaurantId.compareTo(other.restaurantId);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+ALTER TABLE food ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE food ADD COLUMN rating_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE food f SET
+    rating_sum = agg.total,
+    rating_count = agg.votes,
+    total_ratings = agg.votes,
+    average_rating = CASE WHEN agg.votes > 0 THEN agg.total::DOUBLE PRECISION / agg.votes ELSE 0 END
+FROM (
+    SELECT fo.id, COALESCE(SUM(r.rating), 0) AS total, COUNT(r.id) AS votes
+    FROM food fo LEFT JOIN ratings r ON r.food_id = fo.id
+    GROUP BY fo.id
+) agg
+WHERE agg.id = f.id;
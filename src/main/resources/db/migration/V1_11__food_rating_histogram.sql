@@ -0,0 +1,14 @@
+CREATE TABLE food_rating_histogram (
+    food_id BIGINT NOT NULL,
+    stars SMALLINT NOT NULL,
+    slot SMALLINT NOT NULL,
+    votes BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_food_rating_histogram PRIMARY KEY (food_id, stars, slot),
+    CONSTRAINT fk_food_rating_histogram_food FOREIGN KEY (food_id) REFERENCES food (id) ON DELETE CASCADE,
+    CONSTRAINT chk_food_rating_histogram_stars CHECK (stars BETWEEN 1 AND 5)
+);
+
+INSERT INTO food_rating_histogram (food_id, stars, slot, votes)
+SELECT food_id, rating, 0, COUNT(*)
+FROM ratings
+GROUP BY food_id, rating;
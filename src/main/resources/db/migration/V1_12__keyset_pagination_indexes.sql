@@ -0,0 +1,4 @@
+CREATE INDEX idx_orders_user_order_time ON orders (user_id, order_time DESC, id DESC);
+DROP INDEX idx_order_user;
+
+CREATE INDEX idx_restaurants_active_created ON restaurants (created_date DESC, id DESC) WHERE is_active = true;
@@ -0,0 +1,15 @@
+-- Token of the last batch of buffered votes folded into each food, so a batch retried after it was committed is skipped
+ALTER TABLE food ADD COLUMN rating_fold_token VARCHAR(36);
+
+-- Votes that were committed while Redis could not buffer them, folded into the aggregates from here instead
+CREATE SEQUENCE IF NOT EXISTS food_rating_backlog_sequence START WITH 1 INCREMENT BY 50 NO MINVALUE NO MAXVALUE CACHE 1;
+
+CREATE TABLE food_rating_backlog (
+    id BIGINT NOT NULL,
+    food_id BIGINT NOT NULL,
+    delta BIGINT NOT NULL,
+    votes INTEGER NOT NULL,
+    recorded_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_food_rating_backlog PRIMARY KEY (id),
+    CONSTRAINT fk_food_rating_backlog_food FOREIGN KEY (food_id) REFERENCES food (id) ON DELETE CASCADE
+);
@@ -0,0 +1,2 @@
+CREATE INDEX idx_food_last_modified ON food (last_modified_date);
+CREATE INDEX idx_comments_created ON comments (created_date);
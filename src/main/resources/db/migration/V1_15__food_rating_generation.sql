@@ -0,0 +1,5 @@
+-- Fold tokens are prefixed with the generation of rating buffers they were drained from
+ALTER TABLE food ALTER COLUMN rating_fold_token TYPE VARCHAR(64);
+
+-- Generation of the buffers a backlogged vote was meant for; null when it was written together with the vote
+ALTER TABLE food_rating_backlog ADD COLUMN generation BIGINT;
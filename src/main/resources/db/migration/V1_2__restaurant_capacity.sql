@@ -0,0 +1,6 @@
+ALTER TABLE restaurants ADD COLUMN capacity INTEGER NOT NULL DEFAULT 1;
+
+ALTER TABLE orders ADD COLUMN courier_id BIGINT;
+ALTER TABLE orders ADD CONSTRAINT fk_order_courier FOREIGN KEY (courier_id) REFERENCES couriers(id);
+
+CREATE INDEX idx_courier_restaurant ON couriers (restaurant_id);
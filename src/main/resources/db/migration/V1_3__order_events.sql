@@ -0,0 +1,12 @@
+CREATE SEQUENCE IF NOT EXISTS order_event_sequence START WITH 1 INCREMENT BY 1 NO MINVALUE NO MAXVALUE CACHE 1;
+
+CREATE TABLE order_events (
+   id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    user_id BIGINT NOT NULL,
+    restaurant_id BIGINT NOT NULL,
+    occurred_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_order_events PRIMARY KEY (id)
+);
@@ -0,0 +1,32 @@
+-- Entities now take ids from the sequences in blocks of 50 (pooled-lo): each nextval hands out [value, value + 49].
+-- Every sequence is moved past the ids already in use so the first block cannot collide with existing rows.
+
+ALTER SEQUENCE user_sequence INCREMENT BY 50;
+SELECT setval('user_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users), (SELECT last_value FROM user_sequence)));
+
+ALTER SEQUENCE address_sequence INCREMENT BY 50;
+SELECT setval('address_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM addresses), (SELECT last_value FROM address_sequence)));
+
+ALTER SEQUENCE order_sequence INCREMENT BY 50;
+SELECT setval('order_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM orders), (SELECT last_value FROM order_sequence)));
+
+ALTER SEQUENCE order_items_sequence INCREMENT BY 50;
+SELECT setval('order_items_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM order_items), (SELECT last_value FROM order_items_sequence)));
+
+ALTER SEQUENCE restaurant_sequence INCREMENT BY 50;
+SELECT setval('restaurant_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM restaurants), (SELECT last_value FROM restaurant_sequence)));
+
+ALTER SEQUENCE food_sequence INCREMENT BY 50;
+SELECT setval('food_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM food), (SELECT last_value FROM food_sequence)));
+
+ALTER SEQUENCE courier_sequence INCREMENT BY 50;
+SELECT setval('courier_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM couriers), (SELECT last_value FROM courier_sequence)));
+
+ALTER SEQUENCE rating_sequence INCREMENT BY 50;
+SELECT setval('rating_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM ratings), (SELECT last_value FROM rating_sequence)));
+
+ALTER SEQUENCE comment_sequence INCREMENT BY 50;
+SELECT setval('comment_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM comments), (SELECT last_value FROM comment_sequence)));
+
+ALTER SEQUENCE order_event_sequence INCREMENT BY 50;
+SELECT setval('order_event_sequence', GREATEST((SELECT COALESCE(MAX(id), 0) FROM order_events), (SELECT last_value FROM order_event_sequence)));
@@ -0,0 +1 @@
+CREATE INDEX idx_orders_status_estimated_delivery ON orders (status, estimated_delivery_time);
@@ -0,0 +1,4 @@
+ALTER TABLE orders ALTER COLUMN restaurant_id DROP NOT NULL;
+ALTER TABLE order_events ALTER COLUMN restaurant_id DROP NOT NULL;
+
+CREATE INDEX idx_orders_pending_dispatch ON orders (order_time) WHERE status = 'PENDING' AND restaurant_id IS NULL;
@@ -0,0 +1,51 @@
+ALTER TABLE addresses ADD COLUMN geohash VARCHAR(12);
+
+CREATE FUNCTION pg_temp.geohash_encode(lat DOUBLE PRECISION, lon DOUBLE PRECISION, hash_length INT) RETURNS VARCHAR AS $$
+DECLARE
+    base32 CONSTANT TEXT := '0123456789bcdefghjkmnpqrstuvwxyz';
+    min_lat DOUBLE PRECISION := -90;
+    max_lat DOUBLE PRECISION := 90;
+    min_lon DOUBLE PRECISION := -180;
+    max_lon DOUBLE PRECISION := 180;
+    mid DOUBLE PRECISION;
+    hash TEXT := '';
+    lon_bit BOOLEAN := TRUE;
+    bits INT := 0;
+    value INT := 0;
+BEGIN
+    WHILE length(hash) < hash_length LOOP
+        IF lon_bit THEN
+            mid := (min_lon + max_lon) / 2;
+            IF lon >= mid THEN
+                value := value * 2 + 1;
+                min_lon := mid;
+            ELSE
+                value := value * 2;
+                max_lon := mid;
+            END IF;
+        ELSE
+            mid := (min_lat + max_lat) / 2;
+            IF lat >= mid THEN
+                value := value * 2 + 1;
+                min_lat := mid;
+            ELSE
+                value := value * 2;
+                max_lat := mid;
+            END IF;
+        END IF;
+        lon_bit := NOT lon_bit;
+        bits := bits + 1;
+        IF bits = 5 THEN
+            hash := hash || substr(base32, value + 1, 1);
+            bits := 0;
+            value := 0;
+        END IF;
+    END LOOP;
+    RETURN hash;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+UPDATE addresses SET geohash = pg_temp.geohash_encode(latitude, longitude, 12)
+WHERE latitude IS NOT NULL AND longitude IS NOT NULL;
+
+CREATE INDEX idx_address_geohash ON addresses (geohash varchar_pattern_ops);
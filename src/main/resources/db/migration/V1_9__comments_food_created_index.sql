@@ -0,0 +1,2 @@
+CREATE INDEX idx_comments_food_created ON comments (food_id, created_date DESC, id DESC);
+DROP INDEX idx_comments_food_id;
@@ -4,11 +4,20 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jayway.jsonpath.JsonPath;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.fasterxml.jackson.databind.PropertyNamingStrategies.LOWER_CAMEL_CASE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * @author Nelson Tanko
@@ -28,4 +37,30 @@ public class BaseWebIntegrationTest {
     protected static String toJSON(final Object object) throws JsonProcessingException {
         return defaultObjectMapper.writeValueAsString(object);
     }
+
+    /**
+     * Follows the {@code Link} header of a keyset-paginated endpoint from its first page to its last, collecting the
+     * ids of every row in the order they were served
+     */
+    protected List<Long> scrollAllIds(String path, int size) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        for (int pages = 0; pages < 100; pages++) {
+            MvcResult result = mockMvc.perform(cursor == null
+                            ? get(path).param("size", String.valueOf(size))
+                            : get(path).param("size", String.valueOf(size)).param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            List<Number> page = JsonPath.read(result.getResponse().getContentAsString(), "$[*].id");
+            page.forEach(id -> ids.add(id.longValue()));
+
+            String link = result.getResponse().getHeader(HttpHeaders.LINK);
+            if (link == null) {
+                return ids;
+            }
+            cursor = UriComponentsBuilder.fromUriString(link.substring(1, link.indexOf('>')))
+                    .build().getQueryParams().getFirst("cursor");
+        }
+        throw new AssertionError("Scrolling " + path + " did not reach a last page");
+    }
 }
@@ -20,6 +20,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -212,6 +213,25 @@ public class UserResourceIT extends BaseWebIntegrationTest {
                 .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
     }
 
+    @Test
+    @Transactional
+    void scrollAllUsers_WalksEveryUserOnceInIdOrder() throws Exception {
+        // Given
+        List<Long> createdIds = new ArrayList<>();
+        for (String email : List.of(DEFAULT_EMAIL, UPDATED_EMAIL, "anotherlogin@e.com")) {
+            User created = createEntity();
+            created.setEmail(email);
+            createdIds.add(userAccountRepository.saveAndFlush(created).getId());
+        }
+
+        // When
+        List<Long> scrolled = scrollAllIds("/api/admin/users/scroll", 2);
+
+        // Then
+        assertThat(scrolled).isSorted().doesNotHaveDuplicates().containsAll(createdIds);
+        assertThat(scrolled).hasSize((int) userAccountRepository.count());
+    }
+
     @Test
     @Transactional
     void getUser() throws Exception {
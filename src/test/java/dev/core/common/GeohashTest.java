@@ -0,0 +1,63 @@
+package dev.core.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeohashTest {
+
+    @Test
+    void encode_MatchesReferenceHashes() {
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(42.6, -5.6, 5)).isEqualTo("ezs42");
+        assertThat(Geohash.encode(-25.382708, -49.265506, 12)).startsWith("6gkzwgjzn820");
+    }
+
+    @Test
+    void encode_RejectsOutOfRangePrecision() {
+        assertThatThrownBy(() -> Geohash.encode(0, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Geohash.encode(0, 0, 13)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decode_ContainsTheEncodedPoint() {
+        // Given
+        String hash = Geohash.encode(9.0765, 7.3986, 7);
+
+        // When
+        Geohash.Bounds cell = Geohash.decode(hash);
+
+        // Then
+        assertThat(cell.minLatitude()).isLessThanOrEqualTo(9.0765);
+        assertThat(cell.maxLatitude()).isGreaterThan(9.0765);
+        assertThat(cell.minLongitude()).isLessThanOrEqualTo(7.3986);
+        assertThat(cell.maxLongitude()).isGreaterThan(7.3986);
+    }
+
+    @Test
+    void neighbourhood_CoversPointsWithinTheRadius() {
+        // Given
+        double radiusKm = 3;
+        int precision = Geohash.precisionFor(radiusKm, 9.0765);
+
+        // When
+        var cells = Geohash.neighbourhood(9.0765, 7.3986, precision);
+
+        // Then
+        assertThat(cells).hasSize(9);
+        assertThat(cells).anyMatch(Geohash.encode(9.0765 + 0.025, 7.3986, Geohash.MAX_PRECISION)::startsWith);
+        assertThat(cells).anyMatch(Geohash.encode(9.0765, 7.3986 - 0.025, Geohash.MAX_PRECISION)::startsWith);
+        assertThat(cells).anyMatch(Geohash.encode(9.0765 - 0.02, 7.3986 + 0.02, Geohash.MAX_PRECISION)::startsWith);
+    }
+
+    @Test
+    void around_KeepsTheCircleInsideTheBox() {
+        // When
+        Geohash.Bounds box = Geohash.Bounds.around(60, 10, 10);
+
+        // Then
+        assertThat(box.maxLatitude() - 60).isGreaterThanOrEqualTo(10 / 111.32);
+        assertThat(box.maxLongitude() - 10).isGreaterThan(10 / 111.32 * 2);
+    }
+}
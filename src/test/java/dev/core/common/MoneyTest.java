@@ -0,0 +1,53 @@
+package dev.core.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void of_RoundsHalfEvenToMinorUnits() {
+        assertThat(Money.of("12.345").minor()).isEqualTo(1234);
+        assertThat(Money.of("12.355").minor()).isEqualTo(1236);
+        assertThat(Money.of("-0.005").minor()).isZero();
+        assertThat(Money.of(new BigDecimal("7")).minor()).isEqualTo(700);
+    }
+
+    @Test
+    void toBigDecimal_AlwaysHasTwoDecimalPlaces() {
+        assertThat(Money.of("12.5").toBigDecimal()).isEqualByComparingTo("12.50").hasScaleOf(2);
+        assertThat(Money.ZERO.toBigDecimal()).hasScaleOf(2);
+    }
+
+    @Test
+    void arithmetic_MatchesBigDecimal() {
+        // Given
+        Money price = Money.of("12.99");
+
+        // When
+        Money total = price.times(3).plus(Money.of("0.03")).minus(Money.of("1.00"));
+
+        // Then
+        BigDecimal expected = new BigDecimal("12.99").multiply(BigDecimal.valueOf(3))
+                .add(new BigDecimal("0.03")).subtract(new BigDecimal("1.00"));
+        assertThat(total.toBigDecimal()).isEqualTo(expected);
+    }
+
+    @Test
+    void arithmetic_OverflowThrowsInsteadOfWrapping() {
+        Money large = Money.ofMinor(Long.MAX_VALUE / 2 + 1);
+
+        assertThatThrownBy(() -> large.times(2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> large.plus(large)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void equality_IgnoresTrailingZerosOfTheSource() {
+        assertThat(Money.of("5")).isEqualTo(Money.of("5.00")).hasSameHashCodeAs(Money.of("5.0"));
+        assertThat(Money.of("5.01")).isGreaterThan(Money.of("5"));
+    }
+}
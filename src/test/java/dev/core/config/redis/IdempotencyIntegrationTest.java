@@ -0,0 +1,174 @@
+package dev.core.config.redis;
+
+import dev.BaseWebIntegrationTest;
+import dev.WithFoodyUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class IdempotencyIntegrationTest extends BaseWebIntegrationTest {
+
+    @Autowired private RedisTemplate<String, String> redisTemplate;
+
+    @BeforeEach
+    void setUp() {
+        SampleController.invocations.set(0);
+        SampleController.entered = new CountDownLatch(1);
+        SampleController.release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        Set<String> keys = redisTemplate.keys("idempotency:*");
+        if (keys != null && !keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+    }
+
+    @Test
+    @WithFoodyUser
+    void duplicateRequest_ReplaysFirstResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/counter").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key))
+                .andExpect(status().isCreated())
+                .andExpect(content().string("Invocation 1"))
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        mockMvc.perform(post("/api/counter").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key))
+                .andExpect(status().isCreated())
+                .andExpect(content().string("Invocation 1"))
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+
+        assertThat(SampleController.invocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    @WithFoodyUser
+    void differentKeys_AreProcessedIndependently() throws Exception {
+        mockMvc.perform(post("/api/counter").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString()))
+                .andExpect(content().string("Invocation 1"));
+        mockMvc.perform(post("/api/counter").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString()))
+                .andExpect(content().string("Invocation 2"));
+
+        assertThat(SampleController.invocations.get()).isEqualTo(2);
+    }
+
+    @Test
+    @WithFoodyUser
+    void requestWithoutKey_IsNotDeduplicated() throws Exception {
+        mockMvc.perform(post("/api/counter")).andExpect(content().string("Invocation 1"));
+        mockMvc.perform(post("/api/counter")).andExpect(content().string("Invocation 2"));
+    }
+
+    @Test
+    @WithFoodyUser
+    void serverError_IsNotStored() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/failing").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key))
+                .andExpect(status().isInternalServerError());
+        mockMvc.perform(post("/api/failing").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        assertThat(SampleController.invocations.get()).isEqualTo(2);
+    }
+
+    @Test
+    @WithFoodyUser
+    void sameKeyWithDifferentBody_IsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/echo").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.TEXT_PLAIN).content("two pizzas"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/echo").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.TEXT_PLAIN).content("three pizzas"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+
+        assertThat(SampleController.invocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    @WithFoodyUser
+    void duplicateRequest_ReplaysStoredHeaders() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(post("/api/echo").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.TEXT_PLAIN).content("two pizzas"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/echo/1"));
+
+        mockMvc.perform(post("/api/echo").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key)
+                        .contentType(MediaType.TEXT_PLAIN).content("two pizzas"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/echo/1"))
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().string("two pizzas"));
+
+        assertThat(SampleController.invocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    @WithFoodyUser
+    void concurrentRequestsWithSameKey_RunOnceAndTheDuplicateIsToldToRetry() throws Exception {
+        // Given
+        String key = UUID.randomUUID().toString();
+        Authentication user = SecurityContextHolder.getContext().getAuthentication();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            CompletableFuture<MvcResult> first = CompletableFuture.supplyAsync(() -> perform(
+                    post("/api/slow").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key).with(authentication(user))), executor);
+            assertThat(SampleController.entered.await(10, TimeUnit.SECONDS)).isTrue();
+
+            // When
+            mockMvc.perform(post("/api/slow").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key))
+                    .andExpect(status().isConflict())
+                    .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+            SampleController.release.countDown();
+
+            // Then
+            assertThat(first.get(10, TimeUnit.SECONDS).getResponse().getStatus()).isEqualTo(201);
+            mockMvc.perform(post("/api/slow").header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key))
+                    .andExpect(status().isCreated())
+                    .andExpect(content().string("Finally done"))
+                    .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"));
+            assertThat(SampleController.invocations.get()).isEqualTo(1);
+        } finally {
+            SampleController.release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private MvcResult perform(RequestBuilder request) {
+        try {
+            return mockMvc.perform(request).andReturn();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
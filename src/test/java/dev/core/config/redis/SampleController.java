@@ -2,14 +2,26 @@ package dev.core.config.redis;
 
 
 import dev.services.common.RateLimit;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @RestController
 @RequestMapping("/api")
 public class SampleController {
 
+    static final AtomicInteger invocations = new AtomicInteger();
+    static volatile CountDownLatch entered = new CountDownLatch(1);
+    static volatile CountDownLatch release = new CountDownLatch(1);
+
     @GetMapping("/public")
     public String publicEndpoint() {
         return "This is a public endpoint with no rate limiting";
@@ -32,4 +44,29 @@ public class SampleController {
     public String userLimitedEndpoint() {
         return "This endpoint is limited to 20 requests per minute per user";
     }
-}
\ No newline at end of file
+
+    @PostMapping("/counter")
+    public ResponseEntity<String> incrementCounter() {
+        return ResponseEntity.status(201).body("Invocation " + invocations.incrementAndGet());
+    }
+
+    @PostMapping("/failing")
+    public ResponseEntity<String> failingEndpoint() {
+        invocations.incrementAndGet();
+        return ResponseEntity.internalServerError().body("Something went wrong");
+    }
+
+    @PostMapping("/echo")
+    public ResponseEntity<String> createEcho(@RequestBody String body) {
+        int invocation = invocations.incrementAndGet();
+        return ResponseEntity.created(URI.create("/api/echo/" + invocation)).body(body);
+    }
+
+    @PostMapping("/slow")
+    public ResponseEntity<String> slowEndpoint() throws InterruptedException {
+        invocations.incrementAndGet();
+        entered.countDown();
+        release.await(10, TimeUnit.SECONDS);
+        return ResponseEntity.status(201).body("Finally done");
+    }
+}
@@ -0,0 +1,83 @@
+package dev.core.config.redis;
+
+import dev.BaseWebIntegrationTest;
+import dev.services.common.CacheService;
+import dev.services.common.CacheTagger;
+import dev.services.food.FoodDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Nelson Tanko
+ */
+class TaggedCacheIT extends BaseWebIntegrationTest {
+
+    @Autowired CacheManager cacheManager;
+    @Autowired CacheService cacheService;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache("food");
+        cache.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        cache.clear();
+    }
+
+    @Test
+    void evictByTag_EvictsOnlyEntriesShowingTheFood() {
+        // Given
+        FoodDTO.Response jollof = FoodDTO.Response.builder().id(1L).name("Jollof").build();
+        FoodDTO.Response suya = FoodDTO.Response.builder().id(2L).name("Suya").build();
+        SimpleKey jollofKey = new SimpleKey(1L, 5);
+        SimpleKey suyaKey = new SimpleKey(2L, 5);
+        SimpleKey jollofPageKey = new SimpleKey(PageRequest.of(0, 1), 5);
+        SimpleKey suyaPageKey = new SimpleKey(PageRequest.of(1, 1), 5);
+        cache.put(jollofKey, jollof);
+        cache.put(suyaKey, suya);
+        cache.put(jollofPageKey, new PageImpl<>(List.of(jollof), PageRequest.of(0, 1), 2));
+        cache.put(suyaPageKey, new PageImpl<>(List.of(suya), PageRequest.of(1, 1), 2));
+
+        // When
+        cacheService.evictByTag("food", CacheTagger.idTag(1L));
+
+        // Then
+        assertThat(cache).isInstanceOf(TaggedCache.class);
+        assertThat(cache.get(jollofKey)).isNull();
+        assertThat(cache.get(jollofPageKey)).isNull();
+        assertThat(cache.get(suyaKey)).isNotNull();
+        assertThat(cache.get(suyaPageKey)).isNotNull();
+    }
+
+    @Test
+    void evictByTag_ListTagEvictsEveryPageButNoDetail() {
+        // Given
+        FoodDTO.Response jollof = FoodDTO.Response.builder().id(1L).name("Jollof").build();
+        SimpleKey jollofKey = new SimpleKey(1L, 5);
+        SimpleKey pageKey = new SimpleKey(PageRequest.of(0, 10), 5);
+        cache.put(jollofKey, jollof);
+        cache.put(pageKey, new PageImpl<>(List.of(jollof), PageRequest.of(0, 10), 1));
+
+        // When
+        cacheService.evictByTag("food", CacheTagger.LIST_TAG);
+
+        // Then
+        assertThat(cache.get(pageKey)).isNull();
+        assertThat(cache.get(jollofKey)).isNotNull();
+    }
+}
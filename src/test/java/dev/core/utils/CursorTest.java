@@ -0,0 +1,73 @@
+package dev.core.utils;
+
+import dev.core.exception.GenericApiException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorTest {
+
+    @Test
+    void encode_RoundTripsTheSortKeyAndId() {
+        // Given
+        Cursor cursor = new Cursor(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000), 42L);
+
+        // When
+        String token = cursor.encode();
+
+        // Then
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(Cursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void encode_RoundTripsIdOnlyCursors() {
+        Cursor cursor = Cursor.of(7L);
+
+        assertThat(Cursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThatThrownBy(cursor::requireSortKey).isInstanceOf(GenericApiException.class);
+    }
+
+    @Test
+    void decode_MissingTokenIsTheFirstPage() {
+        assertThat(Cursor.decode(null)).isNull();
+        assertThat(Cursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void decode_RejectsTamperedTokens() {
+        assertThatThrownBy(() -> Cursor.decode("not-a-cursor")).isInstanceOf(GenericApiException.class);
+        assertThatThrownBy(() -> Cursor.decode("%%%")).isInstanceOf(GenericApiException.class);
+        String badDate = Base64.getUrlEncoder().encodeToString("yesterday|3".getBytes());
+        assertThatThrownBy(() -> Cursor.decode(badDate)).isInstanceOf(GenericApiException.class);
+    }
+
+    @Test
+    void cursorPage_PointsTheNextCursorAtTheLastRowShown() {
+        // Given
+        List<Long> window = List.of(9L, 8L, 7L);
+
+        // When
+        CursorPage<String> page = CursorPage.of(window, 2, Cursor::of, id -> "food-" + id);
+
+        // Then
+        assertThat(page.getContent()).containsExactly("food-9", "food-8");
+        assertThat(page.hasNext()).isTrue();
+        assertThat(Cursor.decode(page.getNextCursor())).isEqualTo(Cursor.of(8L));
+    }
+
+    @Test
+    void cursorPage_HasNoNextCursorOnTheLastPage() {
+        CursorPage<Long> page = CursorPage.of(List.of(2L, 1L), 2, Cursor::of, Function.identity());
+
+        assertThat(page.getContent()).containsExactly(2L, 1L);
+        assertThat(page.hasNext()).isFalse();
+        assertThat(CursorPage.window(500).getPageSize()).isEqualTo(CursorPage.MAX_SIZE + 1);
+    }
+}
@@ -1,6 +1,7 @@
 package dev.services;
 
 import dev.account.user.*;
+import dev.core.common.Money;
 import dev.services.comment.Comment;
 import dev.services.comment.CommentRepository;
 import dev.services.food.Food;
@@ -11,7 +12,9 @@ import dev.services.rating.RatingRepository;
 import dev.services.restaurant.*;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -35,6 +38,7 @@ public class TestDataHelper {
     @Autowired OrderRepository orderRepository;
     @Autowired private AddressRepository addressRepository;
     @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
 
     public void clearData() {
         commentRepository.deleteAll();
@@ -83,9 +87,8 @@ public class TestDataHelper {
                 .name("Tasty Bites courier")
                 .restaurant(restaurant)
                 .build();
-        restaurant.setCourier(courier);
+        restaurant.addCourier(courier);
 
-        courierRepository.save(courier);
         return restaurantRepository.saveAndFlush(restaurant);
     }
 
@@ -95,7 +98,7 @@ public class TestDataHelper {
                 .email("tasty@abuja.ng")
                 .phoneNumber("07070888905")
                 .address(createAddressRequest())
-                .courier(createCourierRequest())
+                .couriers(List.of(createCourierRequest()))
                 .build();
     }
 
@@ -111,7 +114,7 @@ public class TestDataHelper {
         Food food = Food.builder()
                 .name("Pizza Margherita")
                 .description("Classic Italian pizza")
-                .price(new BigDecimal("12.99"))
+                .price(Money.of("12.99"))
                 .available(true)
                 .build();
         return foodRepository.saveAndFlush(food);
@@ -132,7 +135,7 @@ public class TestDataHelper {
         Food food = Food.builder()
                 .name(name)
                 .description(description)
-                .price(price)
+                .price(Money.of(price))
                 .available(available)
                 .build();
         foodRepository.saveAndFlush(food);
@@ -175,6 +178,30 @@ public class TestDataHelper {
 //        return orderRepository.save(order);
 //    }
 
+    /**
+     * Gives every order of the user the same order time, so only the id tells them apart
+     */
+    @Transactional
+    public void setOrderTimes(User user, LocalDateTime orderTime) {
+        jdbcTemplate.update("UPDATE orders SET order_time = ? WHERE user_id = ?", orderTime, user.getId());
+    }
+
+    /**
+     * Gives every restaurant the same creation date, which the auditing columns otherwise never allow
+     */
+    @Transactional
+    public void setRestaurantCreatedDates(LocalDateTime createdDate) {
+        jdbcTemplate.update("UPDATE restaurants SET created_date = ?", createdDate);
+    }
+
+    /**
+     * Marks the restaurant inactive behind the entity's back, as it is always persisted active
+     */
+    @Transactional
+    public void deactivateRestaurant(Long restaurantId) {
+        jdbcTemplate.update("UPDATE restaurants SET is_active = false WHERE id = ?", restaurantId);
+    }
+
     public Address createAddress() {
         Address address = Address.builder().city("Abuja").street("123 main").country("Nigeria").latitude(23.44).longitude(238.0).build();
         return addressRepository.saveAndFlush(address);
@@ -185,7 +212,7 @@ public class TestDataHelper {
         order.setUser(user);
         order.setRestaurant(restaurant);
         order.setDeliveryAddress(deliveryAddress);
-        order.setTotalAmount(BigDecimal.ZERO);
+        order.setTotalAmount(Money.ZERO);
         order.setStatus(OrderStatus.DELIVERING);
         order.setOrderTime(LocalDateTime.now());
         order.setEstimatedDeliveryTime(order.getOrderTime().plusMinutes(15));
@@ -193,7 +220,7 @@ public class TestDataHelper {
         order = orderRepository.save(order);
 
         List<OrderItem> orderItems = new ArrayList<>();
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        Money totalAmount = Money.ZERO;
 
 
         OrderItem orderItem = new OrderItem();
@@ -203,7 +230,7 @@ public class TestDataHelper {
         orderItem.setOrder(order);
         orderItems.add(orderItem);
 
-        totalAmount = totalAmount.add(food.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        totalAmount = totalAmount.plus(food.getPrice().times(quantity));
 
         order.setOrderItems(orderItems);
         order.setTotalAmount(totalAmount);
@@ -9,11 +9,15 @@ import dev.services.food.Food;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -110,4 +114,36 @@ class CommentControllerIT extends BaseWebIntegrationTest {
                 .andExpect(jsonPath("$.comments[0].foodId").value(food.getId()))
                 .andExpect(jsonPath("$.comments[0].userId").value(testUser.getId()));
     }
+
+    @Test
+    @WithFoodyUser
+    void scrollCommentsByFoodId_FollowsTheNextLinkToTheLastPage(User testUser) throws Exception {
+        Food food = testDataHelper.createFood();
+        testDataHelper.createFoodsWithComments(food, testUser);
+
+        String link = mockMvc.perform(get("/api/comment/food/{foodId}/scroll?size=1", food.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].content").value("Delicious"))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+                .andReturn().getResponse().getHeader(HttpHeaders.LINK);
+        String cursor = UriComponentsBuilder.fromUriString(link.substring(1, link.indexOf('>')))
+                .build().getQueryParams().getFirst("cursor");
+
+        mockMvc.perform(get("/api/comment/food/{foodId}/scroll?size=1&cursor={cursor}", food.getId(), cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].content").value("Very nice food"))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    @WithFoodyUser
+    void scrollCommentsByFoodId_InvalidCursor_ReturnsBadRequest() throws Exception {
+        Food food = testDataHelper.createFood();
+
+        mockMvc.perform(get("/api/comment/food/{foodId}/scroll?cursor=not-a-cursor", food.getId()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("api.general.invalidCursor"));
+    }
 }
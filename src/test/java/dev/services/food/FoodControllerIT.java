@@ -133,7 +133,7 @@ class FoodControllerIT extends BaseWebIntegrationTest {
                 .andExpect(jsonPath("$.name", is("Pizza Margherita")))
                 .andExpect(jsonPath("$.comments").isArray())
                 .andExpect(jsonPath("$.comments.length()").value(1))
-                .andExpect(jsonPath("$.comments[0].content", is("Very nice food")))
+                .andExpect(jsonPath("$.comments[0].content", is("Delicious")))
                 .andDo(print());
     }
 
@@ -149,8 +149,8 @@ class FoodControllerIT extends BaseWebIntegrationTest {
                 .andExpect(jsonPath("$.name", is("Pizza Margherita")))
                 .andExpect(jsonPath("$.comments").isArray())
                 .andExpect(jsonPath("$.comments.length()").value(2))
-                .andExpect(jsonPath("$.comments[0].content", is("Very nice food")))
-                .andExpect(jsonPath("$.comments[1].content", is("Delicious")))
+                .andExpect(jsonPath("$.comments[0].content", is("Delicious")))
+                .andExpect(jsonPath("$.comments[1].content", is("Very nice food")))
                 .andDo(print());
     }
 
@@ -0,0 +1,82 @@
+package dev.services.food;
+
+import dev.services.common.CacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FoodRatingCountersTest {
+
+    @Mock RedisTemplate<String, String> redisTemplate;
+    @Mock ValueOperations<String, String> valueOperations;
+    @Mock FoodRepository foodRepository;
+    @Mock RatingBacklogRepository ratingBacklogRepository;
+    @Mock CacheService cacheService;
+    @Mock PlatformTransactionManager transactionManager;
+
+    private FoodRatingCounters foodRatingCounters;
+
+    @BeforeEach
+    void setUp() {
+        foodRatingCounters = new FoodRatingCounters(redisTemplate, foodRepository, ratingBacklogRepository, cacheService,
+                transactionManager, 8, 500, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void record_RedisFailure_KeepsTheVoteInTheBacklog() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(FoodRatingCounters.GENERATION_KEY)).thenReturn("3");
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        // When
+        assertThatCode(() -> foodRatingCounters.record(7L, 4, 1)).doesNotThrowAnyException();
+
+        // Then
+        verify(ratingBacklogRepository).save(argThat(entry ->
+                entry.getFoodId() == 7L && entry.getDelta() == 4 && entry.getVotes() == 1 && entry.getGeneration() == 3L));
+    }
+
+    @Test
+    void record_GenerationUnreadable_KeepsTheVoteInTheBacklogWithoutBuffering() {
+        // Given
+        when(redisTemplate.opsForValue()).thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        // When
+        assertThatCode(() -> foodRatingCounters.record(7L, 4, 1)).doesNotThrowAnyException();
+
+        // Then
+        verify(ratingBacklogRepository).save(argThat(entry ->
+                entry.getFoodId() == 7L && entry.getDelta() == 4 && entry.getVotes() == 1 && entry.getGeneration() == null));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void record_BacklogAlsoUnavailable_StillDoesNotFailTheCommittedVote() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"));
+        when(ratingBacklogRepository.save(any())).thenThrow(new IllegalStateException("Database is down"));
+
+        // When / Then
+        assertThatCode(() -> foodRatingCounters.record(7L, -2, 0)).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,203 @@
+package dev.services.food;
+
+import dev.core.common.Money;
+import dev.services.comment.Comment;
+import dev.services.comment.CommentRepository;
+import dev.services.comment.CommentText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FoodSearchIndexTest {
+
+    @Mock FoodRepository foodRepository;
+    @Mock CommentRepository commentRepository;
+
+    private FoodSearchIndex index;
+    private Food jollof;
+    private Food friedRice;
+    private Food suya;
+
+    @BeforeEach
+    void setUp() {
+        index = new FoodSearchIndex(foodRepository, commentRepository, 50);
+        jollof = food(1L, "Jollof Rice", "Smoky party rice cooked in tomato stew");
+        friedRice = food(2L, "Fried Rice", "Rice stir-fried with vegetables and liver");
+        suya = food(3L, "Suya", "Spicy grilled beef skewers");
+    }
+
+    @Test
+    void tokenize_LowerCasesAndSplitsOnPunctuation() {
+        assertThat(FoodSearchIndex.tokenize("Stir-fried, SMOKY rice!")).containsExactly("stir", "fried", "smoky", "rice");
+        assertThat(FoodSearchIndex.tokenize("  ")).isEmpty();
+    }
+
+    @Test
+    void search_RanksNameMatchesAboveDescriptionMatches() {
+        // Given
+        index.refresh(suya);
+        index.refresh(food(4L, "Beef Stew", "Served with rice"));
+        index.refresh(jollof);
+
+        // When
+        List<FoodDTO.SearchResult> results = index.search("rice", 10);
+
+        // Then
+        assertThat(results).extracting(FoodDTO.SearchResult::getId).containsExactly(1L, 4L);
+        assertThat(results.get(0).getScore()).isGreaterThan(results.get(1).getScore());
+    }
+
+    @Test
+    void search_MatchesPrefixesOfIndexedTerms() {
+        // Given
+        index.refresh(jollof);
+        index.refresh(suya);
+
+        // When
+        List<FoodDTO.SearchResult> results = index.search("jol", 10);
+
+        // Then
+        assertThat(results).extracting(FoodDTO.SearchResult::getName).containsExactly("Jollof Rice");
+    }
+
+    @Test
+    void search_PrefersExactTermsOverPrefixExpansions() {
+        // Given
+        index.refresh(food(5L, "Rice Cake", null));
+        index.refresh(food(6L, "Riced Cauliflower", null));
+
+        // When
+        List<FoodDTO.SearchResult> results = index.search("rice", 10);
+
+        // Then
+        assertThat(results).extracting(FoodDTO.SearchResult::getId).containsExactly(5L, 6L);
+    }
+
+    @Test
+    void search_FindsFoodsByCommentText() {
+        // Given
+        index.refresh(jollof);
+        index.refresh(friedRice);
+        index.refresh(comment(10L, friedRice, "Best plantain side in town"));
+
+        // When
+        List<FoodDTO.SearchResult> results = index.search("plantain", 10);
+
+        // Then
+        assertThat(results).extracting(FoodDTO.SearchResult::getId).containsExactly(2L);
+    }
+
+    @Test
+    void refresh_ReindexesRenamedFoodsAndDropsDeletedOnes() {
+        // Given
+        index.refresh(jollof);
+        index.refresh(suya);
+
+        // When
+        jollof.setName("Ofada Rice");
+        index.refresh(jollof);
+        suya.setActive(false);
+        index.refresh(suya);
+
+        // Then
+        assertThat(index.search("jollof", 10)).isEmpty();
+        assertThat(index.search("ofada", 10)).extracting(FoodDTO.SearchResult::getId).containsExactly(1L);
+        assertThat(index.search("suya", 10)).isEmpty();
+    }
+
+    @Test
+    void search_SkipsUnavailableFoodsAndHonoursTheLimit() {
+        // Given
+        friedRice.setAvailable(false);
+        index.refresh(jollof);
+        index.refresh(friedRice);
+        index.refresh(food(7L, "Coconut Rice", null));
+
+        // When
+        List<FoodDTO.SearchResult> results = index.search("rice", 1);
+
+        // Then
+        assertThat(results).hasSize(1);
+        assertThat(index.search("rice", 10)).extracting(FoodDTO.SearchResult::getId).doesNotContain(2L);
+    }
+
+    @Test
+    void rebuild_LoadsFoodsAndCommentsFromTheDatabase() {
+        // Given
+        when(foodRepository.findByActiveTrue()).thenReturn(List.of(jollof, suya));
+        when(commentRepository.findAllTexts()).thenReturn(List.of(new CommentText(10L, 3L, "Perfect with cold zobo")));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.search("zobo", 10)).extracting(FoodDTO.SearchResult::getId).containsExactly(3L);
+        assertThat(index.search("smoky", 10)).extracting(FoodDTO.SearchResult::getId).containsExactly(1L);
+    }
+
+    @Test
+    void rebuild_ReplaysWritesMadeWhileItReadTheDatabase() {
+        // Given
+        Food renamed = food(1L, "Ofada Rice", "Local rice with ayamase sauce");
+        when(foodRepository.findByActiveTrue()).thenAnswer(invocation -> {
+            // Committed after the rebuild read the foods, so the rows it returns are one version behind
+            index.refresh(renamed);
+            return List.of(jollof);
+        });
+        when(commentRepository.findAllTexts()).thenReturn(List.of());
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.search("ofada", 10)).extracting(FoodDTO.SearchResult::getId).containsExactly(1L);
+        assertThat(index.search("jollof", 10)).isEmpty();
+    }
+
+    @Test
+    void refreshChanges_AppliesOnlyWhatChangedSinceTheLastLoad() {
+        // Given
+        when(foodRepository.findByActiveTrue()).thenReturn(List.of(jollof, friedRice));
+        when(commentRepository.findAllTexts()).thenReturn(List.of());
+        index.rebuild();
+        friedRice.setActive(false);
+        when(foodRepository.findByLastModifiedDateGreaterThanEqual(any())).thenReturn(List.of(friedRice, suya));
+        when(commentRepository.findTextsCreatedSince(any())).thenReturn(List.of(new CommentText(11L, 1L, "Best at owambe")));
+        when(commentRepository.findTextsByFoodIdIn(List.of(3L))).thenReturn(List.of(new CommentText(10L, 3L, "Perfect with cold zobo")));
+
+        // When
+        index.refreshChanges();
+
+        // Then
+        assertThat(index.search("rice", 10)).extracting(FoodDTO.SearchResult::getId).containsExactly(1L);
+        assertThat(index.search("zobo", 10)).extracting(FoodDTO.SearchResult::getId).containsExactly(3L);
+        assertThat(index.search("owambe", 10)).extracting(FoodDTO.SearchResult::getId).containsExactly(1L);
+        verify(commentRepository, times(1)).findAllTexts();
+    }
+
+    private static Food food(Long id, String name, String description) {
+        return Food.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .price(Money.of("10.00"))
+                .available(true)
+                .active(true)
+                .build();
+    }
+
+    private static Comment comment(Long id, Food food, String content) {
+        return Comment.builder().id(id).food(food).content(content).build();
+    }
+}
@@ -1,6 +1,11 @@
 package dev.services.food;
 
+import dev.core.common.Money;
 import dev.core.exception.GenericApiException;
+import dev.services.comment.Comment;
+import dev.services.comment.CommentDTO;
+import dev.services.comment.CommentMapper;
+import dev.services.comment.CommentRepository;
 import dev.services.common.CacheService;
 import dev.services.food.FoodDTO.Request;
 import dev.services.food.FoodDTO.Response;
@@ -13,10 +18,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +35,9 @@ class FoodServiceTest {
 
     @Mock FoodMapper foodMapper;
     @Mock CacheService cacheService;
+    @Mock FoodSearchIndex foodSearchIndex;
+    @Mock CommentRepository commentRepository;
+    @Mock CommentMapper commentMapper;
     @InjectMocks FoodService foodService;
 
     private Food food;
@@ -39,7 +51,7 @@ class FoodServiceTest {
                 .id(1L)
                 .name("Pizza Margherita")
                 .description("Classic Italian pizza")
-                .price(new BigDecimal("12.99"))
+                .price(Money.of("12.99"))
                 .available(true)
                 .build();
 
@@ -158,7 +170,7 @@ class FoodServiceTest {
     void getFoodById_Success() {
         // Given
         when(foodRepository.findById(anyLong())).thenReturn(Optional.of(food));
-        when(foodMapper.toDto(any(Food.class))).thenReturn(foodResponse);
+        when(foodMapper.toDtoWithoutComments(any(Food.class))).thenReturn(foodResponse);
 
         // When
         Response result = foodService.getFoodById(1L, 1);
@@ -166,9 +178,44 @@ class FoodServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(foodResponse.getId(), result.getId());
+        assertEquals(List.of(), result.getComments());
 
         verify(foodRepository, times(1)).findById(1L);
-        verify(foodMapper, times(1)).toDto(food);
+        verify(foodMapper, times(1)).toDtoWithoutComments(food);
+        verify(foodMapper, never()).toDto(any(Food.class));
+    }
+
+    @Test
+    void getFoodById_LoadsOnlyTheRequestedComments() {
+        // Given
+        Comment comment = Comment.builder().id(7L).food(food).content("Very nice food").build();
+        CommentDTO.Response commentResponse = new CommentDTO.Response(7L, 1L, 3L, "Very nice food", "Ada", null);
+        when(foodRepository.findById(anyLong())).thenReturn(Optional.of(food));
+        when(foodMapper.toDtoWithoutComments(any(Food.class))).thenReturn(foodResponse);
+        when(commentRepository.findLatestIdsByFoodIds(anyCollection(), eq(2))).thenReturn(List.of(7L));
+        when(commentRepository.findWithUserByIds(List.of(7L))).thenReturn(List.of(comment));
+        when(commentMapper.toDto(comment)).thenReturn(commentResponse);
+
+        // When
+        Response result = foodService.getFoodById(1L, 2);
+
+        // Then
+        assertEquals(List.of(commentResponse), result.getComments());
+        verify(commentRepository, times(1)).findLatestIdsByFoodIds(argThat(ids -> ids.contains(1L)), eq(2));
+    }
+
+    @Test
+    void getFoodById_ZeroCommentCount_SkipsTheCommentQuery() {
+        // Given
+        when(foodRepository.findById(anyLong())).thenReturn(Optional.of(food));
+        when(foodMapper.toDtoWithoutComments(any(Food.class))).thenReturn(foodResponse);
+
+        // When
+        Response result = foodService.getFoodById(1L, 0);
+
+        // Then
+        assertEquals(List.of(), result.getComments());
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
@@ -180,6 +227,68 @@ class FoodServiceTest {
         assertThrows(GenericApiException.class, () -> foodService.getFoodById(1L, 1));
 
         verify(foodRepository, times(1)).findById(1L);
-        verify(foodMapper, never()).toDto(any(Food.class));
+        verify(foodMapper, never()).toDtoWithoutComments(any(Food.class));
+    }
+
+    @Test
+    void getFoodById_AttachesTheRatingHistogram() {
+        // Given
+        when(foodRepository.findById(anyLong())).thenReturn(Optional.of(food));
+        when(foodMapper.toDtoWithoutComments(any(Food.class))).thenReturn(foodResponse);
+        when(foodRepository.findRatingBuckets(anyCollection())).thenReturn(List.of(bucket(1L, 5, 3L), bucket(1L, 2, 1L)));
+
+        // When
+        Response result = foodService.getFoodById(1L, 0);
+
+        // Then
+        assertEquals(3L, result.getRatingHistogram().getFiveStars());
+        assertEquals(1L, result.getRatingHistogram().getTwoStars());
+        assertEquals(0L, result.getRatingHistogram().getOneStar());
+        verify(foodRepository, times(1)).findRatingBuckets(argThat(ids -> ids.contains(1L)));
+    }
+
+    @Test
+    void getRatingHistogram_AddsUpTheCountersOfEachStar() {
+        // Given
+        when(foodRepository.findById(anyLong())).thenReturn(Optional.of(food));
+        when(foodRepository.findRatingBuckets(List.of(1L))).thenReturn(List.of(bucket(1L, 4, 2L), bucket(1L, 1, 7L)));
+
+        // When
+        FoodDTO.RatingHistogram result = foodService.getRatingHistogram(1L);
+
+        // Then
+        assertEquals(1L, result.getFoodId());
+        assertEquals(7L, result.getOneStar());
+        assertEquals(2L, result.getFourStars());
+        assertEquals(0L, result.getFiveStars());
+    }
+
+    @Test
+    void getRatingHistogram_NotFound_ThrowsException() {
+        // Given
+        when(foodRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(GenericApiException.class, () -> foodService.getRatingHistogram(1L));
+        verify(foodRepository, never()).findRatingBuckets(anyCollection());
+    }
+
+    private static RatingBucket bucket(Long foodId, int stars, long votes) {
+        return new RatingBucket() {
+            @Override
+            public Long getFoodId() {
+                return foodId;
+            }
+
+            @Override
+            public Integer getStars() {
+                return stars;
+            }
+
+            @Override
+            public Long getVotes() {
+                return votes;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,62 @@
+package dev.services.order;
+
+import dev.account.user.Address;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solver cost for one dispatch window: orders and restaurant seats scattered over a city, priced by Haversine distance.
+ * Run with {@code main} from the IDE or the test classpath; it is not part of the test suite.
+ *
+ * @author Nelson Tanko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AssignmentSolverBenchmark {
+
+    @Param({"100", "500", "1000"})
+    int size;
+
+    private double[][] cost;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double[][] orders = randomPoints(random, size);
+        double[][] seats = randomPoints(random, size);
+        cost = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                cost[i][j] = Address.distanceBetween(orders[i][0], orders[i][1], seats[j][0], seats[j][1]);
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] solve() {
+        return AssignmentSolver.solve(cost);
+    }
+
+    // Roughly a 20 km square around Lagos
+    private static double[][] randomPoints(Random random, int count) {
+        double[][] points = new double[count][2];
+        for (double[] point : points) {
+            point[0] = 6.45 + random.nextDouble() * 0.18;
+            point[1] = 3.35 + random.nextDouble() * 0.18;
+        }
+        return points;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AssignmentSolverBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,127 @@
+package dev.services.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssignmentSolverTest {
+
+    @Test
+    void solve_SquareMatrix_FindsMinimumTotalCost() {
+        // Given
+        double[][] cost = {
+                {4, 1, 3},
+                {2, 0, 5},
+                {3, 2, 2}
+        };
+
+        // When
+        int[] assignment = AssignmentSolver.solve(cost);
+
+        // Then
+        assertThat(assignment).containsExactly(1, 0, 2);
+        assertThat(totalCost(cost, assignment)).isEqualTo(5);
+    }
+
+    @Test
+    void solve_BeatsGreedyWhenFirstComerTakesTheSharedFavourite() {
+        // Given
+        // Row 0 slightly prefers column 0, but row 1 has nowhere else close to go
+        double[][] cost = {
+                {0.9, 1.1},
+                {1.0, 3.0}
+        };
+
+        // When
+        int[] assignment = AssignmentSolver.solve(cost);
+
+        // Then
+        assertThat(assignment).containsExactly(1, 0);
+    }
+
+    @Test
+    void solve_MoreRowsThanColumns_LeavesSurplusRowsUnassigned() {
+        // Given
+        double[][] cost = {
+                {5, 9},
+                {1, 8},
+                {7, 2}
+        };
+
+        // When
+        int[] assignment = AssignmentSolver.solve(cost);
+
+        // Then
+        assertThat(assignment).containsExactly(-1, 0, 1);
+    }
+
+    @Test
+    void solve_MoreColumnsThanRows_AssignsEveryRow() {
+        // Given
+        double[][] cost = {
+                {9, 9, 1, 9},
+                {9, 2, 9, 9}
+        };
+
+        // When
+        int[] assignment = AssignmentSolver.solve(cost);
+
+        // Then
+        assertThat(assignment).containsExactly(2, 1);
+    }
+
+    @Test
+    void solve_MatchesBruteForceOnRandomMatrices() {
+        // Given
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int rows = 1 + random.nextInt(6);
+            int columns = 1 + random.nextInt(6);
+            double[][] cost = new double[rows][columns];
+            for (double[] row : cost) {
+                for (int j = 0; j < columns; j++) {
+                    row[j] = random.nextInt(100);
+                }
+            }
+
+            // When
+            int[] assignment = AssignmentSolver.solve(cost);
+
+            // Then
+            assertThat(assignment).hasSize(rows);
+            assertThat(Arrays.stream(assignment).filter(column -> column >= 0)).doesNotHaveDuplicates();
+            assertThat(totalCost(cost, assignment)).isEqualTo(bruteForce(cost, 0, new boolean[columns], rows - Math.min(rows, columns)));
+        }
+    }
+
+    private static double totalCost(double[][] cost, int[] assignment) {
+        double total = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            if (assignment[i] >= 0) {
+                total += cost[i][assignment[i]];
+            }
+        }
+        return total;
+    }
+
+    private static double bruteForce(double[][] cost, int row, boolean[] used, int skipsLeft) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        if (skipsLeft > 0) {
+            best = bruteForce(cost, row + 1, used, skipsLeft - 1);
+        }
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, used, skipsLeft));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+}
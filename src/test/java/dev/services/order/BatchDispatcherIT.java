@@ -0,0 +1,158 @@
+package dev.services.order;
+
+import dev.BaseWebIntegrationTest;
+import dev.WithFoodyUser;
+import dev.account.user.Address;
+import dev.account.user.AddressRepository;
+import dev.account.user.User;
+import dev.core.common.Money;
+import dev.services.TestDataHelper;
+import dev.services.restaurant.Restaurant;
+import dev.services.restaurant.RestaurantAvailabilityService;
+import dev.services.restaurant.RestaurantReservation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Nelson Tanko
+ */
+class BatchDispatcherIT extends BaseWebIntegrationTest {
+
+    @Autowired BatchDispatcher batchDispatcher;
+    @Autowired OrderService orderService;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderEventRepository orderEventRepository;
+    @Autowired AddressRepository addressRepository;
+    @Autowired RestaurantAvailabilityService availabilityService;
+    @Autowired RedisTemplate<String, String> redisTemplate;
+    @Autowired TestDataHelper testDataHelper;
+
+    private final List<Restaurant> restaurants = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        restaurants.forEach(restaurant -> redisTemplate.delete(
+                List.of("restaurant:slots:" + restaurant.getId(), "restaurant:couriers:" + restaurant.getId())));
+        redisTemplate.delete(List.of(OrderCompletionScheduler.DUE_KEY, OrderCompletionScheduler.PROCESSING_KEY));
+        orderEventRepository.deleteAll();
+        testDataHelper.clearData();
+    }
+
+    @Test
+    @WithFoodyUser(email = "batch@example.com")
+    void dispatchWindow_MinimisesTotalDistanceAcrossOrders(User user) {
+        // Given
+        // Greedy in arrival order would send the first order to A and the second one all the way to B
+        Restaurant a = createRestaurant("Restaurant A", 6.500);
+        Restaurant b = createRestaurant("Restaurant B", 6.520);
+        Order first = createPendingOrder(user, 6.509);
+        Order second = createPendingOrder(user, 6.490);
+
+        // When
+        int dispatched = batchDispatcher.dispatchWindow();
+
+        // Then
+        assertThat(dispatched).isEqualTo(2);
+        Order firstAfter = orderRepository.findById(first.getId()).orElseThrow();
+        Order secondAfter = orderRepository.findById(second.getId()).orElseThrow();
+        assertThat(firstAfter.getRestaurant().getId()).isEqualTo(b.getId());
+        assertThat(secondAfter.getRestaurant().getId()).isEqualTo(a.getId());
+        assertThat(List.of(firstAfter, secondAfter)).allSatisfy(order -> {
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.DELIVERING);
+            assertThat(order.getCourier()).isNotNull();
+            assertThat(order.getEstimatedDeliveryTime()).isAfter(order.getOrderTime());
+        });
+        assertThat(availabilityService.isRestaurantAvailable(a.getId())).isFalse();
+        assertThat(availabilityService.isRestaurantAvailable(b.getId())).isFalse();
+    }
+
+    @Test
+    @WithFoodyUser(email = "batch@example.com")
+    void dispatchWindow_OrdersBeyondCapacityStayPending(User user) {
+        // Given
+        createRestaurant("Restaurant A", 6.500);
+        Order near = createPendingOrder(user, 6.501);
+        Order far = createPendingOrder(user, 6.530);
+
+        // When
+        int dispatched = batchDispatcher.dispatchWindow();
+
+        // Then
+        assertThat(dispatched).isEqualTo(1);
+        assertThat(orderRepository.findById(near.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERING);
+        Order waiting = orderRepository.findById(far.getId()).orElseThrow();
+        assertThat(waiting.getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(waiting.getRestaurant()).isNull();
+    }
+
+    @Test
+    @WithFoodyUser(email = "batch@example.com")
+    void dispatch_OrderCancelledSinceItWasRead_IsSkippedAndGivesTheSeatBack(User user) {
+        // Given
+        Restaurant restaurant = createRestaurant("Restaurant A", 6.500);
+        Order order = createPendingOrder(user, 6.501);
+        RestaurantReservation reservation = availabilityService.reserveFirstAvailable(List.of(restaurant)).orElseThrow();
+        orderService.updateOrderStatus(order.getId(), OrderStatus.CANCELLED, null);
+
+        // When
+        Boolean dispatched = new TransactionTemplate(transactionManager)
+                .execute(status -> orderService.dispatch(order, restaurant, reservation));
+
+        // Then
+        assertThat(dispatched).isFalse();
+        Order cancelled = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(cancelled.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(cancelled.getRestaurant()).isNull();
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isTrue();
+    }
+
+    @Test
+    @WithFoodyUser(email = "batch@example.com")
+    void dispatch_WindowRollsBack_GivesTheSeatBack(User user) {
+        // Given
+        Restaurant restaurant = createRestaurant("Restaurant A", 6.500);
+        Order order = createPendingOrder(user, 6.501);
+        RestaurantReservation reservation = availabilityService.reserveFirstAvailable(List.of(restaurant)).orElseThrow();
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            orderService.dispatch(order, restaurant, reservation);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isTrue();
+        assertThat(availabilityService.getFreeSlots(restaurant.getId())).isEqualTo(1);
+    }
+
+    private Restaurant createRestaurant(String name, double latitude) {
+        Restaurant restaurant = testDataHelper.createRestaurant(name, true, true, latitude, 3.400);
+        restaurants.add(restaurant);
+        return restaurant;
+    }
+
+    private Order createPendingOrder(User user, double latitude) {
+        Address address = addressRepository.saveAndFlush(Address.builder()
+                .street("1 Batch St").city("Lagos").country("Nigeria").latitude(latitude).longitude(3.400).build());
+        Order order = Order.builder()
+                .user(user)
+                .deliveryAddress(address)
+                .totalAmount(Money.of("10.00"))
+                .orderTime(LocalDateTime.now())
+                .status(OrderStatus.PENDING)
+                .build();
+        return orderRepository.save(order);
+    }
+}
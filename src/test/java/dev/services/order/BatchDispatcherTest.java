@@ -0,0 +1,55 @@
+package dev.services.order;
+
+import dev.services.restaurant.Restaurant;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchDispatcherTest {
+
+    private final Restaurant a = Restaurant.builder().id(1L).name("A").build();
+    private final Restaurant b = Restaurant.builder().id(2L).name("B").build();
+
+    @Test
+    void seats_LimitedByOrdersThatCanReachTheRestaurant() {
+        // Given
+        // A has room for 100 orders but only 2 in the window list it
+        Map<Long, Integer> freeCapacities = Map.of(1L, 100, 2L, 1);
+        Map<Long, Integer> demand = Map.of(1L, 2, 2L, 3);
+
+        // When
+        List<Restaurant> seats = BatchDispatcher.seats(List.of(a, b), freeCapacities, demand, 2000);
+
+        // Then
+        assertThat(seats).containsExactly(a, b, a);
+    }
+
+    @Test
+    void seats_CappedInTotal_KeepEveryRestaurantsFirstSeat() {
+        // Given
+        Map<Long, Integer> freeCapacities = Map.of(1L, 5, 2L, 5);
+        Map<Long, Integer> demand = Map.of(1L, 5, 2L, 5);
+
+        // When
+        List<Restaurant> seats = BatchDispatcher.seats(List.of(a, b), freeCapacities, demand, 3);
+
+        // Then
+        assertThat(seats).containsExactly(a, b, a);
+    }
+
+    @Test
+    void seats_RestaurantNoOrderCanReach_GetsNone() {
+        // Given
+        Map<Long, Integer> freeCapacities = Map.of(1L, 3, 2L, 3);
+        Map<Long, Integer> demand = Map.of(1L, 1);
+
+        // When
+        List<Restaurant> seats = BatchDispatcher.seats(List.of(a, b), freeCapacities, demand, 2000);
+
+        // Then
+        assertThat(seats).containsExactly(a);
+    }
+}
@@ -0,0 +1,124 @@
+package dev.services.order;
+
+import dev.account.user.Address;
+import dev.services.restaurant.PrepTimeStatistics;
+import dev.services.restaurant.Restaurant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryTimeEstimatorTest {
+
+    @Mock PrepTimeStatistics prepTimeStatistics;
+
+    private DeliveryTimeEstimator estimator;
+
+    @BeforeEach
+    void setUp() {
+        estimator = new DeliveryTimeEstimator(prepTimeStatistics);
+        ReflectionTestUtils.setField(estimator, "courierSpeedKmh", 20.0);
+        ReflectionTestUtils.setField(estimator, "handoverTime", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(estimator, "defaultPrepTime", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(estimator, "prepQuantile", 0.8);
+        ReflectionTestUtils.setField(estimator, "maxEstimate", Duration.ofHours(2));
+    }
+
+    @Test
+    void estimate_WithoutStatistics_UsesDefaultPrepTime() {
+        // Given
+        Restaurant restaurant = restaurant(1L, null, null);
+        when(prepTimeStatistics.quantile(1L, 0.8)).thenReturn(Optional.empty());
+
+        // When
+        Duration estimate = estimator.estimate(restaurant, address(null, null));
+
+        // Then
+        assertThat(estimate).isEqualTo(Duration.ofMinutes(12));
+    }
+
+    @Test
+    void estimate_AddsRideTimeToObservedPrepTime() {
+        // Given
+        Restaurant restaurant = restaurant(1L, 40.7128, -74.0060);
+        when(prepTimeStatistics.quantile(1L, 0.8)).thenReturn(Optional.of(Duration.ofMinutes(25)));
+
+        // When
+        // 0.09 degrees of latitude is about 10 km, half an hour at 20 km/h
+        Duration estimate = estimator.estimate(restaurant, address(40.8028, -74.0060));
+
+        // Then
+        assertThat(estimate).isBetween(Duration.ofMinutes(56), Duration.ofMinutes(58));
+    }
+
+    @Test
+    void estimate_IsCappedAtMaximum() {
+        // Given
+        Restaurant restaurant = restaurant(1L, 40.7128, -74.0060);
+        when(prepTimeStatistics.quantile(eq(1L), anyDouble())).thenReturn(Optional.of(Duration.ofMinutes(30)));
+
+        // When
+        Duration estimate = estimator.estimate(restaurant, address(51.5072, -0.1276));
+
+        // Then
+        assertThat(estimate).isEqualTo(Duration.ofHours(2));
+    }
+
+    @Test
+    void recordDelivery_RecordsTimeNotExplainedByTheRide() {
+        // Given
+        LocalDateTime deliveredAt = LocalDateTime.now();
+        Order order = Order.builder()
+                .restaurant(restaurant(1L, null, null))
+                .deliveryAddress(address(null, null))
+                .orderTime(deliveredAt.minusMinutes(30))
+                .build();
+
+        // When
+        estimator.recordDelivery(order, deliveredAt);
+
+        // Then
+        verify(prepTimeStatistics).record(1L, Duration.ofMinutes(28));
+    }
+
+    @Test
+    void recordDelivery_NeverRecordsNegativePrepTime() {
+        // Given
+        LocalDateTime deliveredAt = LocalDateTime.now();
+        Order order = Order.builder()
+                .restaurant(restaurant(1L, null, null))
+                .deliveryAddress(address(null, null))
+                .orderTime(deliveredAt.minusMinutes(1))
+                .build();
+
+        // When
+        estimator.recordDelivery(order, deliveredAt);
+
+        // Then
+        verify(prepTimeStatistics).record(1L, Duration.ZERO);
+    }
+
+    private static Restaurant restaurant(Long id, Double latitude, Double longitude) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(id);
+        restaurant.setAddress(address(latitude, longitude));
+        return restaurant;
+    }
+
+    private static Address address(Double latitude, Double longitude) {
+        return Address.builder().street("1 Test St").city("New York").latitude(latitude).longitude(longitude).build();
+    }
+}
@@ -6,6 +6,7 @@ import dev.account.user.User;
 import dev.services.TestDataHelper;
 import dev.services.food.Food;
 import dev.services.restaurant.Restaurant;
+import dev.services.restaurant.RestaurantAvailabilityService;
 import dev.services.restaurant.RestaurantRepository;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +30,7 @@ class OrderControllerIT extends BaseWebIntegrationTest {
     @Autowired TestDataHelper testDataHelper;
     @Autowired OrderRepository orderRepository;
     @Autowired RestaurantRepository restaurantRepository;
+    @Autowired RestaurantAvailabilityService availabilityService;
 
     private Food testFood;
     private User testUser;
@@ -202,8 +204,7 @@ class OrderControllerIT extends BaseWebIntegrationTest {
                         .content(toJSON(request)))
                 .andExpect(status().isCreated());
 
-        Restaurant updatedRestaurant = restaurantRepository.findById(restaurant.getId()).orElseThrow();
-        assertThat(updatedRestaurant.isAvailable()).isFalse();
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isFalse();
     }
 
 }
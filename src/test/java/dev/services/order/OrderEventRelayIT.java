@@ -0,0 +1,153 @@
+package dev.services.order;
+
+import dev.BaseWebIntegrationTest;
+import dev.WithFoodyUser;
+import dev.account.user.User;
+import dev.services.TestDataHelper;
+import dev.services.food.Food;
+import dev.services.restaurant.Restaurant;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.IllegalTransactionStateException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Nelson Tanko
+ */
+class OrderEventRelayIT extends BaseWebIntegrationTest {
+
+    @Autowired OrderEventRelay orderEventRelay;
+    @Autowired OrderEventPublisher orderEventPublisher;
+    @Autowired OrderEventRepository orderEventRepository;
+    @Autowired OrderCompletionService orderCompletionService;
+    @Autowired RedisTemplate<String, String> redisTemplate;
+    @Autowired TestDataHelper testDataHelper;
+    @Autowired MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        orderEventRepository.deleteAll();
+        redisTemplate.delete(OrderEventRelay.STREAM_KEY);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        orderEventRepository.deleteAll();
+        redisTemplate.delete(OrderEventRelay.STREAM_KEY);
+        testDataHelper.clearData();
+    }
+
+    @Test
+    @WithFoodyUser(email = "events@example.com")
+    void completeOrder_WritesDeliveredEventToOutbox(User user) {
+        // Given
+        Order order = createDeliveringOrder(user);
+
+        // When
+        orderCompletionService.completeOrder(order.getId());
+
+        // Then
+        assertThat(orderEventRepository.findAll())
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getOrderId()).isEqualTo(order.getId());
+                    assertThat(event.getType()).isEqualTo(OrderEventType.DELIVERED);
+                    assertThat(event.getStatus()).isEqualTo(OrderStatus.DELIVERED);
+                });
+    }
+
+    @Test
+    @WithFoodyUser(email = "events@example.com")
+    void relayPendingEvents_MovesOutboxToStreamInOrder(User user) {
+        // Given
+        Order first = createDeliveringOrder(user);
+        Order second = createDeliveringOrder(user);
+        orderCompletionService.completeOrder(first.getId());
+        orderCompletionService.completeOrder(second.getId());
+
+        // When
+        orderEventRelay.relayPendingEvents();
+
+        // Then
+        assertThat(orderEventRepository.count()).isZero();
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+                .range(OrderEventRelay.STREAM_KEY, Range.unbounded());
+        assertThat(records).extracting(record -> record.getValue().get("orderId"))
+                .containsExactly(String.valueOf(first.getId()), String.valueOf(second.getId()));
+        assertThat(records).extracting(record -> record.getValue().get("type"))
+                .containsOnly(OrderEventType.DELIVERED.name());
+    }
+
+    @Test
+    @WithFoodyUser(email = "events@example.com")
+    @SuppressWarnings("unchecked")
+    void relayPendingEvents_EventsAreReadableThroughConsumerGroup(User user) {
+        // Given
+        orderEventRelay.createConsumerGroups();
+        Order order = createDeliveringOrder(user);
+        orderCompletionService.completeOrder(order.getId());
+
+        // When
+        orderEventRelay.relayPendingEvents();
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                Consumer.from("notifications", "test-consumer"),
+                StreamReadOptions.empty().count(10),
+                StreamOffset.create(OrderEventRelay.STREAM_KEY, ReadOffset.lastConsumed()));
+
+        // Then
+        assertThat(records).singleElement()
+                .satisfies(record -> assertThat(record.getValue().get("orderId")).isEqualTo(String.valueOf(order.getId())));
+    }
+
+    @Test
+    @WithFoodyUser(email = "events@example.com")
+    void lagGauge_GrowsWithTheOldestUnpublishedEventWithoutAnyRelayRun(User user) {
+        // Given
+        Order order = createDeliveringOrder(user);
+        OrderEvent stale = OrderEvent.of(order, OrderEventType.STATUS_CHANGED);
+        stale.setOccurredAt(LocalDateTime.now().minusMinutes(5));
+        orderEventRepository.save(stale);
+
+        // When
+        double lag = meterRegistry.get("foody.order.events.lag").gauge().value();
+
+        // Then
+        assertThat(lag).isGreaterThanOrEqualTo(5 * 60 * 1000);
+
+        orderEventRelay.relayPendingEvents();
+        assertThat(meterRegistry.get("foody.order.events.lag").gauge().value()).isZero();
+    }
+
+    @Test
+    @WithFoodyUser(email = "events@example.com")
+    void publish_OutsideTransaction_IsRejected(User user) {
+        // Given
+        Order order = createDeliveringOrder(user);
+
+        // When / Then
+        assertThatThrownBy(() -> orderEventPublisher.publish(order, OrderEventType.STATUS_CHANGED))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(orderEventRepository.count()).isZero();
+    }
+
+    private Order createDeliveringOrder(User user) {
+        Food food = testDataHelper.createFood();
+        Restaurant restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        return testDataHelper.createOrder(user, restaurant, testDataHelper.createAddress(), food, 1);
+    }
+}
@@ -0,0 +1,141 @@
+package dev.services.order;
+
+import dev.BaseWebIntegrationTest;
+import dev.WithFoodyUser;
+import dev.account.user.Address;
+import dev.account.user.User;
+import dev.services.TestDataHelper;
+import dev.services.food.Food;
+import dev.services.restaurant.Restaurant;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Nelson Tanko
+ */
+class OrderHistoryIT extends BaseWebIntegrationTest {
+
+    @Autowired TestDataHelper testDataHelper;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        statistics.setStatisticsEnabled(false);
+        testDataHelper.clearData();
+    }
+
+    @Test
+    @WithFoodyUser(email = "history@example.com")
+    void getUserOrders_ReturnsItemsAndAddress(User user) throws Exception {
+        Food food = testDataHelper.createFood();
+        Restaurant restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        Address address = testDataHelper.createAddress();
+        testDataHelper.createOrder(user, restaurant, address, food, 2);
+
+        mockMvc.perform(get("/api/order")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].restaurantName").value("Tasty Bites"))
+                .andExpect(jsonPath("$.content[0].deliveryAddress.city").value("Abuja"))
+                .andExpect(jsonPath("$.content[0].orderItems.length()").value(1))
+                .andExpect(jsonPath("$.content[0].orderItems[0].foodName").value(food.getName()))
+                .andExpect(jsonPath("$.content[0].orderItems[0].quantity").value(2));
+    }
+
+    @Test
+    @WithFoodyUser(email = "history@example.com")
+    void getUserOrders_StatementCountDoesNotGrowWithPageSize(User user) throws Exception {
+        Food food = testDataHelper.createFood();
+        Restaurant restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        Address address = testDataHelper.createAddress();
+        for (int i = 0; i < 25; i++) {
+            testDataHelper.createOrder(user, restaurant, address, food, 1);
+        }
+
+        long smallPage = countStatements(2);
+        long fullPage = countStatements(20);
+
+        assertThat(fullPage).isEqualTo(smallPage);
+        // user lookup + orders + count + items
+        assertThat(fullPage).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    @WithFoodyUser(email = "history@example.com")
+    void scrollUserOrders_WalksOrdersPlacedAtTheSameTimeWithoutSkipsOrRepeats(User user) throws Exception {
+        // Given
+        Food food = testDataHelper.createFood();
+        Restaurant restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        Address address = testDataHelper.createAddress();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(testDataHelper.createOrder(user, restaurant, address, food, 1).getId());
+        }
+        // Every page boundary falls between orders with the same time, so only the id can tell them apart
+        testDataHelper.setOrderTimes(user, LocalDateTime.of(2025, 6, 1, 12, 0));
+
+        // When
+        List<Long> scrolled = scrollAllIds("/api/order/scroll", 2);
+
+        // Then
+        assertThat(scrolled).containsExactlyElementsOf(orderIds.stream().sorted(Comparator.reverseOrder()).toList());
+    }
+
+    @Test
+    @WithFoodyUser(email = "history@example.com")
+    void scrollUserOrders_ReturnsTheNewestOrdersWithTheirItems(User user) throws Exception {
+        Food food = testDataHelper.createFood();
+        Restaurant restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        Address address = testDataHelper.createAddress();
+        testDataHelper.createOrder(user, restaurant, address, food, 1);
+        Order newest = testDataHelper.createOrder(user, restaurant, address, food, 3);
+
+        mockMvc.perform(get("/api/order/scroll").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(newest.getId()))
+                .andExpect(jsonPath("$[0].restaurantName").value("Tasty Bites"))
+                .andExpect(jsonPath("$[0].orderItems[0].quantity").value(3))
+                .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")));
+    }
+
+    private long countStatements(int pageSize) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(get("/api/order")
+                        .param("size", String.valueOf(pageSize))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(pageSize));
+
+        return statistics.getPrepareStatementCount();
+    }
+}
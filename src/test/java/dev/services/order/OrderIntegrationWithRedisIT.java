@@ -19,9 +19,7 @@ import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 import java.util.concurrent.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,10 +30,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 class OrderIntegrationWithRedisIT extends BaseWebIntegrationTest {
 
     private static final String ORDER_INFO_KEY_PREFIX = "order:info:";
-    private static final String RESTAURANT_LOCK_KEY = "restaurant:lock:";
     @Autowired RestaurantAvailabilityService availabilityService;
     @Autowired private RedisTemplate<String, String> redisTemplate;
     @Autowired private OrderCompletionService orderCompletionService;
+    @Autowired private OrderCompletionScheduler completionScheduler;
     @Autowired private RestaurantRepository restaurantRepository;
     @Autowired private OrderRepository orderRepository;
     @Autowired private CourierRepository courierRepository;
@@ -52,6 +50,11 @@ class OrderIntegrationWithRedisIT extends BaseWebIntegrationTest {
     @AfterEach
     void cleanUp() {
         testDataHelper.clearData();
+        Set<String> poolKeys = new HashSet<>();
+        poolKeys.addAll(Objects.requireNonNull(redisTemplate.keys("restaurant:slots:*")));
+        poolKeys.addAll(Objects.requireNonNull(redisTemplate.keys("restaurant:couriers:*")));
+        poolKeys.addAll(Objects.requireNonNull(redisTemplate.keys(ORDER_INFO_KEY_PREFIX + "*")));
+        redisTemplate.delete(poolKeys);
     }
 
     @Test
@@ -91,56 +94,176 @@ class OrderIntegrationWithRedisIT extends BaseWebIntegrationTest {
     }
 
     @Test
-    void markRestaurantAsBusy_SetsCorrectRedisKeys() {
+    void confirmReservation_SetsOrderInfoKey() {
         // Given
         Restaurant restaurant = testDataHelper.createRestaurant("Redis Test Restaurant", true, true, 40.7128, -74.0060);
         Long orderId = 12345L;
         LocalDateTime estimatedDeliveryTime = LocalDateTime.now().plusMinutes(15);
+        RestaurantReservation reservation = availabilityService.reserveFirstAvailable(List.of(restaurant)).orElseThrow();
 
         // When
-        availabilityService.markRestaurantAsBusy(restaurant.getId(), orderId, estimatedDeliveryTime);
+        availabilityService.confirmReservation(reservation, orderId, estimatedDeliveryTime);
 
         // Then
-        String lockKey = RESTAURANT_LOCK_KEY + restaurant.getId();
-        String infoKey = ORDER_INFO_KEY_PREFIX + restaurant.getId();
-        redisTemplate.opsForValue().set(lockKey, restaurant.getId().toString());
-        redisTemplate.opsForValue().set(lockKey, orderId.toString());
-
-        // Verify keys exist in Redis
-        assertThat(redisTemplate.hasKey(lockKey)).isTrue();
+        String infoKey = ORDER_INFO_KEY_PREFIX + orderId;
         assertThat(redisTemplate.hasKey(infoKey)).isTrue();
+        assertThat(redisTemplate.opsForValue().get(infoKey))
+                .isEqualTo(orderId + ":" + restaurant.getId() + ":" + reservation.courierId());
+        assertThat(redisTemplate.getExpire(infoKey)).isPositive();
+    }
 
-        // Verify values
-        assertThat(redisTemplate.opsForValue().get(lockKey)).isEqualTo(orderId.toString());
-        assertThat(redisTemplate.opsForValue().get(infoKey)).contains(orderId.toString());
-        assertThat(redisTemplate.opsForValue().get(infoKey)).contains(restaurant.getId().toString());
+    @Test
+    void releaseOrders_FreesEverySlotAndDropsOrderHolds() {
+        // Given
+        Restaurant first = testDataHelper.createRestaurant("Release A", true, true, 40.7128, -74.0060);
+        Restaurant second = testDataHelper.createRestaurant("Release B", true, true, 40.7306, -73.9352);
+        RestaurantReservation firstReservation = availabilityService.reserveFirstAvailable(List.of(first)).orElseThrow();
+        RestaurantReservation secondReservation = availabilityService.reserveFirstAvailable(List.of(second)).orElseThrow();
+        availabilityService.confirmReservation(firstReservation, 1001L, LocalDateTime.now().plusMinutes(15));
+        availabilityService.confirmReservation(secondReservation, 1002L, LocalDateTime.now().plusMinutes(15));
+        assertThat(availabilityService.areRestaurantsAvailable(List.of(first.getId(), second.getId())))
+                .containsEntry(first.getId(), false)
+                .containsEntry(second.getId(), false);
 
-        // Cleanup
-        redisTemplate.delete(lockKey);
-        redisTemplate.delete(infoKey);
+        // When
+        availabilityService.releaseOrders(List.of(
+                new OrderRelease(1001L, first.getId(), first.getCapacity(), firstReservation.courierId()),
+                new OrderRelease(1002L, second.getId(), second.getCapacity(), secondReservation.courierId())));
+
+        // Then
+        assertThat(availabilityService.areRestaurantsAvailable(List.of(first.getId(), second.getId())))
+                .containsEntry(first.getId(), true)
+                .containsEntry(second.getId(), true);
+        assertThat(availabilityService.freeCapacities(List.of(first, second)))
+                .containsEntry(first.getId(), 1)
+                .containsEntry(second.getId(), 1);
+        assertThat(redisTemplate.hasKey(ORDER_INFO_KEY_PREFIX + 1001L)).isFalse();
+        assertThat(redisTemplate.hasKey(ORDER_INFO_KEY_PREFIX + 1002L)).isFalse();
+    }
+
+    @Test
+    void adjustPool_CapacityCutBelowSlotsInUse_ReleasesRefillUpToNewCapacity() {
+        // Given
+        Restaurant restaurant = testDataHelper.createRestaurant("Shrinking Kitchen", true, true, 40.7128, -74.0060);
+        restaurant.setCapacity(3);
+        restaurant.addCourier(Courier.builder().name("Second courier").build());
+        restaurant.addCourier(Courier.builder().name("Third courier").build());
+        restaurant = restaurantRepository.saveAndFlush(restaurant);
+        List<Restaurant> candidates = List.of(restaurant);
+        List<RestaurantReservation> reservations = List.of(
+                availabilityService.reserveFirstAvailable(candidates).orElseThrow(),
+                availabilityService.reserveFirstAvailable(candidates).orElseThrow(),
+                availabilityService.reserveFirstAvailable(candidates).orElseThrow());
+
+        // When
+        availabilityService.adjustPool(restaurant.getId(), -2, List.of(), List.of());
+
+        // Then
+        assertThat(availabilityService.getFreeSlots(restaurant.getId())).isZero();
+
+        // When
+        for (RestaurantReservation reservation : reservations) {
+            availabilityService.releaseReservation(new RestaurantReservation(reservation.restaurantId(),
+                    reservation.courierId(), 1));
+        }
+
+        // Then
+        assertThat(availabilityService.getFreeSlots(restaurant.getId())).isEqualTo(1);
+        assertThat(redisTemplate.opsForSet().members("restaurant:couriers:" + restaurant.getId()))
+                .containsExactlyInAnyOrderElementsOf(reservations.stream()
+                        .map(reservation -> reservation.courierId().toString()).toList());
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isTrue();
+    }
+
+    @Test
+    void reserveFirstAvailable_ConcurrentCallers_NeverOverbook() throws Exception {
+        // Given
+        List<Restaurant> candidates = List.of(
+                testDataHelper.createRestaurant("Reserve A", true, true, 40.7128, -74.0060),
+                testDataHelper.createRestaurant("Reserve B", true, true, 40.7130, -74.0062),
+                testDataHelper.createRestaurant("Reserve C", true, true, 40.7132, -74.0064));
+        int threadCount = 10;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Optional<RestaurantReservation>>> results = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < threadCount; i++) {
+            results.add(executorService.submit(() -> {
+                startLatch.await();
+                return availabilityService.reserveFirstAvailable(candidates);
+            }));
+        }
+        startLatch.countDown();
+
+        List<RestaurantReservation> reservations = new ArrayList<>();
+        for (Future<Optional<RestaurantReservation>> result : results) {
+            result.get(5, TimeUnit.SECONDS).ifPresent(reservations::add);
+        }
+        executorService.shutdown();
+
+        // Then
+        assertThat(reservations).hasSize(candidates.size());
+        assertThat(reservations).extracting(RestaurantReservation::restaurantId)
+                .containsExactlyInAnyOrderElementsOf(candidates.stream().map(Restaurant::getId).toList());
+
+        // When
+        reservations.forEach(availabilityService::releaseReservation);
+
+        // Then
+        assertThat(candidates).allMatch(r -> availabilityService.isRestaurantAvailable(r.getId()));
+    }
+
+    @Test
+    void reserveFirstAvailable_MultiSlotRestaurant_TakesOrdersUntilSaturated() {
+        // Given
+        Restaurant restaurant = testDataHelper.createRestaurant("Big Kitchen", true, true, 40.7128, -74.0060);
+        restaurant.setCapacity(2);
+        restaurant.addCourier(Courier.builder().name("Second courier").build());
+        restaurant = restaurantRepository.saveAndFlush(restaurant);
+        List<Restaurant> candidates = List.of(restaurant);
+
+        // When
+        RestaurantReservation first = availabilityService.reserveFirstAvailable(candidates).orElseThrow();
+        RestaurantReservation second = availabilityService.reserveFirstAvailable(candidates).orElseThrow();
+        Optional<RestaurantReservation> third = availabilityService.reserveFirstAvailable(candidates);
+
+        // Then
+        assertThat(first.courierId()).isNotEqualTo(second.courierId());
+        assertThat(third).isEmpty();
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isFalse();
+
+        // When
+        availabilityService.releaseReservation(first);
+
+        // Then
+        assertThat(availabilityService.getFreeSlots(restaurant.getId())).isEqualTo(1);
+        assertThat(availabilityService.reserveFirstAvailable(candidates)).get()
+                .extracting(RestaurantReservation::courierId).isEqualTo(first.courierId());
     }
 
     @Test
     @WithFoodyUser
-    void completeOrderAndFreeRestaurant_DeletesRedisKey(User testUser) {
+    void completeOrder_DeletesOrderInfoKeyAndFreesTheSlot(User testUser) {
         // Given
         Restaurant restaurant = testDataHelper.createRestaurant("Redis Delete Test", true, false, 40.7306, -73.9352);
+        RestaurantReservation reservation = availabilityService.reserveFirstAvailable(List.of(restaurant)).orElseThrow();
 
         Address address = testDataHelper.createAddress();
         Order order = testDataHelper.createOrder(testUser, restaurant, address, testFood, 2);
-
-        String lockKey = RESTAURANT_LOCK_KEY + restaurant.getId();
-        redisTemplate.opsForValue().set(lockKey, order.getId().toString());
-
-        // Verify key exists before test
-        assertThat(redisTemplate.hasKey(lockKey)).isTrue();
+        order.setCourier(courierRepository.findById(reservation.courierId()).orElseThrow());
+        order = orderRepository.save(order);
+        availabilityService.confirmReservation(reservation, order.getId(), LocalDateTime.now().plusMinutes(15));
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isFalse();
 
         // When
-        orderCompletionService.completeOrderAndFreeRestaurant(restaurant.getId());
+        orderCompletionService.completeOrder(order.getId());
 
-        redisTemplate.delete(lockKey);
         // Then
-        assertThat(redisTemplate.hasKey(lockKey)).isFalse();
+        assertThat(redisTemplate.hasKey(ORDER_INFO_KEY_PREFIX + order.getId())).isFalse();
+        assertThat(availabilityService.getFreeSlots(restaurant.getId())).isEqualTo(1);
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isTrue();
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERED);
     }
 
     @Test
@@ -163,9 +286,9 @@ class OrderIntegrationWithRedisIT extends BaseWebIntegrationTest {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
         container.setConnectionFactory(Objects.requireNonNull(redisTemplate.getConnectionFactory()));
         container.addMessageListener((message, pattern) -> {
-            if (message.toString().equals(ORDER_INFO_KEY_PREFIX + restaurant.getId())) {
+            if (message.toString().equals(ORDER_INFO_KEY_PREFIX + order.getId())) {
                 // Use service to complete order
-                orderCompletionService.completeOrderAndFreeRestaurant(restaurant.getId());
+                orderCompletionService.completeOrder(order.getId());
                 latch.countDown();
             }
         }, new PatternTopic("__keyevent@*__:expired"));
@@ -173,7 +296,7 @@ class OrderIntegrationWithRedisIT extends BaseWebIntegrationTest {
         container.start();
 
         // Set key with short expiration
-        String infoKey = ORDER_INFO_KEY_PREFIX + restaurant.getId();
+        String infoKey = ORDER_INFO_KEY_PREFIX + order.getId();
         redisTemplate.opsForValue().set(infoKey, restaurant.getId().toString(), Duration.ofSeconds(1));
 
         // Wait for expiration and listener
@@ -185,15 +308,54 @@ class OrderIntegrationWithRedisIT extends BaseWebIntegrationTest {
         // Then
         assertThat(called).isTrue();
 
-        // Verify restaurant state changed
-        Restaurant updatedRestaurant = restaurantRepository.findById(restaurant.getId()).orElseThrow();
-        assertThat(updatedRestaurant.isAvailable()).isTrue();
+        // Verify the restaurant can take orders again
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isTrue();
 
         // Verify order state changed
         Order updatedOrder = orderRepository.findById(order.getId()).orElseThrow();
         assertThat(updatedOrder.getStatus()).isEqualTo(OrderStatus.DELIVERED);
     }
 
+    @Test
+    @WithFoodyUser
+    void pollDueCompletions_CompletesDueOrderOnce(User testUser) {
+        // Given
+        Restaurant restaurant = testDataHelper.createRestaurant("Scheduler Test", true, false, 40.7580, -73.9855);
+        Address address = testDataHelper.createAddress();
+        Order order = testDataHelper.createOrder(testUser, restaurant, address, testFood, 1);
+        completionScheduler.schedule(order.getId(), restaurant.getId(), LocalDateTime.now().minusSeconds(1));
+
+        // When
+        completionScheduler.pollDueCompletions();
+        completionScheduler.pollDueCompletions();
+
+        // Then
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isTrue();
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(redisTemplate.opsForZSet().size(OrderCompletionScheduler.DUE_KEY)).isZero();
+        assertThat(redisTemplate.opsForZSet().size(OrderCompletionScheduler.PROCESSING_KEY)).isZero();
+    }
+
+    @Test
+    @WithFoodyUser
+    void pollDueCompletions_LeavesFutureJobsQueued(User testUser) {
+        // Given
+        Restaurant restaurant = testDataHelper.createRestaurant("Scheduler Future Test", true, false, 40.7580, -73.9855);
+        Address address = testDataHelper.createAddress();
+        Order order = testDataHelper.createOrder(testUser, restaurant, address, testFood, 1);
+        completionScheduler.schedule(order.getId(), restaurant.getId(), LocalDateTime.now().plusMinutes(15));
+
+        // When
+        completionScheduler.pollDueCompletions();
+
+        // Then
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERING);
+        assertThat(redisTemplate.opsForZSet().size(OrderCompletionScheduler.DUE_KEY)).isEqualTo(1);
+
+        // Cleanup
+        completionScheduler.cancel(order.getId(), restaurant.getId());
+    }
+
     @Test
     void redisTemplate_HashOperations_WorkCorrectly() {
         // Given
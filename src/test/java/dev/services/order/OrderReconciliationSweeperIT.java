@@ -0,0 +1,109 @@
+package dev.services.order;
+
+import dev.BaseWebIntegrationTest;
+import dev.WithFoodyUser;
+import dev.account.user.User;
+import dev.services.TestDataHelper;
+import dev.services.restaurant.Courier;
+import dev.services.restaurant.CourierRepository;
+import dev.services.restaurant.Restaurant;
+import dev.services.restaurant.RestaurantAvailabilityService;
+import dev.services.restaurant.RestaurantReservation;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Nelson Tanko
+ */
+class OrderReconciliationSweeperIT extends BaseWebIntegrationTest {
+
+    @Autowired OrderReconciliationSweeper sweeper;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderEventRepository orderEventRepository;
+    @Autowired CourierRepository courierRepository;
+    @Autowired RestaurantAvailabilityService availabilityService;
+    @Autowired RedisTemplate<String, String> redisTemplate;
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired TestDataHelper testDataHelper;
+
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        // Other order tests leave their outbox rows behind
+        orderEventRepository.deleteAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        if (restaurant != null) {
+            redisTemplate.delete(List.of("restaurant:slots:" + restaurant.getId(), "restaurant:couriers:" + restaurant.getId()));
+        }
+        orderEventRepository.deleteAll();
+        testDataHelper.clearData();
+    }
+
+    @Test
+    @WithFoodyUser(email = "sweeper@example.com")
+    void sweepOverdueDeliveries_CompletesOrderAndFreesCourierAndSlot(User user) {
+        // Given
+        Order order = createDeliveringOrder(user, LocalDateTime.now().minusHours(1));
+        double recoveredBefore = recoveredCount();
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isFalse();
+
+        // When
+        sweeper.sweepOverdueDeliveries();
+
+        // Then
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(courierRepository.findById(order.getCourier().getId()).orElseThrow().isAvailable()).isTrue();
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isTrue();
+        assertThat(orderEventRepository.findAll()).singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getOrderId()).isEqualTo(order.getId());
+                    assertThat(event.getType()).isEqualTo(OrderEventType.DELIVERED);
+                });
+        assertThat(recoveredCount()).isEqualTo(recoveredBefore + 1);
+    }
+
+    @Test
+    @WithFoodyUser(email = "sweeper@example.com")
+    void sweepOverdueDeliveries_LeavesOrdersWithinGracePeriod(User user) {
+        // Given
+        Order order = createDeliveringOrder(user, LocalDateTime.now().minusMinutes(1));
+
+        // When
+        sweeper.sweepOverdueDeliveries();
+
+        // Then
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERING);
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isFalse();
+        assertThat(orderEventRepository.count()).isZero();
+    }
+
+    private Order createDeliveringOrder(User user, LocalDateTime estimatedDeliveryTime) {
+        restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        RestaurantReservation reservation = availabilityService.reserveFirstAvailable(List.of(restaurant)).orElseThrow();
+        Courier courier = courierRepository.findById(reservation.courierId()).orElseThrow();
+        courier.markAsBusy(estimatedDeliveryTime);
+        courierRepository.save(courier);
+
+        Order order = testDataHelper.createOrder(user, restaurant, testDataHelper.createAddress(), testDataHelper.createFood(), 1);
+        order.setCourier(courier);
+        order.setEstimatedDeliveryTime(estimatedDeliveryTime);
+        return orderRepository.save(order);
+    }
+
+    private double recoveredCount() {
+        return meterRegistry.get("foody.order.reconciliation.recovered").counter().count();
+    }
+}
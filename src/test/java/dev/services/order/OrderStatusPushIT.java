@@ -0,0 +1,149 @@
+package dev.services.order;
+
+import dev.BaseWebIntegrationTest;
+import dev.WithFoodyUser;
+import dev.account.user.User;
+import dev.services.TestDataHelper;
+import dev.services.food.Food;
+import dev.services.restaurant.Restaurant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Nelson Tanko
+ */
+class OrderStatusPushIT extends BaseWebIntegrationTest {
+
+    @Autowired OrderStatusBroadcaster broadcaster;
+    @Autowired OrderTopics orderTopics;
+    @Autowired OrderEventRelay orderEventRelay;
+    @Autowired OrderEventRepository orderEventRepository;
+    @Autowired OrderCompletionService orderCompletionService;
+    @Autowired RedisTemplate<String, String> redisTemplate;
+    @Autowired TestDataHelper testDataHelper;
+    @Autowired @Qualifier("brokerChannel") AbstractSubscribableChannel brokerChannel;
+
+    private final List<Message<?>> sentMessages = new CopyOnWriteArrayList<>();
+    private final ChannelInterceptor capture = new ChannelInterceptor() {
+        @Override
+        public Message<?> preSend(Message<?> message, MessageChannel channel) {
+            sentMessages.add(message);
+            return message;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        orderEventRepository.deleteAll();
+        redisTemplate.delete(OrderEventRelay.STREAM_KEY);
+        brokerChannel.addInterceptor(capture);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        brokerChannel.removeInterceptor(capture);
+        orderEventRepository.deleteAll();
+        redisTemplate.delete(OrderEventRelay.STREAM_KEY);
+        testDataHelper.clearData();
+    }
+
+    @Test
+    @WithFoodyUser(email = "push@example.com")
+    void pushNewEvents_SendsStatusToOrderAndUserTopics(User user) {
+        // Given
+        broadcaster.startFromLatest();
+        Order order = createDeliveringOrder(user);
+        orderCompletionService.completeOrder(order.getId());
+        orderEventRelay.relayPendingEvents();
+
+        // When
+        broadcaster.pushNewEvents();
+
+        // Then
+        assertThat(sentMessages).extracting(message -> SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                .containsExactly(OrderTopics.orderTopic(order.getId()), OrderTopics.userTopic(user.getId()));
+        assertThat(new String((byte[]) sentMessages.get(0).getPayload(), StandardCharsets.UTF_8))
+                .contains("\"status\":\"DELIVERED\"");
+    }
+
+    @Test
+    @WithFoodyUser(email = "push@example.com")
+    void pushNewEvents_DoesNotReplayEventsFromBeforeStart(User user) {
+        // Given
+        Order order = createDeliveringOrder(user);
+        orderCompletionService.completeOrder(order.getId());
+        orderEventRelay.relayPendingEvents();
+
+        // When
+        broadcaster.startFromLatest();
+        broadcaster.pushNewEvents();
+
+        // Then
+        assertThat(sentMessages).isEmpty();
+    }
+
+    @Test
+    @WithFoodyUser(email = "push@example.com")
+    void pushNewEvents_StartsFromLatestOnFirstPoll(User user) {
+        // Given
+        Order order = createDeliveringOrder(user);
+        orderCompletionService.completeOrder(order.getId());
+        orderEventRelay.relayPendingEvents();
+        ReflectionTestUtils.setField(broadcaster, "lastId", null);
+
+        // When
+        broadcaster.pushNewEvents();
+
+        // Then
+        assertThat(sentMessages).isEmpty();
+        assertThat(ReflectionTestUtils.getField(broadcaster, "lastId")).isNotNull();
+    }
+
+    @Test
+    @WithFoodyUser(email = "push@example.com")
+    void canSubscribe_OnlyOwnerOrAdmin(User user) {
+        // Given
+        Order order = createDeliveringOrder(user);
+        Authentication owner = authentication("push@example.com", "ROLE_USER");
+        Authentication stranger = authentication("stranger@example.com", "ROLE_USER");
+        Authentication admin = authentication("admin@example.com", "ROLE_ADMIN");
+
+        // When / Then
+        assertThat(orderTopics.canSubscribe(owner, OrderTopics.orderTopic(order.getId()))).isTrue();
+        assertThat(orderTopics.canSubscribe(owner, OrderTopics.userTopic(user.getId()))).isTrue();
+        assertThat(orderTopics.canSubscribe(stranger, OrderTopics.orderTopic(order.getId()))).isFalse();
+        assertThat(orderTopics.canSubscribe(stranger, OrderTopics.userTopic(user.getId()))).isFalse();
+        assertThat(orderTopics.canSubscribe(admin, OrderTopics.orderTopic(order.getId()))).isTrue();
+        assertThat(orderTopics.canSubscribe(owner, "/topic/everything")).isFalse();
+        assertThat(orderTopics.canSubscribe(null, OrderTopics.orderTopic(order.getId()))).isFalse();
+    }
+
+    private Order createDeliveringOrder(User user) {
+        Food food = testDataHelper.createFood();
+        Restaurant restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        return testDataHelper.createOrder(user, restaurant, testDataHelper.createAddress(), food, 1);
+    }
+
+    private static Authentication authentication(String email, String authority) {
+        return new UsernamePasswordAuthenticationToken(email, null, List.of(new SimpleGrantedAuthority(authority)));
+    }
+}
@@ -0,0 +1,138 @@
+package dev.services.order;
+
+import dev.BaseWebIntegrationTest;
+import dev.WithFoodyUser;
+import dev.account.user.User;
+import dev.core.exception.GenericApiException;
+import dev.services.TestDataHelper;
+import dev.services.food.Food;
+import dev.services.restaurant.Restaurant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * @author Nelson Tanko
+ */
+class OrderStatusTransitionIT extends BaseWebIntegrationTest {
+
+    @Autowired OrderService orderService;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderEventRepository orderEventRepository;
+    @Autowired TestDataHelper testDataHelper;
+
+    @AfterEach
+    void cleanUp() {
+        orderEventRepository.deleteAll();
+        testDataHelper.clearData();
+    }
+
+    @Test
+    @WithFoodyUser(email = "status@example.com", authorities = {"ROLE_ADMIN"})
+    void updateOrderStatus_AllowedTransition_BumpsVersion(User user) throws Exception {
+        Order order = createDeliveringOrder(user);
+        long version = order.getVersion();
+
+        mockMvc.perform(patch("/api/order/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new OrderStatusUpdateRequest(order.getId(), OrderStatus.DELIVERED, version))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("DELIVERED"))
+                .andExpect(jsonPath("$.version").value(version + 1));
+
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERED);
+    }
+
+    @Test
+    @WithFoodyUser(email = "status@example.com", authorities = {"ROLE_ADMIN"})
+    void updateOrderStatus_TransitionNotInTable_ReturnsConflict(User user) throws Exception {
+        Order order = createDeliveringOrder(user);
+
+        mockMvc.perform(patch("/api/order/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new OrderStatusUpdateRequest(order.getId(), OrderStatus.PREPARING, null))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("api.order.invalidStatusTransition"));
+
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERING);
+    }
+
+    @Test
+    @WithFoodyUser(email = "status@example.com", authorities = {"ROLE_ADMIN"})
+    void updateOrderStatus_AlreadyDelivered_ReturnsConflict(User user) throws Exception {
+        Order order = createDeliveringOrder(user);
+        orderService.updateOrderStatus(order.getId(), OrderStatus.DELIVERED, null);
+
+        mockMvc.perform(patch("/api/order/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new OrderStatusUpdateRequest(order.getId(), OrderStatus.CANCELLED, null))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("api.order.alreadyDelivered"));
+    }
+
+    @Test
+    @WithFoodyUser(email = "status@example.com", authorities = {"ROLE_ADMIN"})
+    void updateOrderStatus_StaleVersion_ReturnsConflict(User user) throws Exception {
+        Order order = createDeliveringOrder(user);
+
+        mockMvc.perform(patch("/api/order/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new OrderStatusUpdateRequest(order.getId(), OrderStatus.CANCELLED, order.getVersion() + 5))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("api.order.concurrentlyModified"));
+
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.DELIVERING);
+    }
+
+    @Test
+    @WithFoodyUser(email = "status@example.com", authorities = {"ROLE_ADMIN"})
+    void updateOrderStatus_ConcurrentFinalTransitions_OnlyOneWins(User user) throws Exception {
+        // Given
+        Order order = createDeliveringOrder(user);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (OrderStatus target : List.of(OrderStatus.DELIVERED, OrderStatus.CANCELLED)) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.updateOrderStatus(order.getId(), target, null);
+                } catch (GenericApiException e) {
+                    conflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(conflicts.get()).isEqualTo(1);
+        Order updated = orderRepository.findById(order.getId()).orElseThrow();
+        assertThat(updated.getStatus()).isIn(OrderStatus.DELIVERED, OrderStatus.CANCELLED);
+        assertThat(updated.getVersion()).isEqualTo(order.getVersion() + 1);
+    }
+
+    private Order createDeliveringOrder(User user) {
+        Food food = testDataHelper.createFood();
+        Restaurant restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        return testDataHelper.createOrder(user, restaurant, testDataHelper.createAddress(), food, 1);
+    }
+}
@@ -0,0 +1,157 @@
+package dev.services.order;
+
+import dev.BaseWebIntegrationTest;
+import dev.WithFoodyUser;
+import dev.account.user.Address;
+import dev.account.user.User;
+import dev.services.TestDataHelper;
+import dev.services.food.Food;
+import dev.services.restaurant.Restaurant;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements an order with {@value #ITEM_COUNT} items costs to write, from Hibernate's statistics. Each
+ * write is measured twice in the same run: once with JDBC batching turned off for the session, as the baseline, and
+ * once as configured.
+ *
+ * @author Nelson Tanko
+ */
+class OrderWriteBatchingIT extends BaseWebIntegrationTest {
+
+    private static final int ITEM_COUNT = 10;
+
+    @Autowired TestDataHelper testDataHelper;
+    @Autowired OrderRepository orderRepository;
+    @Autowired OrderItemRepository orderItemRepository;
+    @Autowired EntityManagerFactory entityManagerFactory;
+    @Autowired PlatformTransactionManager transactionManager;
+    @PersistenceContext EntityManager entityManager;
+
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        statistics.setStatisticsEnabled(false);
+        testDataHelper.clearData();
+    }
+
+    @Test
+    @WithFoodyUser(email = "batching@example.com")
+    void saveOrder_InsertsItemsInOneBatch(User user) {
+        // Given
+        Food food = testDataHelper.createFood();
+        Restaurant restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        Address address = testDataHelper.createAddress();
+        statistics.clear();
+
+        // When
+        long unbatched = statementsToSave(newOrder(user, restaurant, address, food), 1);
+        long batched = statementsToSave(newOrder(user, restaurant, address, food), null);
+
+        // Then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2 * (ITEM_COUNT + 1));
+        // one INSERT per row, plus a nextval whenever a pooled block runs out
+        assertThat(unbatched).isGreaterThanOrEqualTo(ITEM_COUNT + 1);
+        // at most one nextval per sequence plus one batched INSERT per table
+        assertThat(batched).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    @WithFoodyUser(email = "batching@example.com")
+    void updateOrderItems_FlushesInOneBatch(User user) {
+        // Given
+        Food food = testDataHelper.createFood();
+        Restaurant restaurant = testDataHelper.createRestaurant("Tasty Bites", true, true, 40.7130, -74.0050);
+        Address address = testDataHelper.createAddress();
+        List<Long> itemIds = transactionTemplate.execute(status -> orderRepository.save(newOrder(user, restaurant, address, food))
+                .getOrderItems().stream().map(OrderItem::getId).toList());
+        statistics.clear();
+
+        // When
+        long unbatched = statementsToFlushQuantity(itemIds, 2, 1);
+        long batched = statementsToFlushQuantity(itemIds, 3, null);
+
+        // Then
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(2 * ITEM_COUNT);
+        assertThat(unbatched).isEqualTo(ITEM_COUNT);
+        assertThat(batched).isEqualTo(1);
+    }
+
+    /**
+     * Statements prepared to save the order, with the session's JDBC batch size overridden when one is given
+     */
+    private long statementsToSave(Order order, Integer batchSize) {
+        AtomicLong statements = new AtomicLong();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            long before = statistics.getPrepareStatementCount();
+            orderRepository.save(order);
+            entityManager.flush();
+            statements.set(statistics.getPrepareStatementCount() - before);
+        });
+        return statements.get();
+    }
+
+    /**
+     * Statements prepared to flush a quantity change on every item, with the session's JDBC batch size overridden
+     * when one is given
+     */
+    private long statementsToFlushQuantity(List<Long> itemIds, int quantity, Integer batchSize) {
+        AtomicLong statements = new AtomicLong();
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            orderItemRepository.findAllById(itemIds).forEach(item -> item.setQuantity(quantity));
+            long before = statistics.getPrepareStatementCount();
+            entityManager.flush();
+            statements.set(statistics.getPrepareStatementCount() - before);
+        });
+        return statements.get();
+    }
+
+    private static Order newOrder(User user, Restaurant restaurant, Address address, Food food) {
+        Order order = Order.builder()
+                .user(user)
+                .restaurant(restaurant)
+                .deliveryAddress(address)
+                .status(OrderStatus.DELIVERING)
+                .orderTime(LocalDateTime.now())
+                .orderItems(new ArrayList<>())
+                .build();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            order.getOrderItems().add(OrderItem.builder()
+                    .order(order)
+                    .food(food)
+                    .quantity(1)
+                    .price(food.getPrice())
+                    .build());
+        }
+        order.setTotalAmount(food.getPrice().times(ITEM_COUNT));
+        return order;
+    }
+}
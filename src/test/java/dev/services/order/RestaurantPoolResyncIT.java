@@ -0,0 +1,85 @@
+package dev.services.order;
+
+import dev.BaseWebIntegrationTest;
+import dev.WithFoodyUser;
+import dev.account.user.User;
+import dev.services.TestDataHelper;
+import dev.services.food.Food;
+import dev.services.restaurant.Courier;
+import dev.services.restaurant.CourierRepository;
+import dev.services.restaurant.Restaurant;
+import dev.services.restaurant.RestaurantAvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Nelson Tanko
+ */
+class RestaurantPoolResyncIT extends BaseWebIntegrationTest {
+
+    @Autowired RestaurantPoolResync poolResync;
+    @Autowired RestaurantAvailabilityService availabilityService;
+    @Autowired CourierRepository courierRepository;
+    @Autowired OrderEventRepository orderEventRepository;
+    @Autowired RedisTemplate<String, String> redisTemplate;
+    @Autowired TestDataHelper testDataHelper;
+
+    private Restaurant restaurant;
+
+    @AfterEach
+    void cleanUp() {
+        if (restaurant != null) {
+            redisTemplate.delete(List.of("restaurant:slots:" + restaurant.getId(), "restaurant:couriers:" + restaurant.getId()));
+        }
+        orderEventRepository.deleteAll();
+        testDataHelper.clearData();
+    }
+
+    @Test
+    @WithFoodyUser(email = "resync@example.com")
+    void resyncAll_PoolSeededAtFullCapacity_CountsOrdersOutForDelivery(User user) {
+        // Given
+        // After a Redis flush the next dispatch seeds the pool from the row alone, ignoring the delivery in flight
+        restaurant = testDataHelper.createRestaurant("Resync Bites", true, true, 40.7128, -74.0060);
+        Courier courier = restaurant.getCouriers().get(0);
+        Food food = testDataHelper.createFood();
+        testDataHelper.createOrder(user, restaurant, testDataHelper.createAddress(), food, 1);
+        courier.markAsBusy(LocalDateTime.now().plusMinutes(15));
+        courierRepository.saveAndFlush(courier);
+        redisTemplate.opsForValue().set("restaurant:slots:" + restaurant.getId(), "1");
+        redisTemplate.opsForSet().add("restaurant:couriers:" + restaurant.getId(), courier.getId().toString());
+
+        // When
+        poolResync.resyncAll();
+
+        // Then
+        assertThat(availabilityService.getFreeSlots(restaurant.getId())).isZero();
+        assertThat(redisTemplate.opsForSet().members("restaurant:couriers:" + restaurant.getId())).isEmpty();
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isFalse();
+    }
+
+    @Test
+    void resyncPending_RebuildsPoolThatMissedARelease() {
+        // Given
+        restaurant = testDataHelper.createRestaurant("Lost Release Bites", true, true, 40.7306, -73.9352);
+        availabilityService.reserveFirstAvailable(List.of(restaurant)).orElseThrow();
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isFalse();
+
+        // When
+        poolResync.resyncLater(List.of(restaurant.getId()));
+        poolResync.resyncPending();
+
+        // Then
+        assertThat(availabilityService.getFreeSlots(restaurant.getId())).isEqualTo(1);
+        assertThat(redisTemplate.opsForSet().members("restaurant:couriers:" + restaurant.getId()))
+                .containsExactly(restaurant.getCouriers().get(0).getId().toString());
+        assertThat(availabilityService.isRestaurantAvailable(restaurant.getId())).isTrue();
+    }
+}
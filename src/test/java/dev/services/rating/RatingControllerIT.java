@@ -5,13 +5,28 @@ import dev.WithFoodyUser;
 import dev.account.user.User;
 import dev.services.TestDataHelper;
 import dev.services.food.Food;
+import dev.services.food.FoodRatingCounters;
+import dev.services.food.FoodRepository;
+import dev.services.food.RatingBacklog;
+import dev.services.food.RatingBacklogRepository;
+import dev.services.food.RatingBucket;
 import dev.services.rating.RatingDTO.Request;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -22,6 +37,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class RatingControllerIT extends BaseWebIntegrationTest {
 
     @Autowired TestDataHelper testDataHelper;
+    @Autowired FoodRepository foodRepository;
+    @Autowired RatingService ratingService;
+    @Autowired FoodRatingCounters foodRatingCounters;
+    @Autowired RatingBacklogRepository ratingBacklogRepository;
+    @Autowired RedisTemplate<String, String> redisTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
 
     private Food testFood;
 
@@ -32,6 +53,9 @@ class RatingControllerIT extends BaseWebIntegrationTest {
 
     @AfterEach
     void cleanUp() {
+        // Back to generation 0, whose keys the tests name directly
+        redisTemplate.delete("rating:generation");
+        foodRatingCounters.fold();
         testDataHelper.clearData();
     }
 
@@ -63,6 +87,186 @@ class RatingControllerIT extends BaseWebIntegrationTest {
                 .andExpect(jsonPath("$.rating").value(4));
     }
 
+    @Test
+    @WithFoodyUser
+    void rateFood_KeepsTheAggregateInStepWithNewAndChangedVotes() throws Exception {
+        mockMvc.perform(post("/api/rating")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new Request(testFood.getId(), 5))))
+                .andExpect(status().isOk());
+        foodRatingCounters.fold();
+
+        Food rated = foodRepository.findById(testFood.getId()).orElseThrow();
+        assertThat(rated.getRatingSum()).isEqualTo(5);
+        assertThat(rated.getRatingCount()).isEqualTo(1);
+        assertThat(rated.getAverageRating()).isEqualTo(5.0);
+
+        mockMvc.perform(post("/api/rating")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new Request(testFood.getId(), 2))))
+                .andExpect(status().isOk());
+        foodRatingCounters.fold();
+
+        Food rerated = foodRepository.findById(testFood.getId()).orElseThrow();
+        assertThat(rerated.getRatingSum()).isEqualTo(2);
+        assertThat(rerated.getRatingCount()).isEqualTo(1);
+        assertThat(rerated.getTotalRatings()).isEqualTo(1);
+        assertThat(rerated.getAverageRating()).isEqualTo(2.0);
+    }
+
+    @Test
+    @WithFoodyUser
+    void rateFood_PendingVotesShowBeforeTheyAreFolded() throws Exception {
+        mockMvc.perform(post("/api/rating")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new Request(testFood.getId(), 4))))
+                .andExpect(status().isOk());
+
+        assertThat(foodRepository.findById(testFood.getId()).orElseThrow().getRatingCount()).isZero();
+        mockMvc.perform(get("/api/food/{foodId}", testFood.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageRating").value(4.0))
+                .andExpect(jsonPath("$.totalRatings").value(1));
+
+        foodRatingCounters.fold();
+
+        mockMvc.perform(get("/api/food/{foodId}", testFood.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.averageRating").value(4.0))
+                .andExpect(jsonPath("$.totalRatings").value(1));
+        assertThat(foodRepository.findById(testFood.getId()).orElseThrow().getRatingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @WithFoodyUser
+    void fold_BatchRetriedAfterItWasCommitted_IsNotCountedTwice() throws Exception {
+        // Given
+        mockMvc.perform(post("/api/rating")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new Request(testFood.getId(), 5))))
+                .andExpect(status().isOk());
+        foodRatingCounters.fold();
+        String token = foodRepository.findById(testFood.getId()).orElseThrow().getRatingFoldToken();
+        // As left by a node that died after committing the batch and before clearing it, with a newer vote pending
+        redisTemplate.opsForHash().putAll("rating:folding:" + testFood.getId(), Map.of("sum", "5", "count", "1", "token", token));
+        redisTemplate.opsForHash().increment("rating:pending:" + testFood.getId() + ":0", "sum", 3);
+        redisTemplate.opsForHash().increment("rating:pending:" + testFood.getId() + ":0", "count", 1);
+        redisTemplate.opsForSet().add("rating:dirty", testFood.getId().toString());
+
+        // When
+        foodRatingCounters.fold();
+
+        // Then
+        Food retried = foodRepository.findById(testFood.getId()).orElseThrow();
+        assertThat(retried.getRatingSum()).isEqualTo(5);
+        assertThat(retried.getRatingCount()).isEqualTo(1);
+        assertThat(redisTemplate.hasKey("rating:folding:" + testFood.getId())).isFalse();
+
+        // When
+        foodRatingCounters.fold();
+
+        // Then
+        Food folded = foodRepository.findById(testFood.getId()).orElseThrow();
+        assertThat(folded.getRatingSum()).isEqualTo(8);
+        assertThat(folded.getRatingCount()).isEqualTo(2);
+        assertThat(folded.getRatingFoldToken()).isNotEqualTo(token);
+    }
+
+    @Test
+    void fold_AppliesBackloggedVotesOnce() {
+        // Given
+        ratingBacklogRepository.save(RatingBacklog.of(testFood.getId(), 4, 1));
+        ratingBacklogRepository.save(RatingBacklog.of(testFood.getId(), 2, 1));
+
+        // When
+        foodRatingCounters.fold();
+        foodRatingCounters.fold();
+
+        // Then
+        Food folded = foodRepository.findById(testFood.getId()).orElseThrow();
+        assertThat(folded.getRatingSum()).isEqualTo(6);
+        assertThat(folded.getRatingCount()).isEqualTo(2);
+        assertThat(folded.getAverageRating()).isEqualTo(3.0);
+        assertThat(ratingBacklogRepository.count()).isZero();
+    }
+
+    @Test
+    @WithFoodyUser
+    void rateFood_MovesTheStarHistogramWithNewAndChangedVotes() throws Exception {
+        mockMvc.perform(post("/api/rating")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new Request(testFood.getId(), 5))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/rating")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new Request(testFood.getId(), 3))))
+                .andExpect(status().isOk());
+        foodRatingCounters.fold();
+
+        mockMvc.perform(get("/api/food/{foodId}/ratings/histogram", testFood.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.foodId").value(testFood.getId()))
+                .andExpect(jsonPath("$.threeStars").value(1))
+                .andExpect(jsonPath("$.fiveStars").value(0));
+        mockMvc.perform(get("/api/food/{foodId}", testFood.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ratingHistogram.threeStars").value(1))
+                .andExpect(jsonPath("$.ratingHistogram.fiveStars").value(0));
+    }
+
+    @Test
+    @WithFoodyUser
+    void rebuildRatingAggregates_RecomputesFromTheRatingsTable(User testUser) {
+        testDataHelper.createRating(4, testFood, testUser);
+
+        ratingService.rebuildRatingAggregates();
+
+        Food rebuilt = foodRepository.findById(testFood.getId()).orElseThrow();
+        assertThat(rebuilt.getRatingSum()).isEqualTo(4);
+        assertThat(rebuilt.getRatingCount()).isEqualTo(1);
+        assertThat(rebuilt.getAverageRating()).isEqualTo(4.0);
+        assertThat(foodRepository.findRatingBuckets(List.of(testFood.getId())))
+                .extracting(RatingBucket::getStars, RatingBucket::getVotes)
+                .containsExactly(tuple(4, 1L));
+    }
+
+    @Test
+    @WithFoodyUser
+    void rebuildRatingAggregates_VoteStillBuffered_IsNotCountedTwice() throws Exception {
+        // Given
+        mockMvc.perform(post("/api/rating")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(new Request(testFood.getId(), 5))))
+                .andExpect(status().isOk());
+
+        // When
+        ratingService.rebuildRatingAggregates();
+        foodRatingCounters.fold();
+
+        // Then
+        Food rebuilt = foodRepository.findById(testFood.getId()).orElseThrow();
+        assertThat(rebuilt.getRatingSum()).isEqualTo(5);
+        assertThat(rebuilt.getRatingCount()).isEqualTo(1);
+        assertThat(redisTemplate.keys("rating:pending:" + testFood.getId() + ":*")).isEmpty();
+    }
+
+    @Test
+    @WithFoodyUser
+    void fold_BatchDrainedBeforeARebuild_IsSkipped(User testUser) {
+        // Given
+        testDataHelper.createRating(4, testFood, testUser);
+        ratingService.rebuildRatingAggregates();
+        String staleToken = "0:" + UUID.randomUUID();
+
+        // When
+        Integer applied = new TransactionTemplate(transactionManager).execute(status -> foodRepository.applyRatingDeltas(
+                new Long[]{testFood.getId()}, new Long[]{4L}, new Integer[]{1}, new String[]{staleToken}));
+
+        // Then
+        assertThat(applied).isZero();
+        assertThat(foodRepository.findById(testFood.getId()).orElseThrow().getRatingCount()).isEqualTo(1);
+    }
+
     @Test
     void addRating_UserNotAuthenticated_ReturnsError() throws Exception {
         Request request = new Request(testFood.getId(), 4);
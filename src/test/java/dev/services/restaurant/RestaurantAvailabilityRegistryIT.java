@@ -0,0 +1,144 @@
+package dev.services.restaurant;
+
+import dev.BaseWebIntegrationTest;
+import dev.services.TestDataHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Nelson Tanko
+ */
+class RestaurantAvailabilityRegistryIT extends BaseWebIntegrationTest {
+
+    @Autowired RestaurantAvailabilityRegistry registry;
+    @Autowired RestaurantAvailabilityService availabilityService;
+    @Autowired RestaurantRepository restaurantRepository;
+    @Autowired RedisTemplate<String, String> redisTemplate;
+    @Autowired TestDataHelper testDataHelper;
+    @Autowired RestaurantSpatialIndex spatialIndex;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private Restaurant restaurant;
+
+    @AfterEach
+    void cleanUp() {
+        if (restaurant != null) {
+            redisTemplate.delete(List.of(RestaurantAvailabilityService.SLOTS_KEY + restaurant.getId(),
+                    RestaurantAvailabilityService.COURIERS_KEY + restaurant.getId()));
+        }
+        testDataHelper.clearData();
+    }
+
+    @Test
+    void registry_FollowsPoolSaturationAndRelease() {
+        // Given
+        restaurant = testDataHelper.createRestaurant("Registry Bites", true, true, 40.7128, -74.0060);
+        assertThat(registry.isAvailable(restaurant.getId())).isTrue();
+        assertThat(registry.availableRestaurantIds()).contains(restaurant.getId());
+
+        // When
+        RestaurantReservation reservation = availabilityService.reserveFirstAvailable(List.of(restaurant)).orElseThrow();
+
+        // Then
+        assertThat(registry.isAvailable(restaurant.getId())).isFalse();
+        assertThat(registry.availableRestaurantIds()).doesNotContain(restaurant.getId());
+        assertThat(redisTemplate.opsForValue().getBit(RestaurantAvailabilityRegistry.AVAILABLE_KEY, restaurant.getId())).isFalse();
+
+        // When
+        availabilityService.releaseReservation(reservation);
+
+        // Then
+        assertThat(registry.isAvailable(restaurant.getId())).isTrue();
+        assertThat(redisTemplate.opsForValue().getBit(RestaurantAvailabilityRegistry.AVAILABLE_KEY, restaurant.getId())).isTrue();
+    }
+
+    @Test
+    void registry_SwitchedOffRestaurantStaysUnavailableAfterRelease() {
+        // Given
+        restaurant = testDataHelper.createRestaurant("Closed Bites", true, true, 40.7306, -73.9352);
+        RestaurantReservation reservation = availabilityService.reserveFirstAvailable(List.of(restaurant)).orElseThrow();
+
+        // When
+        restaurant.setAvailable(false);
+        restaurant = restaurantRepository.saveAndFlush(restaurant);
+        availabilityService.releaseReservation(reservation);
+
+        // Then
+        assertThat(registry.isAvailable(restaurant.getId())).isFalse();
+        assertThat(availabilityService.getFreeSlots(restaurant.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void reload_PicksUpFlipsMadeElsewhere() {
+        // Given
+        restaurant = testDataHelper.createRestaurant("Remote Bites", true, true, 40.7580, -73.9855);
+        redisTemplate.opsForValue().setBit(RestaurantAvailabilityRegistry.AVAILABLE_KEY, restaurant.getId(), false);
+        redisTemplate.opsForValue().increment(RestaurantAvailabilityRegistry.VERSION_KEY);
+        assertThat(registry.isAvailable(restaurant.getId())).isTrue();
+
+        // When
+        registry.reload();
+
+        // Then
+        assertThat(registry.isAvailable(restaurant.getId())).isFalse();
+    }
+
+    @Test
+    void onMessage_IgnoresFlipOlderThanTheAppliedState() {
+        // Given
+        restaurant = testDataHelper.createRestaurant("Late Bites", true, true, 40.7580, -73.9855);
+        availabilityService.reserveFirstAvailable(List.of(restaurant)).orElseThrow();
+        String version = redisTemplate.opsForValue().get(RestaurantAvailabilityRegistry.VERSION_KEY);
+
+        // When
+        registry.onMessage(message(restaurant.getId() + ":1:" + (Long.parseLong(version) - 1)), null);
+
+        // Then
+        assertThat(registry.isAvailable(restaurant.getId())).isFalse();
+
+        // When
+        registry.onMessage(message(restaurant.getId() + ":1:" + (Long.parseLong(version) + 1)), null);
+
+        // Then
+        assertThat(registry.isAvailable(restaurant.getId())).isTrue();
+    }
+
+    @Test
+    void spatialIndex_IgnoresRestaurantWriteThatRollsBack() {
+        // Given
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        // When
+        Long rolledBackId = transaction.execute(status -> {
+            Restaurant saved = testDataHelper.createRestaurant("Phantom Bites", true, true, 9.0765, 7.3986);
+            assertThat(TransactionSynchronizationManager.isSynchronizationActive()).isTrue();
+            status.setRollbackOnly();
+            return saved.getId();
+        });
+
+        // Then
+        assertThat(spatialIndex.findNearestAvailable(9.0765, 7.3986, 10)).doesNotContain(rolledBackId);
+
+        // When
+        restaurant = testDataHelper.createRestaurant("Committed Bites", true, true, 9.0765, 7.3986);
+
+        // Then
+        assertThat(spatialIndex.findNearestAvailable(9.0765, 7.3986, 10)).contains(restaurant.getId());
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(RestaurantAvailabilityRegistry.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -8,9 +8,16 @@ import dev.services.restaurant.RestaurantDTO.UpdateRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.MediaType;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -21,6 +28,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class RestaurantControllerIT extends BaseWebIntegrationTest {
     @Autowired RestaurantRepository restaurantRepository;
     @Autowired TestDataHelper testDataHelper;
+    @Autowired CacheManager cacheManager;
 
     @AfterEach
     void cleanUp() {
@@ -100,10 +108,11 @@ class RestaurantControllerIT extends BaseWebIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(toJSON(updateRequest)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.courier.name").value("New Tasty Bites Courier"));
+                .andExpect(jsonPath("$.couriers[*].name").value(hasItem("New Tasty Bites Courier")));
 
         Restaurant updatedRestaurant = restaurantRepository.findById(existingRestaurant.getId()).orElseThrow();
-        assertThat(updatedRestaurant.getCourier()).isNotNull();
+        assertThat(updatedRestaurant.getCouriers()).extracting(Courier::getName)
+                .containsExactlyInAnyOrder("Tasty Bites courier", "New Tasty Bites Courier");
     }
 
     @Test
@@ -170,6 +179,86 @@ class RestaurantControllerIT extends BaseWebIntegrationTest {
                 .andExpect(jsonPath("$.message").value("api.restaurant.notFound"));
     }
 
+    @Test
+    @WithFoodyUser(email = "user@example.com")
+    void scrollRestaurants_WalksRestaurantsCreatedAtTheSameTimeWithoutSkipsOrRepeats() throws Exception {
+        // Given
+        cacheManager.getCache("restaurants").clear();
+        List<Long> activeIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            activeIds.add(testDataHelper.createRestaurant("Bites " + i, true, i % 2 == 0, 78.99, 333.98).getId());
+        }
+        Restaurant closed = testDataHelper.createRestaurant("Closed Bites", true, false, 78.99, 333.98);
+        testDataHelper.deactivateRestaurant(closed.getId());
+        // Every page boundary falls between restaurants with the same creation date, so only the id can tell them apart
+        testDataHelper.setRestaurantCreatedDates(LocalDateTime.of(2025, 6, 1, 12, 0));
+
+        // When
+        List<Long> scrolled = scrollAllIds("/api/restaurant/scroll", 2);
+
+        // Then
+        assertThat(scrolled).containsExactlyElementsOf(activeIds.stream().sorted(Comparator.reverseOrder()).toList());
+    }
+
+    @Test
+    @WithFoodyUser(email = "admin@example.com", authorities = {"ROLE_ADMIN"})
+    void scrollRestaurants_CachedPageIsEvictedWhenARestaurantIsCreated() throws Exception {
+        // Given
+        cacheManager.getCache("restaurants").clear();
+        Restaurant existing = testDataHelper.createRestaurant("Old Bites", true, true, 78.99, 333.98);
+        mockMvc.perform(get("/api/restaurant/scroll"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(existing.getId()));
+
+        // When
+        mockMvc.perform(post("/api/restaurant")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(testDataHelper.createRestaurant())))
+                .andExpect(status().isCreated());
+
+        // Then
+        mockMvc.perform(get("/api/restaurant/scroll"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Tasty Bites"))
+                .andExpect(jsonPath("$[1].id").value(existing.getId()));
+    }
+
+    @Test
+    @WithFoodyUser(email = "user@example.com")
+    void getNearbyRestaurants_ReturnsRestaurantsInsideTheRadiusNearestFirst() throws Exception {
+        cacheManager.getCache("restaurants").clear();
+        Restaurant far = testDataHelper.createRestaurant("Far Bites", true, true, 9.1000, 7.4200);
+        Restaurant near = testDataHelper.createRestaurant("Near Bites", true, true, 9.0800, 7.4000);
+        testDataHelper.createRestaurant("Lagos Bites", true, true, 6.5244, 3.3792);
+
+        mockMvc.perform(get("/api/restaurant/nearby")
+                        .param("lat", "9.0765")
+                        .param("lon", "7.3986")
+                        .param("radiusKm", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].restaurant.id").value(near.getId()))
+                .andExpect(jsonPath("$[0].restaurant.available").value(true))
+                .andExpect(jsonPath("$[1].restaurant.id").value(far.getId()));
+
+        assertThat(restaurantRepository.findById(near.getId()).orElseThrow().getAddress().getGeohash()).startsWith("s1t7");
+    }
+
+    @Test
+    @WithFoodyUser(email = "user@example.com")
+    void getNearbyRestaurants_RadiusTooLarge_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/restaurant/nearby")
+                        .param("lat", "9.0765")
+                        .param("lon", "7.3986")
+                        .param("radiusKm", "500")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("api.restaurant.invalidSearchArea"));
+    }
+
     @Test
     @WithFoodyUser(email = "admin@example.com", authorities = {"ROLE_ADMIN"})
     void deleteRestaurant_Success() throws Exception {
@@ -181,7 +270,7 @@ class RestaurantControllerIT extends BaseWebIntegrationTest {
 
         Restaurant deletedRestaurant = restaurantRepository.findById(restaurant.getId()).orElseThrow();
         assertThat(deletedRestaurant.isActive()).isFalse();
-        assertThat(deletedRestaurant.getCourier().isActive()).isFalse();
+        assertThat(deletedRestaurant.getCouriers()).isNotEmpty().noneMatch(Courier::isActive);
     }
 
     @Test
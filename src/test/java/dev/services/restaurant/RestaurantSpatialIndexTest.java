@@ -0,0 +1,180 @@
+package dev.services.restaurant;
+
+import dev.account.user.Address;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantSpatialIndexTest {
+
+    @Mock RestaurantRepository restaurantRepository;
+
+    private RestaurantSpatialIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RestaurantSpatialIndex(restaurantRepository, 0.05);
+    }
+
+    @Test
+    void findNearestAvailable_ReturnsClosestFirst() {
+        // Given
+        index.upsert(restaurant(1L, 40.7130, -74.0050, true));
+        index.upsert(restaurant(2L, 40.7306, -73.9352, true));
+        index.upsert(restaurant(3L, 40.7500, -73.8000, true));
+
+        // When
+        List<Long> nearest = index.findNearestAvailable(40.7128, -74.0060, 2);
+
+        // Then
+        assertThat(nearest).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void findNearestAvailable_SkipsBusyRestaurants() {
+        // Given
+        index.upsert(restaurant(1L, 40.7130, -74.0050, true));
+        index.upsert(restaurant(2L, 40.7306, -73.9352, true));
+        index.setAvailable(1L, false);
+
+        // When
+        List<Long> nearest = index.findNearestAvailable(40.7128, -74.0060, 5);
+
+        // Then
+        assertThat(nearest).containsExactly(2L);
+    }
+
+    @Test
+    void findNearestAvailable_ExpandsPastRestaurantsTheFilterRejects() {
+        // Given
+        index.upsert(restaurant(1L, 40.7130, -74.0050, true));
+        index.upsert(restaurant(2L, 40.7140, -74.0070, true));
+        index.upsert(restaurant(3L, 40.7500, -73.8000, true));
+
+        // When
+        List<Long> nearest = index.findNearestAvailable(40.7128, -74.0060, 1, id -> id == 3L);
+
+        // Then
+        assertThat(nearest).containsExactly(3L);
+    }
+
+    @Test
+    void findNearestAvailable_BreaksTiesById() {
+        // Given
+        index.upsert(restaurant(7L, 40.7135, -74.0055, true));
+        index.upsert(restaurant(4L, 40.7135, -74.0055, true));
+
+        // When
+        List<Long> nearest = index.findNearestAvailable(40.7128, -74.0060, 1);
+
+        // Then
+        assertThat(nearest).containsExactly(4L);
+    }
+
+    @Test
+    void findNearestAvailable_FindsRestaurantsFarOutsideTheQueryCell() {
+        // Given
+        index.upsert(restaurant(1L, 51.5072, -0.1276, true));
+
+        // When
+        List<Long> nearest = index.findNearestAvailable(40.7128, -74.0060, 3);
+
+        // Then
+        assertThat(nearest).containsExactly(1L);
+    }
+
+    @Test
+    void upsert_InactiveRestaurant_RemovesItFromIndex() {
+        // Given
+        Restaurant restaurant = restaurant(1L, 40.7130, -74.0050, true);
+        index.upsert(restaurant);
+
+        // When
+        restaurant.setActive(false);
+        index.upsert(restaurant);
+
+        // Then
+        assertThat(index.size()).isZero();
+        assertThat(index.findNearestAvailable(40.7128, -74.0060, 1)).isEmpty();
+    }
+
+    @Test
+    void upsert_MovedRestaurant_IsFoundAtNewLocation() {
+        // Given
+        Restaurant restaurant = restaurant(1L, 40.7130, -74.0050, true);
+        index.upsert(restaurant);
+        index.upsert(restaurant(2L, 10.0, 10.0, true));
+
+        // When
+        restaurant.getAddress().setLatitude(10.001);
+        restaurant.getAddress().setLongitude(10.001);
+        index.upsert(restaurant);
+
+        // Then
+        assertThat(index.findNearestAvailable(10.0012, 10.0012, 1)).containsExactly(1L);
+    }
+
+    @Test
+    void rebuild_ReplacesEntriesWithDatabaseState() {
+        // Given
+        index.upsert(restaurant(9L, 40.0, -74.0, true));
+        when(restaurantRepository.findActiveLocations()).thenReturn(List.of(
+                new RestaurantLocation(1L, 40.7130, -74.0050, true),
+                new RestaurantLocation(2L, 40.7306, -73.9352, false)));
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.findNearestAvailable(40.7128, -74.0060, 5)).containsExactly(1L);
+    }
+
+    @Test
+    void findNearestAvailable_MatchesBruteForce() {
+        // Given
+        Random random = new Random(42);
+        List<double[]> points = IntStream.range(0, 500)
+                .mapToObj(i -> new double[]{9 + random.nextDouble() * 0.6, 7 + random.nextDouble() * 0.6})
+                .toList();
+        for (int i = 0; i < points.size(); i++) {
+            index.upsert(restaurant((long) i, points.get(i)[0], points.get(i)[1], true));
+        }
+        double latitude = 9.3;
+        double longitude = 7.3;
+
+        // When
+        List<Long> nearest = index.findNearestAvailable(latitude, longitude, 10);
+
+        // Then
+        List<Long> expected = IntStream.range(0, points.size()).boxed()
+                .sorted(Comparator.comparingDouble(i -> Address.distanceBetween(latitude, longitude,
+                        points.get(i)[0], points.get(i)[1])))
+                .limit(10)
+                .map(Integer::longValue)
+                .toList();
+        assertThat(nearest).containsExactlyElementsOf(expected);
+    }
+
+    private static Restaurant restaurant(Long id, double latitude, double longitude, boolean available) {
+        Restaurant restaurant = Restaurant.builder()
+                .id(id)
+                .name("Restaurant " + id)
+                .active(true)
+                .available(available)
+                .build();
+        restaurant.setAddress(Address.builder().latitude(latitude).longitude(longitude).build());
+        return restaurant;
+    }
+}